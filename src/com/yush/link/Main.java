@@ -1,10 +1,23 @@
 package com.yush.link;
 
+import com.yush.link.utils.AudioEngine;
+import com.yush.link.utils.ConfigService;
+import com.yush.link.utils.GameConfig;
+import com.yush.link.utils.ResourceLoader;
+import com.yush.link.utils.ScoreStore;
 import com.yush.link.view.MainMenuFrame;
 import javax.swing.*;
 
 public class Main {
     public static void main(String[] args) {
+        // 加载配置并监视配置文件变化
+        ConfigService.load();
+        ConfigService.addListener(config -> ResourceLoader.setScaledCacheLimit(config.getSpriteCacheSize()));
+        ConfigService.startWatching();
+
+        // 后台加载成绩记录
+        ScoreStore.getInstance();
+
         // 使用SwingUtilities确保线程安全
         SwingUtilities.invokeLater(() -> {
             try {
@@ -14,8 +27,24 @@ public class Main {
                 e.printStackTrace();
             }
 
+            // 启动音频
+            startAudio();
+
             // 创建并显示主菜单
             new MainMenuFrame().setVisible(true);
         });
     }
+
+    /**
+     * 按配置启动音频引擎，配置变化时同步更新
+     */
+    private static void startAudio() {
+        applyAudioConfig(ConfigService.get());
+        ConfigService.addListener(Main::applyAudioConfig);
+        AudioEngine.start();
+    }
+
+    private static void applyAudioConfig(GameConfig config) {
+        AudioEngine.configure(config.isSoundEnabled(), config.getMusicVolume(), config.getEffectsVolume());
+    }
 }
\ No newline at end of file
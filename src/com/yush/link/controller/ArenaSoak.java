@@ -0,0 +1,128 @@
+package com.yush.link.controller;
+
+import com.yush.link.model.BoardArena;
+import com.yush.link.model.BoardLayout;
+import com.yush.link.model.GameBoard;
+import com.yush.link.model.Position;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+/**
+ * 大量棋盘同时存在时的浸泡测试：保持指定数量的对局，随机挑选对局走一步，
+ * 清空或无步可走的对局释放后立即开新局，最后输出吞吐量、堆占用和GC次数。
+ *
+ * arena模式下棋盘存放在堆外的BoardArena中，堆上只有槽位编号；heap模式为每局一个普通GameBoard，用于对比。
+ * 堆外内存由BoardArena的字节上限限制，棋盘数超出上限时分配失败。
+ * HotSpot把MemorySegment的分配也计入直接内存限额（默认等于-Xmx），小堆运行时需用 -XX:MaxDirectMemorySize 放宽到上限以上，
+ * 这个参数只是允许分配，并不是BoardArena的上限。
+ *
+ * 用法：java -Xmx64m -XX:MaxDirectMemorySize=1g com.yush.link.controller.ArenaSoak
+ *       [arena|heap] [棋盘数] [步数] [行数] [列数] [图片种类] [堆外上限MB]
+ * 默认：arena 1000000 5000000 8 8 18 512
+ */
+public class ArenaSoak {
+    private static final long ROOT_SEED = 0x50A4;
+
+    public static void main(String[] args) {
+        boolean offHeap = !"heap".equalsIgnoreCase(arg(args, 0, "arena"));
+        int boards = Integer.parseInt(arg(args, 1, "1000000"));
+        long steps = Long.parseLong(arg(args, 2, "5000000"));
+        int rows = Integer.parseInt(arg(args, 3, "8"));
+        int cols = Integer.parseInt(arg(args, 4, "8"));
+        int tileTypes = Integer.parseInt(arg(args, 5, "18"));
+        long maxOffHeapBytes = Long.parseLong(arg(args, 6, "512")) << 20;
+
+        BoardLayout layout = BoardLayout.rectangle(rows, cols);
+        GameBoard template = new GameBoard(layout, tileTypes);
+        BoardArena arena = offHeap ? BoardArena.forLayout(layout, maxOffHeapBytes) : null;
+        int[] slots = offHeap ? new int[boards] : null;
+        GameBoard[] heapBoards = offHeap ? null : new GameBoard[boards];
+        SplittableRandom random = new SplittableRandom(ROOT_SEED);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < boards; i++) {
+            GameBoard board;
+            if (offHeap) {
+                slots[i] = arena.allocate();
+                board = template.withStorage(arena.storage(slots[i]));
+            } else {
+                board = heapBoards[i] = new GameBoard(layout, tileTypes);
+            }
+            board.initializeBoard(random.nextLong());
+        }
+        System.out.printf("%s: %d boards of %dx%d/%d created in %.2f s, heap used %.1f MB",
+                offHeap ? "Arena" : "Heap", boards, rows, cols, tileTypes,
+                (System.nanoTime() - start) / 1e9, usedHeapAfterGc() / 1e6);
+        if (offHeap) {
+            System.out.printf(", off-heap %.1f MB (%d bytes per board)",
+                    arena.getReservedBytes() / 1e6, arena.getSlotBytes());
+        }
+        System.out.println();
+
+        // findAnyMove不使用路径缓存，可以在不同棋盘之间共享
+        PathFinder pathFinder = new PathFinder();
+        long gcCountBefore = gcCount();
+        long gcMillisBefore = gcMillis();
+        long games = 0;
+        start = System.nanoTime();
+        for (long step = 0; step < steps; step++) {
+            int index = random.nextInt(boards);
+            GameBoard board = offHeap ? template.withStorage(arena.storage(slots[index])) : heapBoards[index];
+
+            Position[] move = pathFinder.findAnyMove(board);
+            if (move != null) {
+                board.removePair(move[0], move[1]);
+            }
+            if (move == null || board.isGameComplete()) {
+                // 对局结束，回收后开新局
+                games++;
+                if (offHeap) {
+                    arena.release(slots[index]);
+                    slots[index] = arena.allocate();
+                    board = template.withStorage(arena.storage(slots[index]));
+                } else {
+                    board = heapBoards[index] = new GameBoard(layout, tileTypes);
+                }
+                board.initializeBoard(random.nextLong());
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("  %d steps in %.2f s (%.0f steps/s), %d games recycled%n",
+                steps, seconds, steps / seconds, games);
+        System.out.printf("  GC: %d collections, %d ms; heap used after GC %.1f MB%n",
+                gcCount() - gcCountBefore, gcMillis() - gcMillisBefore, usedHeapAfterGc() / 1e6);
+        if (offHeap) {
+            System.out.printf("  live slots %d, off-heap %.1f MB%n", arena.getLiveSlots(), arena.getReservedBytes() / 1e6);
+            arena.close();
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+
+    private static String arg(String[] args, int index, String defaultValue) {
+        return index < args.length ? args[index] : defaultValue;
+    }
+}
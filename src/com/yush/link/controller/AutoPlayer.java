@@ -0,0 +1,75 @@
+package com.yush.link.controller;
+
+import com.yush.link.model.Position;
+
+import javax.swing.Timer;
+
+/**
+ * 界面上的自动演示：用Swing定时器按固定间隔模拟点击，每组方块分两次点击
+ *
+ * 所有操作都在事件分发线程上执行，选步时间由BotPlayer的预算限制。
+ */
+class AutoPlayer {
+    private final GameController controller;
+    private final BotPlayer bot;
+    private final Timer timer;
+
+    private Position[] pendingMove;     // 已点击第一个方块、等待点击第二个的走法
+
+    AutoPlayer(GameController controller, BotPlayer bot, int moveDelayMillis) {
+        this.controller = controller;
+        this.bot = bot;
+        // 每步两次点击，各占一半间隔
+        this.timer = new Timer(Math.max(1, moveDelayMillis / 2), e -> step());
+        this.timer.setInitialDelay(0);
+    }
+
+    void start() {
+        pendingMove = null;
+        timer.start();
+    }
+
+    void stop() {
+        timer.stop();
+        pendingMove = null;
+    }
+
+    boolean isRunning() {
+        return timer.isRunning();
+    }
+
+    BotPlayer getBot() {
+        return bot;
+    }
+
+    private void step() {
+        // 暂停时等待
+        if (!controller.isTimerRunning()) {
+            return;
+        }
+        if (controller.getGameBoard().isGameComplete()) {
+            controller.stopAutoPlay();
+            return;
+        }
+
+        if (pendingMove != null) {
+            Position second = pendingMove[1];
+            pendingMove = null;
+            controller.onCellClicked(second.getRow(), second.getCol());
+            return;
+        }
+
+        Position[] move = bot.nextMove(controller.getGameBoard());
+        if (move == null) {
+            // 无步可走，交给控制器的无步可走提示处理
+            controller.stopAutoPlay();
+            return;
+        }
+
+        // 清除玩家的选中状态，避免与自动点击配对
+        controller.resetSelection();
+        controller.revealCell(move[0]);
+        controller.onCellClicked(move[0].getRow(), move[0].getCol());
+        pendingMove = move;
+    }
+}
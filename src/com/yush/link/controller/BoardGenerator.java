@@ -0,0 +1,69 @@
+package com.yush.link.controller;
+
+import com.yush.link.model.BoardLayout;
+import com.yush.link.model.Difficulty;
+import com.yush.link.model.GameBoard;
+import com.yush.link.model.GravityMode;
+
+import java.util.SplittableRandom;
+
+/**
+ * 按目标难度生成棋盘：在时间预算内反复生成候选棋盘并估计难度，
+ * 清空率落在目标区间内的棋盘直接采用，超时时采用最接近区间的候选
+ *
+ * 开局无步可走的候选不参与筛选，换下一个种子（而不是洗牌），保证棋盘可以由种子重现。
+ */
+public class BoardGenerator {
+    // 每个候选棋盘的随机对局数
+    private static final int PLAYOUTS = 64;
+    // 开局无步可走的候选最多跳过的个数（极小的棋盘可能总是无步可走）
+    private static final int MAX_DEAD_CANDIDATES = 10;
+
+    private static final DifficultyEstimator estimator = new DifficultyEstimator();
+
+    /**
+     * 生成已初始化的棋盘
+     * @param difficulty 目标难度，null表示不筛选
+     * @param budgetMillis 生成时间预算，0表示不筛选
+     * @param seed 生成种子，候选棋盘的种子由此依次派生（最终棋盘的种子可用getSeed获取）
+     */
+    public static GameBoard generate(BoardLayout layout, int tileTypes, GravityMode gravityMode,
+                                     Difficulty difficulty, int budgetMillis, long seed) {
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000L;
+        SplittableRandom seeds = new SplittableRandom(seed);
+        GameBoard best = null;
+        double bestDistance = Double.MAX_VALUE;
+        PathFinder pathFinder = new PathFinder();
+        int deadCandidates = 0;
+
+        for (int candidate = 0; ; candidate++) {
+            GameBoard board = new GameBoard(layout, tileTypes);
+            board.setGravityMode(gravityMode);
+            board.initializeBoard(candidate == 0 ? seed : seeds.nextLong());
+            if (pathFinder.findAnyMove(board) == null && deadCandidates++ < MAX_DEAD_CANDIDATES) {
+                continue;
+            }
+            if (difficulty == null || budgetMillis <= 0) {
+                return board;
+            }
+
+            DifficultyEstimator.Report report = estimator.estimate(board, PLAYOUTS, board.getSeed(), deadline);
+            // 预算内一局也没有完成（棋盘过大），无法判断难度
+            if (report.getPlayouts() == 0) {
+                return best != null ? best : board;
+            }
+
+            double distance = difficulty.distance(report.getClearRate());
+            if (distance == 0) {
+                return board;
+            }
+            if (distance < bestDistance) {
+                best = board;
+                bestDistance = distance;
+            }
+            if (System.nanoTime() >= deadline) {
+                return best;
+            }
+        }
+    }
+}
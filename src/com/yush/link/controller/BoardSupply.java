@@ -0,0 +1,247 @@
+package com.yush.link.controller;
+
+import com.yush.link.model.BoardLayout;
+import com.yush.link.model.Difficulty;
+import com.yush.link.model.GameBoard;
+import com.yush.link.model.GravityMode;
+import com.yush.link.utils.ConfigService;
+import com.yush.link.utils.GameConstants;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 预生成棋盘池：每种模式（形状、图片种类、重力、难度）保留少量已生成并检查过可走步的棋盘，
+ * 由低优先级的后台线程补充。开局和重新开始时直接从队列取出，队列为空时才在调用线程上生成。
+ * 最多保留MAX_SUPPLIES种模式，超出时丢弃最久没有使用的模式（HTTP接口可以请求任意尺寸）。
+ */
+public class BoardSupply {
+    // 每种模式预生成的棋盘数
+    private static final int QUEUE_DEPTH = 3;
+    // 最多保留的模式数
+    private static final int MAX_SUPPLIES = 32;
+
+    private static BoardSupply instance;
+
+    /**
+     * 单个模式的统计（快照）
+     */
+    public static class Stats {
+        private final String mode;
+        private final int depth;
+        private final long hits;
+        private final long misses;
+        private final long generated;
+        private final double averageRefillMillis;
+        private final double maxRefillMillis;
+
+        Stats(String mode, int depth, long hits, long misses, long generated,
+              double averageRefillMillis, double maxRefillMillis) {
+            this.mode = mode;
+            this.depth = depth;
+            this.hits = hits;
+            this.misses = misses;
+            this.generated = generated;
+            this.averageRefillMillis = averageRefillMillis;
+            this.maxRefillMillis = maxRefillMillis;
+        }
+
+        public String getMode() { return mode; }
+        /** 当前队列中的棋盘数 */
+        public int getDepth() { return depth; }
+        /** 直接从队列取到棋盘的次数 */
+        public long getHits() { return hits; }
+        /** 队列为空、在调用线程上生成的次数 */
+        public long getMisses() { return misses; }
+        /** 后台生成的棋盘数 */
+        public long getGenerated() { return generated; }
+        /** 后台生成一个棋盘的平均耗时 */
+        public double getAverageRefillMillis() { return averageRefillMillis; }
+        public double getMaxRefillMillis() { return maxRefillMillis; }
+
+        @Override
+        public String toString() {
+            return String.format("BoardSupply{%s: depth=%d/%d, hits=%d, misses=%d, refill avg=%.1fms max=%.1fms}",
+                    mode, depth, QUEUE_DEPTH, hits, misses, averageRefillMillis, maxRefillMillis);
+        }
+    }
+
+    /**
+     * 单个模式的棋盘队列
+     */
+    private static class Supply {
+        final String key;
+        final BoardLayout layout;
+        final int tileTypes;
+        final GravityMode gravityMode;
+        final Difficulty difficulty;
+        final BlockingQueue<GameBoard> boards = new ArrayBlockingQueue<>(QUEUE_DEPTH);
+        final AtomicBoolean refillQueued = new AtomicBoolean();    // 是否已在补充队列中
+        volatile boolean evicted;                                  // 已被移出棋盘池，不再补充
+
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+        final AtomicLong generated = new AtomicLong();
+        final AtomicLong refillNanos = new AtomicLong();
+        final AtomicLong maxRefillNanos = new AtomicLong();
+
+        Supply(String key, BoardLayout layout, int tileTypes, GravityMode gravityMode, Difficulty difficulty) {
+            this.key = key;
+            this.layout = layout;
+            this.tileTypes = tileTypes;
+            this.gravityMode = gravityMode;
+            this.difficulty = difficulty;
+        }
+
+        Stats stats() {
+            long count = generated.get();
+            return new Stats(key, boards.size(), hits.get(), misses.get(), count,
+                    count == 0 ? 0 : refillNanos.get() / 1e6 / count, maxRefillNanos.get() / 1e6);
+        }
+    }
+
+    // 按访问顺序排列，访问时需持有supplies的锁
+    private final Map<String, Supply> supplies = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Supply> eldest) {
+            if (size() <= MAX_SUPPLIES) {
+                return false;
+            }
+            eldest.getValue().evicted = true;
+            eldest.getValue().boards.clear();
+            return true;
+        }
+    };
+    private final BlockingQueue<Supply> refillRequests = new LinkedBlockingQueue<>();
+    private Thread worker;
+
+    /**
+     * 获取默认棋盘池，首次调用时启动补充线程
+     */
+    public static synchronized BoardSupply getInstance() {
+        if (instance == null) {
+            instance = new BoardSupply();
+            instance.start();
+        }
+        return instance;
+    }
+
+    /**
+     * 启动补充线程（守护线程，最低优先级，不与界面线程争抢）
+     */
+    public synchronized void start() {
+        if (worker != null) {
+            return;
+        }
+        worker = new Thread(this::runWorker, "board-supply");
+        worker.setDaemon(true);
+        worker.setPriority(Thread.MIN_PRIORITY);
+        worker.start();
+    }
+
+    /**
+     * 提前为模式准备棋盘（选择模式时调用）
+     */
+    public void prefetch(BoardLayout layout, int tileTypes, GravityMode gravityMode, Difficulty difficulty) {
+        requestRefill(supplyFor(layout, tileTypes, gravityMode, difficulty));
+    }
+
+    /**
+     * 取出一个已生成的棋盘；队列为空时在调用线程上生成。取出后通知后台补充。
+     */
+    public GameBoard take(BoardLayout layout, int tileTypes, GravityMode gravityMode, Difficulty difficulty) {
+        Supply supply = supplyFor(layout, tileTypes, gravityMode, difficulty);
+        GameBoard board = supply.boards.poll();
+        if (board != null) {
+            supply.hits.incrementAndGet();
+        } else {
+            supply.misses.incrementAndGet();
+            board = generate(supply);
+        }
+        requestRefill(supply);
+
+        if (GameConstants.DEBUG_MODE) {
+            System.out.println(supply.stats());
+        }
+        return board;
+    }
+
+    /**
+     * 各模式的统计，按模式名排序
+     */
+    public List<Stats> getStats() {
+        List<Stats> stats = new ArrayList<>();
+        synchronized (supplies) {
+            for (Supply supply : supplies.values()) {
+                stats.add(supply.stats());
+            }
+        }
+        stats.sort(Comparator.comparing(Stats::getMode));
+        return stats;
+    }
+
+    private Supply supplyFor(BoardLayout layout, int tileTypes, GravityMode gravityMode, Difficulty difficulty) {
+        // 矩形布局每次都是新对象，按名称和尺寸区分
+        String key = String.format("%s %dx%d/%d %s %s", layout.getName(), layout.getRows(), layout.getCols(),
+                tileTypes, gravityMode, difficulty == null ? "Any" : difficulty);
+        synchronized (supplies) {
+            return supplies.computeIfAbsent(key, k -> new Supply(k, layout, tileTypes, gravityMode, difficulty));
+        }
+    }
+
+    private void requestRefill(Supply supply) {
+        if (!supply.evicted && supply.refillQueued.compareAndSet(false, true)) {
+            refillRequests.offer(supply);
+        }
+    }
+
+    private void runWorker() {
+        while (true) {
+            Supply supply;
+            try {
+                supply = refillRequests.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            supply.refillQueued.set(false);
+
+            try {
+                while (!supply.evicted && supply.boards.remainingCapacity() > 0) {
+                    long start = System.nanoTime();
+                    GameBoard board = generate(supply);
+                    long elapsed = System.nanoTime() - start;
+                    supply.generated.incrementAndGet();
+                    supply.refillNanos.addAndGet(elapsed);
+                    supply.maxRefillNanos.accumulateAndGet(elapsed, Math::max);
+                    if (!supply.boards.offer(board)) {
+                        break;
+                    }
+                }
+            } catch (RuntimeException e) {
+                // 生成失败只影响该模式，调用方取不到棋盘时会自行生成
+                System.err.println("棋盘生成失败: " + supply.key + " (" + e.getMessage() + ")");
+                if (GameConstants.DEBUG_MODE) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * 生成棋盘（按难度筛选，开局无步可走的候选由BoardGenerator换种子重新生成）
+     */
+    private static GameBoard generate(Supply supply) {
+        return BoardGenerator.generate(supply.layout, supply.tileTypes, supply.gravityMode,
+                supply.difficulty, ConfigService.get().getGenerationBudgetMs(), ThreadLocalRandom.current().nextLong());
+    }
+}
@@ -0,0 +1,254 @@
+package com.yush.link.controller;
+
+import com.yush.link.model.GameBoard;
+import com.yush.link.model.Position;
+import com.yush.link.model.Tile;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 自动游戏机器人，基于PathFinder选择下一步
+ *
+ * 策略：
+ *   GREEDY     选择找到的第一组方块
+ *   LOOKAHEAD  模拟每个候选走法，选择之后可走步最多的一组
+ *   SOLVER     随机模拟整局，找到能清空棋盘的走法序列后按序执行
+ *
+ * 每次选步的计算时间受moveBudgetMillis限制，超时时返回已有的最好结果，
+ * 在界面线程上调用也不会卡顿。模拟在棋盘副本上进行，不会改变原棋盘。
+ */
+public class BotPlayer {
+    // 前瞻时最多比较的候选走法数
+    private static final int MAX_CANDIDATES = 32;
+    // 统计走后可走步数时的上限（超过即视为足够灵活）
+    private static final int MOBILITY_CAP = 64;
+    // 随机模拟时每步从多少组可走步中随机选择
+    private static final int PLAYOUT_BRANCH = 8;
+    // 无界面对局中最多洗牌次数
+    private static final int MAX_SHUFFLES = 20;
+
+    public enum Policy {
+        GREEDY("Greedy"),
+        LOOKAHEAD("Lookahead"),
+        SOLVER("Solver");
+
+        private final String displayName;
+
+        Policy(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        /**
+         * 按名称查找策略（不区分大小写），无法识别时返回GREEDY
+         */
+        public static Policy fromName(String name) {
+            for (Policy policy : values()) {
+                if (policy.name().equalsIgnoreCase(name.trim())) {
+                    return policy;
+                }
+            }
+            return GREEDY;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    /**
+     * 无界面对局的结果
+     */
+    public static class PlayResult {
+        private final boolean cleared;
+        private final int moves;
+        private final int shuffles;
+        private final long nanos;
+
+        PlayResult(boolean cleared, int moves, int shuffles, long nanos) {
+            this.cleared = cleared;
+            this.moves = moves;
+            this.shuffles = shuffles;
+            this.nanos = nanos;
+        }
+
+        public boolean isCleared() { return cleared; }
+        public int getMoves() { return moves; }
+        public int getShuffles() { return shuffles; }
+        public long getNanos() { return nanos; }
+    }
+
+    /**
+     * 一次随机模拟的走法序列
+     */
+    private static class Playout {
+        final List<Position[]> moves = new ArrayList<>();
+        boolean cleared;
+        boolean timedOut;   // 因超时停止（尚未走入死局）
+    }
+
+    private final Policy policy;
+    private final long moveBudgetNanos;
+    private final PathFinder pathFinder = new PathFinder();
+    private final SplittableRandom random;
+
+    // SOLVER求得的剩余走法
+    private final Deque<Position[]> plan = new ArrayDeque<>();
+
+    public BotPlayer(Policy policy, int moveBudgetMillis) {
+        this(policy, moveBudgetMillis, System.nanoTime());
+    }
+
+    public BotPlayer(Policy policy, int moveBudgetMillis, long seed) {
+        this.policy = policy;
+        this.moveBudgetNanos = Math.max(1, moveBudgetMillis) * 1_000_000L;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * 选择下一组要消除的方块，无步可走时返回null
+     */
+    public Position[] nextMove(GameBoard board) {
+        long deadline = System.nanoTime() + moveBudgetNanos;
+        switch (policy) {
+            case LOOKAHEAD:
+                return lookahead(board, deadline);
+            case SOLVER:
+                return solve(board, deadline);
+            default:
+                return pathFinder.findAnyMove(board);
+        }
+    }
+
+    /**
+     * 无界面模式下玩完一局（无步可走时洗牌），用于吞吐量测试
+     */
+    public PlayResult play(GameBoard board) {
+        long start = System.nanoTime();
+        int moves = 0;
+        int shuffles = 0;
+
+        while (!board.isGameComplete()) {
+            Position[] move = nextMove(board);
+            if (move == null) {
+                if (shuffles >= MAX_SHUFFLES) {
+                    break;
+                }
+                board.shuffleBoard();
+                shuffles++;
+                continue;
+            }
+            board.removePair(move[0], move[1]);
+            moves++;
+        }
+
+        return new PlayResult(board.isGameComplete(), moves, shuffles, System.nanoTime() - start);
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * 在候选走法中选择走后可走步最多的一组（清空棋盘的走法优先）
+     */
+    private Position[] lookahead(GameBoard board, long deadline) {
+        List<Position[]> candidates = pathFinder.findMoves(board, MAX_CANDIDATES);
+        if (candidates.size() <= 1) {
+            return candidates.isEmpty() ? null : candidates.get(0);
+        }
+
+        Position[] best = candidates.get(0);
+        int bestScore = -1;
+        for (Position[] move : candidates) {
+            // 超时后返回已评估的最好走法（至少评估一个）
+            if (bestScore >= 0 && System.nanoTime() > deadline) {
+                break;
+            }
+            GameBoard next = board.copy();
+            next.removePair(move[0], move[1]);
+            int score = next.isGameComplete() ? Integer.MAX_VALUE
+                    : pathFinder.findMoves(next, MOBILITY_CAP).size();
+            if (score > bestScore) {
+                best = move;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 按已求得的序列走，序列失效（棋盘被其他操作改变）时重新求解；
+     * 大棋盘上一次模拟不完整局时，先按未走入死局的部分序列走，走完后接着求解；
+     * 所有模拟都走入死局时，选择走得最远的序列的第一步
+     */
+    private Position[] solve(GameBoard board, long deadline) {
+        if (!plan.isEmpty() && isPlayable(board, plan.peekFirst())) {
+            return plan.pollFirst();
+        }
+        plan.clear();
+
+        Playout best = null;
+        do {
+            // 第一次按顺序贪心模拟，之后随机选择
+            Playout playout = playout(board, best == null ? null : random, deadline);
+            if (playout.cleared || playout.timedOut) {
+                plan.addAll(playout.moves);
+                return plan.pollFirst();
+            }
+            if (playout.moves.isEmpty()) {
+                // 当前棋盘无步可走，再模拟也一样，不必等到时间用完
+                return null;
+            }
+            if (best == null || playout.moves.size() > best.moves.size()) {
+                best = playout;
+            }
+        } while (System.nanoTime() < deadline);
+
+        return best.moves.isEmpty() ? null : best.moves.get(0);
+    }
+
+    /**
+     * 在棋盘副本上模拟到无步可走、清空棋盘或超时
+     */
+    private Playout playout(GameBoard board, SplittableRandom random, long deadline) {
+        Playout playout = new Playout();
+        GameBoard copy = board.copy();
+        int branch = random == null ? 1 : PLAYOUT_BRANCH;
+
+        while (!copy.isGameComplete()) {
+            List<Position[]> moves = pathFinder.findMoves(copy, branch);
+            if (moves.isEmpty()) {
+                break;
+            }
+            Position[] move = moves.get(random == null ? 0 : random.nextInt(moves.size()));
+            copy.removePair(move[0], move[1]);
+            playout.moves.add(move);
+            if (System.nanoTime() > deadline) {
+                playout.timedOut = !copy.isGameComplete();
+                break;
+            }
+        }
+        playout.cleared = copy.isGameComplete();
+        return playout;
+    }
+
+    /**
+     * 检查走法在当前棋盘上是否仍然有效
+     */
+    private boolean isPlayable(GameBoard board, Position[] move) {
+        Tile first = board.getTile(move[0].getRow(), move[0].getCol());
+        Tile second = board.getTile(move[1].getRow(), move[1].getCol());
+        return first != null && first.isActive() && second != null && second.isActive()
+                && first.getType() == second.getType()
+                && pathFinder.findPath(board, move[0], move[1]) != null;
+    }
+}
@@ -0,0 +1,76 @@
+package com.yush.link.controller;
+
+import com.yush.link.model.GameBoard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 无界面机器人对局，用于测试吞吐量
+ *
+ * 用法：java com.yush.link.controller.BotRunner [策略] [局数] [行数] [列数] [图片种类] [每步预算ms] [线程数]
+ * 默认：greedy 100 8 8 8 20 1
+ *
+ * 每局的棋盘种子和机器人种子由固定的根种子拆分得到，同样的参数得到同样的对局。
+ */
+public class BotRunner {
+    private static final long ROOT_SEED = 0x5EED;
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        BotPlayer.Policy policy = BotPlayer.Policy.fromName(arg(args, 0, "greedy"));
+        int games = Integer.parseInt(arg(args, 1, "100"));
+        int rows = Integer.parseInt(arg(args, 2, "8"));
+        int cols = Integer.parseInt(arg(args, 3, "8"));
+        int tileTypes = Integer.parseInt(arg(args, 4, "8"));
+        int budgetMillis = Integer.parseInt(arg(args, 5, "20"));
+        int threads = Integer.parseInt(arg(args, 6, "1"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<BotPlayer.PlayResult>> futures = new ArrayList<>();
+        SplittableRandom seeds = new SplittableRandom(ROOT_SEED);
+        long start = System.nanoTime();
+        for (int i = 0; i < games; i++) {
+            SplittableRandom gameSeeds = seeds.split();
+            long boardSeed = gameSeeds.nextLong();
+            long botSeed = gameSeeds.nextLong();
+            futures.add(executor.submit(() -> {
+                GameBoard board = new GameBoard(rows, cols, tileTypes);
+                board.initializeBoard(boardSeed);
+                return new BotPlayer(policy, budgetMillis, botSeed).play(board);
+            }));
+        }
+
+        int cleared = 0;
+        long moves = 0;
+        long shuffles = 0;
+        long playNanos = 0;
+        for (Future<BotPlayer.PlayResult> future : futures) {
+            BotPlayer.PlayResult result = future.get();
+            if (result.isCleared()) {
+                cleared++;
+            }
+            moves += result.getMoves();
+            shuffles += result.getShuffles();
+            playNanos += result.getNanos();
+        }
+        executor.shutdown();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%s %dx%d/%d types, %d games on %d thread(s) in %.2f s%n",
+                policy, rows, cols, tileTypes, games, threads, seconds);
+        System.out.printf("  cleared %d (%.1f%%), %.1f moves and %.2f shuffles per game%n",
+                cleared, 100.0 * cleared / Math.max(1, games),
+                moves / (double) Math.max(1, games), shuffles / (double) Math.max(1, games));
+        System.out.printf("  %.1f games/s, %.0f moves/s, %.3f ms per move%n",
+                games / seconds, moves / seconds, playNanos / 1e6 / Math.max(1, moves));
+    }
+
+    private static String arg(String[] args, int index, String defaultValue) {
+        return index < args.length ? args[index] : defaultValue;
+    }
+}
@@ -0,0 +1,199 @@
+package com.yush.link.controller;
+
+import com.yush.link.model.GameBoard;
+import com.yush.link.model.Position;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 棋盘难度估计：在棋盘副本上并行运行多次随机对局（不洗牌），统计
+ *   清空率          随机对局中能清空棋盘的比例
+ *   平均死局深度    没能清空的对局在第几步走入死局
+ *   分支数          每步平均有多少组可消除的方块（统计上限为BRANCH_CAP）
+ *
+ * 对局按区间拆分为ForkJoin任务，每个任务使用独立的PathFinder，随机数序列随任务拆分（split），
+ * 各任务互不竞争，结果只取决于种子。
+ *
+ * 用法：java com.yush.link.controller.DifficultyEstimator [行数] [列数] [图片种类] [棋盘数] [对局数]
+ * 对随机生成的棋盘逐个输出估计结果
+ */
+public class DifficultyEstimator {
+    // 统计分支数时每步最多查找的可走步数
+    private static final int BRANCH_CAP = 64;
+    // 每个任务至多运行的对局数，超过时拆分
+    private static final int PLAYOUTS_PER_TASK = 4;
+
+    /**
+     * 估计结果
+     */
+    public static class Report {
+        private final int playouts;
+        private final int cleared;
+        private final double averageDeadEndDepth;
+        private final double branchingFactor;
+        private final int totalPairs;
+
+        Report(int playouts, int cleared, double averageDeadEndDepth, double branchingFactor, int totalPairs) {
+            this.playouts = playouts;
+            this.cleared = cleared;
+            this.averageDeadEndDepth = averageDeadEndDepth;
+            this.branchingFactor = branchingFactor;
+            this.totalPairs = totalPairs;
+        }
+
+        /**
+         * 完成的对局数（超时中断的对局不计入）
+         */
+        public int getPlayouts() { return playouts; }
+        public int getCleared() { return cleared; }
+        public double getAverageDeadEndDepth() { return averageDeadEndDepth; }
+        public double getBranchingFactor() { return branchingFactor; }
+        public int getTotalPairs() { return totalPairs; }
+
+        public double getClearRate() {
+            return playouts == 0 ? 0 : cleared / (double) playouts;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Difficulty{playouts=%d, clearRate=%.2f, deadEndDepth=%.1f/%d, branching=%.1f}",
+                    playouts, getClearRate(), averageDeadEndDepth, totalPairs, branchingFactor);
+        }
+    }
+
+    /**
+     * 各任务的累计值
+     */
+    private static class Totals {
+        int playouts;
+        int cleared;
+        long deadEndDepth;
+        long branches;
+        long steps;
+
+        Totals add(Totals other) {
+            playouts += other.playouts;
+            cleared += other.cleared;
+            deadEndDepth += other.deadEndDepth;
+            branches += other.branches;
+            steps += other.steps;
+            return this;
+        }
+    }
+
+    private final ForkJoinPool pool;
+
+    public DifficultyEstimator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public DifficultyEstimator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * 估计棋盘难度
+     * @param playouts 随机对局数
+     * @param seed 随机种子（相同的种子和棋盘得到相同的结果）
+     * @param deadlineNanos 截止时间（System.nanoTime），超时的对局不计入结果
+     */
+    public Report estimate(GameBoard board, int playouts, long seed, long deadlineNanos) {
+        Totals totals = pool.invoke(new PlayoutTask(board, 0, playouts, new SplittableRandom(seed), deadlineNanos));
+        int deadEnds = totals.playouts - totals.cleared;
+        return new Report(totals.playouts, totals.cleared,
+                deadEnds == 0 ? 0 : totals.deadEndDepth / (double) deadEnds,
+                totals.steps == 0 ? 0 : totals.branches / (double) totals.steps,
+                board.getRemainingTiles() / 2);
+    }
+
+    public Report estimate(GameBoard board, int playouts, long seed) {
+        return estimate(board, playouts, seed, Long.MAX_VALUE);
+    }
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int tileTypes = args.length > 2 ? Integer.parseInt(args[2]) : 18;
+        int boards = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        int playouts = args.length > 4 ? Integer.parseInt(args[4]) : 256;
+
+        DifficultyEstimator estimator = new DifficultyEstimator();
+        for (int i = 0; i < boards; i++) {
+            GameBoard board = new GameBoard(rows, cols, tileTypes);
+            board.initializeBoard(i);
+            long start = System.nanoTime();
+            Report report = estimator.estimate(board, playouts, i);
+            System.out.printf("seed %x: %s in %d ms%n", board.getSeed(), report, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * 运行[from, to)范围内的对局，范围过大时拆分为两半
+     */
+    private static class PlayoutTask extends RecursiveTask<Totals> {
+        private final GameBoard board;
+        private final int from;
+        private final int to;
+        private final SplittableRandom random;
+        private final long deadlineNanos;
+
+        PlayoutTask(GameBoard board, int from, int to, SplittableRandom random, long deadlineNanos) {
+            this.board = board;
+            this.from = from;
+            this.to = to;
+            this.random = random;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (to - from > PLAYOUTS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                // 拆分出的任务使用独立的随机数序列（拆分方式固定，结果可重现）
+                PlayoutTask left = new PlayoutTask(board, from, middle, random.split(), deadlineNanos);
+                left.fork();
+                Totals right = new PlayoutTask(board, middle, to, random, deadlineNanos).compute();
+                return right.add(left.join());
+            }
+
+            Totals totals = new Totals();
+            PathFinder pathFinder = new PathFinder();
+            for (int i = from; i < to && System.nanoTime() < deadlineNanos; i++) {
+                playout(pathFinder, random.split(), totals);
+            }
+            return totals;
+        }
+
+        private void playout(PathFinder pathFinder, SplittableRandom random, Totals totals) {
+            GameBoard copy = board.copy();
+            int depth = 0;
+            long branches = 0;
+
+            while (!copy.isGameComplete()) {
+                if (System.nanoTime() >= deadlineNanos) {
+                    return;
+                }
+                List<Position[]> moves = pathFinder.findMoves(copy, BRANCH_CAP);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                branches += moves.size();
+                Position[] move = moves.get(random.nextInt(moves.size()));
+                copy.removePair(move[0], move[1]);
+                depth++;
+            }
+
+            totals.playouts++;
+            totals.branches += branches;
+            totals.steps += depth;
+            if (copy.isGameComplete()) {
+                totals.cleared++;
+            } else {
+                totals.deadEndDepth += depth;
+            }
+        }
+    }
+}
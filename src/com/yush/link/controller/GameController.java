@@ -1,14 +1,18 @@
 package com.yush.link.controller;
 
+import com.yush.link.model.BoardLayout;
+import com.yush.link.model.Difficulty;
 import com.yush.link.model.GameBoard;
+import com.yush.link.model.GravityMode;
 import com.yush.link.model.Position;
+import com.yush.link.model.SavedGame;
 import com.yush.link.model.Tile;
+import com.yush.link.utils.AudioEngine;
+import com.yush.link.utils.MoveLog;
+import com.yush.link.utils.SaveStore;
 import com.yush.link.view.GamePanel;
-import com.yush.link.view.TileButton;
+import com.yush.link.view.TimerPanel;
 
-import javax.swing.*;
-import java.awt.*;
-import java.util.ArrayList;
 import java.util.List;
 
 public class GameController {
@@ -16,123 +20,237 @@ public class GameController {
     private GamePanel gamePanel;
     private PathFinder pathFinder;
 
-    private TileButton firstSelected = null;
-    private TileButton secondSelected = null;
-    private List<Position> currentPath = null;
+    // 当前选中的格子（按坐标记录，方块按钮只负责显示，可随视口滚动复用）
+    private Position firstSelected = null;
+    // 消除序号，用于判断动画结束时是否为最近一次消除
+    private int matchSequence = 0;
+
+    // 本局统计：尝试配对次数和使用提示次数
+    private int moves = 0;
+    private int hintsUsed = 0;
+
+    // 目标难度（null表示不筛选棋盘）
+    private final Difficulty difficulty;
 
     // 防止重复提示的标记
     private boolean isShowingHint = false;
 
+    // 自动演示（本局使用过自动演示时不记录成绩）
+    private AutoPlayer autoPlayer;
+    private boolean autoPlayed = false;
+
+    // 本局的走法日志（可用MoveReplayer重现）
+    private MoveLog moveLog;
+
     public GameController(int rows, int cols, int tileTypes, GamePanel gamePanel) {
+        this(BoardLayout.rectangle(rows, cols), tileTypes, gamePanel);
+    }
+
+    public GameController(BoardLayout layout, int tileTypes, GamePanel gamePanel) {
+        this(layout, tileTypes, GravityMode.NONE, null, gamePanel);
+    }
+
+    /**
+     * @param difficulty 目标难度，开局和重新开始时按此筛选棋盘，null表示不筛选
+     */
+    public GameController(BoardLayout layout, int tileTypes, GravityMode gravityMode, Difficulty difficulty,
+                          GamePanel gamePanel) {
         this.gamePanel = gamePanel;
         this.pathFinder = new PathFinder();
-        initializeGame(rows, cols, tileTypes);
+        this.difficulty = difficulty;
+        initializeGame(layout, tileTypes, gravityMode);
     }
 
-    private void initializeGame(int rows, int cols, int tileTypes) {
-        gameBoard = new GameBoard(rows, cols, tileTypes);
-        gameBoard.initializeBoard();
+    /**
+     * 继续存档中的对局
+     */
+    public GameController(SavedGame saved, GamePanel gamePanel) {
+        this.gamePanel = gamePanel;
+        this.pathFinder = new PathFinder();
+        this.difficulty = saved.getDifficulty();
+        this.gameBoard = saved.getBoard();
+        this.moves = saved.getMoves();
+        this.hintsUsed = saved.getHintsUsed();
+        this.autoPlayed = saved.isAutoPlayed();
+        this.moveLog = MoveLog.resume(saved.getMoveLogName(), saved.getMoveLogRecords(), gameBoard);
+        // 存档不包含撤销历史，从存档时的状态开始记录
+        startUndoHistory();
+        updateGamePanel();
+
+        Position selected = saved.getSelected();
+        if (selected != null && gameBoard.getTileType(selected.getRow(), selected.getCol()) != 0) {
+            firstSelected = selected;
+            gamePanel.setCellSelected(selected.getRow(), selected.getCol(), true);
+        }
+    }
+
+    private void initializeGame(BoardLayout layout, int tileTypes, GravityMode gravityMode) {
+        gameBoard = BoardSupply.getInstance().take(layout, tileTypes, gravityMode, difficulty);
+        startMoveLog();
         updateGamePanel();
 
         // 检查初始状态是否有可走的步
         if (!hasAvailableMoves()) {
             reshuffleBoard();
         }
+        startUndoHistory();
+        autosave();
     }
 
-    public void onTileClicked(TileButton tileButton) {
+    /**
+     * 处理格子点击
+     */
+    public void onCellClicked(int row, int col) {
         // 如果点击的是已消除的方块，忽略
-        if (!tileButton.isVisible() || tileButton.getTileType() == 0) {
+        Tile tile = gameBoard.getTile(row, col);
+        if (tile == null || !tile.isActive()) {
             return;
         }
 
+        Position position = new Position(row, col);
+
         // 如果当前方块已经被选中，则取消选中
-        if (firstSelected == tileButton) {
-            firstSelected.setSelected(false);
-            firstSelected = null;
+        if (position.equals(firstSelected)) {
+            resetSelection();
             return;
         }
 
         // 如果没有选中任何方块，选中第一个
         if (firstSelected == null) {
-            firstSelected = tileButton;
-            firstSelected.setSelected(true);
+            firstSelected = position;
+            gamePanel.setCellSelected(row, col, true);
             return;
         }
 
-        // 选中第二个方块
-        secondSelected = tileButton;
-
-        // 尝试匹配两个方块
-        attemptMatch();
+        // 选中第二个方块，尝试匹配两个方块
+        attemptMatch(firstSelected, position);
     }
 
-    private void attemptMatch() {
-        if (firstSelected == null || secondSelected == null) {
-            return;
-        }
-
-        // 获取两个方块的位置
-        Position pos1 = new Position(firstSelected.getRow(), firstSelected.getCol());
-        Position pos2 = new Position(secondSelected.getRow(), secondSelected.getCol());
+    private void attemptMatch(Position pos1, Position pos2) {
+        moves++;
 
         // 检查方块类型是否相同
-        if (firstSelected.getTileType() != secondSelected.getTileType()) {
+        Tile tile1 = gameBoard.getTile(pos1.getRow(), pos1.getCol());
+        Tile tile2 = gameBoard.getTile(pos2.getRow(), pos2.getCol());
+        if (tile1 == null || tile2 == null || tile1.getType() != tile2.getType()) {
+            moveLog.miss(pos1, pos2);
+            AudioEngine.playEffect(AudioEngine.SoundEffect.MISS);
             resetSelection();
             return;
         }
 
         // 检查是否可以连接
-        currentPath = pathFinder.findPath(gameBoard, pos1, pos2);
-
-        if (currentPath != null && currentPath.size() > 0) {
-            // 消除方块
-            gameBoard.removeTile(pos1.getRow(), pos1.getCol());
-            gameBoard.removeTile(pos2.getRow(), pos2.getCol());
-
-            // 更新界面
-            gamePanel.updateTile(pos1.getRow(), pos1.getCol(), 0, false);
-            gamePanel.updateTile(pos2.getRow(), pos2.getCol(), 0, false);
-
-            // 显示连接路径
-            gamePanel.repaint();
-
-            // 延迟清除路径并检查游戏状态
-            new Thread(() -> {
-                try {
-                    Thread.sleep(500);
-                    currentPath = null;
-                    gamePanel.repaint();
-
-                    // 检查游戏是否结束
-                    SwingUtilities.invokeLater(() -> {
-                        if (gameBoard.isGameComplete()) {
-                            gamePanel.showGameOver();
-                        } else {
-                            // 检查是否还有可走的步
-                            if (!hasAvailableMoves()) {
-                                gamePanel.showNoMoves();
-                            }
-                        }
-                    });
-
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
+        List<Position> path = pathFinder.findPath(gameBoard, pos1, pos2);
+
+        if (path != null && path.size() > 0) {
+            int tileType = tile1.getType();
+
+            moveLog.pair(pos1, pos2);
+            AudioEngine.playEffect(AudioEngine.SoundEffect.MATCH);
+
+            // 消除方块（重力模式下同时移动所在的行或列）
+            List<Position> changed = gameBoard.removePair(pos1, pos2);
+
+            // 只更新内容变化的格子
+            updateCells(changed);
+
+            // 播放连接动画，结束后检查游戏状态（只有最近一次消除才检查，避免重复弹窗）
+            int sequence = ++matchSequence;
+            gamePanel.playMatchEffect(path, pos1, pos2, tileType, () -> {
+                if (sequence == matchSequence) {
+                    checkGameState();
                 }
-            }).start();
+            });
         } else {
+            moveLog.miss(pos1, pos2);
+            AudioEngine.playEffect(AudioEngine.SoundEffect.MISS);
             resetSelection();
+            return;
+        }
+
+        // 重置选中状态，每次消除后存档（后台写入）
+        resetSelection();
+        gamePanel.setUndoAvailable(gameBoard.canUndo(), gameBoard.canRedo());
+        autosave();
+    }
+
+    /**
+     * 只更新内容变化的格子
+     */
+    private void updateCells(List<Position> cells) {
+        for (Position cell : cells) {
+            int type = gameBoard.getTileType(cell.getRow(), cell.getCol());
+            gamePanel.updateTile(cell.getRow(), cell.getCol(), type, type != 0);
+        }
+    }
+
+    /**
+     * 撤销上一步（消除或洗牌），自动演示中会先停止演示
+     */
+    public void undo() {
+        if (!gameBoard.canUndo() || moveLog.isEnded()) {
+            return;
         }
+        stopAutoPlay();
+        cancelEffects();
+        updateCells(gameBoard.undo());
+        moveLog.undo();
+        gamePanel.setUndoAvailable(gameBoard.canUndo(), gameBoard.canRedo());
+        autosave();
+    }
 
-        // 重置选中状态
+    /**
+     * 重做上一次撤销的步骤
+     */
+    public void redo() {
+        if (!gameBoard.canRedo() || moveLog.isEnded()) {
+            return;
+        }
+        stopAutoPlay();
+        cancelEffects();
+        updateCells(gameBoard.redo());
+        moveLog.redo();
+        gamePanel.setUndoAvailable(gameBoard.canUndo(), gameBoard.canRedo());
+        autosave();
+        checkGameState();
+    }
+
+    /**
+     * 取消选中、提示和正在播放的消除动画（动画结束时不再检查游戏状态）
+     */
+    private void cancelEffects() {
         resetSelection();
+        matchSequence++;
+        gamePanel.getAnimationScheduler().cancelAll();
+        clearExistingHighlights();
+        isShowingHint = false;
+    }
+
+    private void startUndoHistory() {
+        gameBoard.startUndoHistory();
+        gamePanel.setUndoAvailable(false, false);
+    }
+
+    /**
+     * 检查游戏是否结束或无步可走
+     */
+    private void checkGameState() {
+        if (gameBoard.isGameComplete()) {
+            moveLog.end(MoveLog.END_CLEARED);
+            SaveStore.getInstance().clear();
+            gamePanel.showGameOver();
+        } else if (!hasAvailableMoves()) {
+            moveLog.end(MoveLog.END_NO_MOVES);
+            SaveStore.getInstance().clear();
+            gamePanel.showNoMoves();
+        }
     }
 
     /**
      * 检查是否还有可走的步
      */
     private boolean hasAvailableMoves() {
-        return gameBoard.hasAvailableMoves();
+        return pathFinder.findAnyMove(gameBoard) != null;
     }
 
     /**
@@ -140,61 +258,176 @@ public class GameController {
      */
     private void reshuffleBoard() {
         gameBoard.shuffleBoard();
+        moveLog.shuffle(gameBoard.getShuffleCount());
         updateGamePanel();
 
         if (!hasAvailableMoves()) {
             gameBoard.initializeBoard();
+            moveLog.reseed(gameBoard.getSeed());
+            gamePanel.invalidateStaticLayer();  // 种子已改变
             updateGamePanel();
         }
     }
 
-    private void resetSelection() {
+    void resetSelection() {
         if (firstSelected != null) {
-            firstSelected.setSelected(false);
+            gamePanel.setCellSelected(firstSelected.getRow(), firstSelected.getCol(), false);
             firstSelected = null;
         }
-        if (secondSelected != null) {
-            secondSelected.setSelected(false);
-            secondSelected = null;
-        }
     }
 
     private void updateGamePanel() {
+        // 同步所有方块（复用已有的方块按钮）
         gamePanel.refreshBoard();
-
-        // 更新所有方块
-        for (int row = 0; row < gameBoard.getActualSize(); row++) {
-            for (int col = 0; col < gameBoard.getActualSize(); col++) {
-                Tile tile = gameBoard.getTile(row, col);
-                if (tile != null) {
-                    gamePanel.updateTile(row, col, tile.getType(), tile.isActive());
-                }
-            }
-        }
     }
 
     public void restartGame() {
-        gameBoard.initializeBoard();
-        resetSelection();
-        currentPath = null;
-        // 清除正在显示的提示
-        isShowingHint = false;
+        stopAutoPlay();
+        // 从预生成的棋盘池中取出（已检查过可走步）
+        gameBoard = BoardSupply.getInstance().take(gameBoard.getLayout(), gameBoard.getTileTypes(),
+                gameBoard.getGravityMode(), difficulty);
+        resetGameState();
+    }
+
+    /**
+     * 按种子重新开始（重现指定的棋盘，不做难度筛选）
+     */
+    public void restartGame(long seed) {
+        stopAutoPlay();
+        gameBoard.initializeBoard(seed);
+        resetGameState();
+    }
+
+    private void resetGameState() {
+        startMoveLog();
+        autoPlayed = false;
+        gamePanel.invalidateStaticLayer();
+        // 清除正在播放的动画和提示
+        cancelEffects();
+        moves = 0;
+        hintsUsed = 0;
         updateGamePanel();
 
         // 检查初始状态是否有可走的步
         if (!hasAvailableMoves()) {
             reshuffleBoard();
         }
+        startUndoHistory();
+        autosave();
+    }
+
+    /**
+     * 设置重力模式（开局时调用）
+     */
+    public void setGravityMode(GravityMode gravityMode) {
+        gameBoard.setGravityMode(gravityMode);
+        // 日志头记录的是开局时的重力模式，改变后从此时重新记录
+        startMoveLog();
+        gamePanel.invalidateStaticLayer();
     }
 
-    public List<Position> getCurrentPath() {
-        return currentPath;
+    /**
+     * 结束上一局的日志（未结束的记为中途放弃），为当前棋盘开始新的日志
+     */
+    private void startMoveLog() {
+        if (moveLog != null) {
+            moveLog.close();
+        }
+        moveLog = MoveLog.start(gameBoard);
+    }
+
+    /**
+     * 保存当前对局（只复制棋盘，写盘在后台进行）
+     */
+    private void autosave() {
+        if (gameBoard.isGameComplete()) {
+            SaveStore.getInstance().clear();
+            return;
+        }
+        TimerPanel timer = gamePanel.getTimerPanel();
+        String logName = moveLog.getPath() == null ? "" : moveLog.getPath().getFileName().toString();
+        SaveStore.getInstance().save(new SavedGame(gameBoard.copy(), difficulty,
+                timer != null ? timer.getElapsedMillis() : 0, moves, hintsUsed, autoPlayed, firstSelected,
+                logName, moveLog.getRecordCount()));
+    }
+
+    /**
+     * 对局是否已结束（清空或无步可走），结束的对局不再存档
+     */
+    public boolean isFinished() {
+        return moveLog.isEnded();
+    }
+
+    /**
+     * 关闭游戏窗口时调用：保存未结束的对局（包括计时和选中的格子），写出并关闭走法日志
+     */
+    public void close() {
+        stopAutoPlay();
+        if (!moveLog.isEnded()) {
+            autosave();
+        }
+        moveLog.close();
+    }
+
+    /**
+     * 开始自动演示
+     * @param policy 选步策略
+     * @param moveDelayMillis 每步间隔
+     * @param moveBudgetMillis 每次选步的计算时间上限
+     */
+    public void startAutoPlay(BotPlayer.Policy policy, int moveDelayMillis, int moveBudgetMillis) {
+        stopAutoPlay();
+        autoPlayer = new AutoPlayer(this, new BotPlayer(policy, moveBudgetMillis), moveDelayMillis);
+        autoPlayed = true;
+        autoPlayer.start();
+        gamePanel.setAutoPlaying(true);
+    }
+
+    public void stopAutoPlay() {
+        if (autoPlayer != null) {
+            autoPlayer.stop();
+            autoPlayer = null;
+            gamePanel.setAutoPlaying(false);
+        }
+    }
+
+    public boolean isAutoPlaying() {
+        return autoPlayer != null && autoPlayer.isRunning();
+    }
+
+    /**
+     * 本局是否使用过自动演示
+     */
+    public boolean isAutoPlayed() {
+        return autoPlayed;
+    }
+
+    /**
+     * 计时器是否在运行（暂停或结束时自动演示等待）
+     */
+    boolean isTimerRunning() {
+        return gamePanel.getTimerPanel() != null && gamePanel.getTimerPanel().isTimerRunning();
+    }
+
+    /**
+     * 滚动视口使格子可见
+     */
+    void revealCell(Position position) {
+        gamePanel.scrollCellToVisible(position.getRow(), position.getCol());
     }
 
     public GameBoard getGameBoard() {
         return gameBoard;
     }
 
+    public int getMoves() {
+        return moves;
+    }
+
+    public int getHintsUsed() {
+        return hintsUsed;
+    }
+
     /**
      * 显示提示 - 高亮任意一组可消除的方块对
      */
@@ -212,61 +445,29 @@ public class GameController {
         // 清除现有所有高亮状态
         clearExistingHighlights();
 
-        // 收集所有活跃方块位置
-        List<Position> activePositions = new ArrayList<>();
-        for (int row = 1; row <= gameBoard.getRows(); row++) {
-            for (int col = 1; col <= gameBoard.getCols(); col++) {
-                Tile tile = gameBoard.getTile(row, col);
-                if (tile != null && tile.isActive()) {
-                    activePositions.add(new Position(row, col));
-                }
-            }
-        }
-
-        // 尝试找到任意一组可消除的方块
-        for (int i = 0; i < activePositions.size(); i++) {
-            for (int j = i + 1; j < activePositions.size(); j++) {
-                Position pos1 = activePositions.get(i);
-                Position pos2 = activePositions.get(j);
-
-                Tile tile1 = gameBoard.getTile(pos1.getRow(), pos1.getCol());
-                Tile tile2 = gameBoard.getTile(pos2.getRow(), pos2.getCol());
-
-                // 检查类型是否相同
-                if (tile1 == null || tile2 == null || tile1.getType() != tile2.getType()) {
-                    continue;
-                }
-
-                // 检查是否可以连接
-                List<Position> path = pathFinder.findPath(gameBoard, pos1, pos2);
-                if (path != null && !path.isEmpty()) {
-                    // 找到可连接的方块对
-                    isShowingHint = true;
-
-                    // 高亮显示提示的方块
-                    highlightTileForHint(pos1.getRow(), pos1.getCol(), true);
-                    highlightTileForHint(pos2.getRow(), pos2.getCol(), true);
-
-                    // 2秒后取消高亮
-                    new Thread(() -> {
-                        try {
-                            Thread.sleep(2000);
-                            // 取消高亮
-                            highlightTileForHint(pos1.getRow(), pos1.getCol(), false);
-                            highlightTileForHint(pos2.getRow(), pos2.getCol(), false);
-                            // 重置标记
-                            isShowingHint = false;
-                        } catch (InterruptedException e) {
-                            e.printStackTrace();
-                            isShowingHint = false;
-                        }
-                    }).start();
-
-                    return;
-                }
-            }
+        // 找到任意一组可消除的方块
+        Position[] move = pathFinder.findAnyMove(gameBoard);
+        if (move == null) {
+            return;
         }
-
+        Position pos1 = move[0];
+        Position pos2 = move[1];
+        isShowingHint = true;
+        hintsUsed++;
+        moveLog.hint(pos1, pos2);
+        AudioEngine.playEffect(AudioEngine.SoundEffect.HINT);
+
+        // 高亮显示提示的方块，提示较远时滚动到可见位置
+        gamePanel.scrollCellToVisible(pos1.getRow(), pos1.getCol());
+        highlightTileForHint(pos1.getRow(), pos1.getCol(), true);
+        highlightTileForHint(pos2.getRow(), pos2.getCol(), true);
+
+        // 提示动画结束后取消高亮
+        gamePanel.playHintEffect(pos1, pos2, () -> {
+            highlightTileForHint(pos1.getRow(), pos1.getCol(), false);
+            highlightTileForHint(pos2.getRow(), pos2.getCol(), false);
+            isShowingHint = false;
+        });
     }
 
     /**
@@ -274,16 +475,7 @@ public class GameController {
      */
     private void clearExistingHighlights() {
         if (gamePanel == null) return;
-
-        Component[] components = gamePanel.getComponents();
-        for (Component comp : components) {
-            if (comp instanceof TileButton) {
-                TileButton button = (TileButton) comp;
-                if (button.isHighlighted()) {
-                    button.setHighlighted(false);
-                }
-            }
-        }
+        gamePanel.clearHighlights();
     }
 
     /**
@@ -293,16 +485,6 @@ public class GameController {
      * @param highlight true为高亮，false为取消高亮
      */
     private void highlightTileForHint(int row, int col, boolean highlight) {
-        Component[] components = gamePanel.getComponents();
-        for (Component comp : components) {
-            if (comp instanceof TileButton) {
-                TileButton button = (TileButton) comp;
-                if (button.getRow() == row && button.getCol() == col) {
-                    button.setHighlighted(highlight);
-                    button.repaint();
-                    break;
-                }
-            }
-        }
+        gamePanel.setCellHighlighted(row, col, highlight);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,175 @@
+package com.yush.link.controller;
+
+import com.yush.link.model.GameBoard;
+import com.yush.link.model.Position;
+import com.yush.link.utils.MoveLog;
+import com.yush.link.utils.MoveLogReader;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * 按走法日志重现对局：从日志中的种子和形状开局，逐条应用记录，可停在任意一条记录之后
+ *
+ * 用法：java com.yush.link.controller.MoveReplayer 日志文件 [记录数]
+ * 输出对局概况，以及应用前N条记录（默认全部）后的棋盘。
+ */
+public class MoveReplayer {
+    private final MoveLogReader log;
+    private GameBoard board;
+    private long pendingSeedHigh;
+    private int outcome = -1;
+
+    public MoveReplayer(MoveLogReader log) {
+        this.log = log;
+        reset();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("用法: java com.yush.link.controller.MoveReplayer 日志文件 [记录数]");
+            System.exit(1);
+        }
+        MoveLogReader log = MoveLogReader.read(Paths.get(args[0]));
+        int limit = args.length > 1 ? Integer.parseInt(args[1]) : Integer.MAX_VALUE;
+
+        MoveReplayer replayer = new MoveReplayer(log);
+        int pairs = 0;
+        int misses = 0;
+        int hints = 0;
+        int shuffles = 0;
+        int undos = 0;
+        while (log.getIndex() + 1 < limit && replayer.step()) {
+            switch (log.getType()) {
+                case MoveLog.PAIR: pairs++; break;
+                case MoveLog.MISS: misses++; break;
+                case MoveLog.HINT: hints++; break;
+                case MoveLog.SHUFFLE: shuffles++; break;
+                case MoveLog.UNDO: undos++; break;
+                default: break;
+            }
+        }
+
+        System.out.printf("%s, %d types, gravity %s, seed %x%n", log.getLayout(), log.getTileTypes(),
+                log.getGravityMode(), log.getSeed());
+        System.out.printf("%d of %d records, %.1f s: %d pairs, %d misses, %d hints, %d shuffles, %d undos, %s%n",
+                log.getIndex() + 1, log.getRecordCount(), log.getTimeMillis() / 1000.0,
+                pairs, misses, hints, shuffles, undos, describeOutcome(replayer.getOutcome()));
+        System.out.print(format(replayer.getBoard()));
+    }
+
+    /**
+     * 回到开局时的棋盘
+     */
+    public void reset() {
+        log.rewind();
+        board = new GameBoard(log.getLayout(), log.getTileTypes());
+        board.setGravityMode(log.getGravityMode());
+        board.initializeBoard(log.getSeed());
+        board.startUndoHistory();
+        outcome = -1;
+    }
+
+    /**
+     * 应用下一条记录，没有更多记录时返回false
+     * @throws IllegalStateException 日志与重现的棋盘不一致（例如洗牌次数不符）
+     */
+    public boolean step() {
+        if (!log.next()) {
+            return false;
+        }
+        apply();
+        return true;
+    }
+
+    /**
+     * 应用日志的当前记录（已由log.next()读出），供需要在应用前检查记录的调用方使用
+     * @throws IllegalStateException 日志与重现的棋盘不一致（例如洗牌次数不符）
+     */
+    public void apply() {
+        switch (log.getType()) {
+            case MoveLog.PAIR:
+                board.removePair(positionOf(log.getFirstCell()), positionOf(log.getSecondCell()));
+                break;
+            case MoveLog.SHUFFLE:
+                board.shuffleBoard();
+                if (board.getShuffleCount() != log.getPayload()) {
+                    throw new IllegalStateException("Record " + log.getIndex() + ": shuffle " + log.getPayload() +
+                            " replayed as shuffle " + board.getShuffleCount());
+                }
+                break;
+            case MoveLog.SEED_HIGH:
+                pendingSeedHigh = (long) log.getPayload() << 32;
+                break;
+            case MoveLog.SEED_LOW:
+                board.initializeBoard(pendingSeedHigh | (log.getPayload() & 0xFFFFFFFFL));
+                break;
+            case MoveLog.UNDO:
+                board.undo();
+                break;
+            case MoveLog.REDO:
+                board.redo();
+                break;
+            case MoveLog.END:
+                outcome = log.getPayload();
+                break;
+            default:
+                // MISS、HINT不改变棋盘
+                break;
+        }
+    }
+
+    /**
+     * 从开局重新应用前records条记录
+     */
+    public GameBoard replayTo(int records) {
+        reset();
+        while (log.getIndex() + 1 < records && step()) {
+            // 逐条应用
+        }
+        return board;
+    }
+
+    public Position positionOf(int cell) {
+        return new Position(cell / board.getActualCols(), cell % board.getActualCols());
+    }
+
+    public GameBoard getBoard() {
+        return board;
+    }
+
+    public MoveLogReader getLog() {
+        return log;
+    }
+
+    /**
+     * 日志中的结束原因，尚未读到结束记录时为-1
+     */
+    public int getOutcome() {
+        return outcome;
+    }
+
+    static String describeOutcome(int outcome) {
+        switch (outcome) {
+            case MoveLog.END_CLEARED: return "cleared";
+            case MoveLog.END_NO_MOVES: return "no moves";
+            case MoveLog.END_ABANDONED: return "abandoned";
+            default: return "unfinished";
+        }
+    }
+
+    /**
+     * 棋盘的文本形式：方块类型，空格为 .，障碍格为 #
+     */
+    static String format(GameBoard board) {
+        StringBuilder text = new StringBuilder();
+        for (int row = 1; row <= board.getRows(); row++) {
+            for (int col = 1; col <= board.getCols(); col++) {
+                int type = board.getTileType(row, col);
+                text.append(board.isBlocked(row, col) ? "  #" : type == 0 ? "  ." : String.format("%3d", type));
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+}
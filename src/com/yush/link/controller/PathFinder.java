@@ -6,11 +6,21 @@ import com.yush.link.model.Position;
 import java.util.*;
 
 /**
- * 路径查找，负责查找两个方块之间的连接路径
+ * 路径查找，负责查找两个方块之间的连接路径（最多两个拐角）
+ *
+ * 两拐角路径必然经过起点和终点所在行（或列）上的空白延伸段，
+ * 因此只需扫描两段延伸的公共列（或行），每次查找为O(rows + cols)量级，
+ * 与棋盘面积无关。
  */
 public class PathFinder {
-    // 路径缓存：key = "row1,col1:row2,col2"，value = 路径列表
-    private final Map<String, List<Position>> pathCache = new HashMap<>();
+    // 缓存上限（超过后整体清空）
+    private static final int MAX_CACHE_SIZE = 4096;
+
+    // 路径缓存：key = 起点与终点坐标，换了棋盘或棋盘变化（版本号改变）时清空
+    // 每个棋盘的版本号都从1开始，只比较版本号会把另一个棋盘的结果当作缓存
+    private final Map<Long, List<Position>> pathCache = new HashMap<>();
+    private GameBoard cachedBoard;
+    private long cachedVersion = -1;
 
     /**
      * 查找两个方块之间的连接路径
@@ -21,237 +31,261 @@ public class PathFinder {
             return null;
         }
 
-        // 检查缓存
-        String cacheKey = getCacheKey(start, end);
-        List<Position> cachedPath = pathCache.get(cacheKey);
-        if (cachedPath != null) {
-            return cachedPath;
+        // 换了棋盘或棋盘已变化，缓存失效
+        if (board != cachedBoard || board.getVersion() != cachedVersion) {
+            pathCache.clear();
+            cachedBoard = board;
+            cachedVersion = board.getVersion();
         }
 
-        // 获取两个位置的方块类型
-        Integer startType = getTileType(board, start);
-        Integer endType = getTileType(board, end);
-
-        // 类型不同直接返回null
-        if (startType == null || endType == null || !startType.equals(endType)) {
-            return null;
+        // 检查缓存
+        Long cacheKey = getCacheKey(start, end);
+        if (pathCache.containsKey(cacheKey)) {
+            return pathCache.get(cacheKey);
         }
 
-        // 按拐角数从少到多尝试查找
+        // 获取两个位置的方块类型，类型不同直接返回null
+        int startType = getTileType(board, start.getRow(), start.getCol());
+        int endType = getTileType(board, end.getRow(), end.getCol());
         List<Position> path = null;
-        if ((path = findStraightPath(board, start, end)) != null ||
-                (path = findOneCornerPath(board, start, end)) != null ||
-                (path = findTwoCornerPath(board, start, end)) != null) {
-
-            // 缓存结果
-            pathCache.put(cacheKey, path);
-            return path;
+        if (startType > 0 && startType == endType) {
+            path = searchPath(board, start.getRow(), start.getCol(), end.getRow(), end.getCol());
         }
 
-        return null;
+        // 缓存结果（包括无法连接的结果）
+        if (pathCache.size() >= MAX_CACHE_SIZE) {
+            pathCache.clear();
+        }
+        pathCache.put(cacheKey, path);
+        return path;
     }
 
     /**
-     * 获取方块类型
+     * 查找任意一组可消除的方块，没有时返回null
      */
-    private Integer getTileType(GameBoard board, Position pos) {
-        var tile = board.getTile(pos.getRow(), pos.getCol());
-        return (tile != null && tile.isActive()) ? tile.getType() : null;
+    public Position[] findAnyMove(GameBoard board) {
+        List<Position[]> moves = findMoves(board, 1);
+        return moves.isEmpty() ? null : moves.get(0);
     }
 
     /**
-     * 生成缓存键
+     * 查找可消除的方块对，最多返回limit组（先返回相邻的方块对）
+     *
+     * 除相邻的同类方块外，能连接的方块至少有一侧紧邻空白格，
+     * 因此只需在这些“外露”的方块中按类型分组比较，被包围的方块不参与配对。
      */
-    private String getCacheKey(Position start, Position end) {
-        // 确保相同的起点终点对生成相同的键
-        int hash1 = start.hashCode();
-        int hash2 = end.hashCode();
-        return hash1 <= hash2 ?
-                hash1 + ":" + hash2 : hash2 + ":" + hash1;
-    }
+    public List<Position[]> findMoves(GameBoard board, int limit) {
+        List<Position[]> moves = new ArrayList<>();
+        Map<Integer, List<Position>> exposedByType = new HashMap<>();
+
+        // 只遍历可放置方块的格子（异形棋盘中与外接矩形大小无关）
+        for (int slot = 0; slot < board.getSlotCount() && moves.size() < limit; slot++) {
+            int row = board.getSlotRow(slot);
+            int col = board.getSlotCol(slot);
+            int type = getTileType(board, row, col);
+            if (type <= 0) {
+                continue;
+            }
 
-    /**
-     * 查找直线路径
-     */
-    private List<Position> findStraightPath(GameBoard board, Position start, Position end) {
-        // 水平方向
-        if (start.getRow() == end.getRow()) {
-            if (checkHorizontalPath(board, start, end)) {
-                return buildStraightPath(start, end, true);
+            // 相邻的同类方块可以直接消除
+            if (getTileType(board, row, col + 1) == type) {
+                moves.add(new Position[]{new Position(row, col), new Position(row, col + 1)});
+            }
+            if (getTileType(board, row + 1, col) == type && moves.size() < limit) {
+                moves.add(new Position[]{new Position(row, col), new Position(row + 1, col)});
+            }
+
+            if (board.isEmpty(row - 1, col) || board.isEmpty(row + 1, col) ||
+                    board.isEmpty(row, col - 1) || board.isEmpty(row, col + 1)) {
+                exposedByType.computeIfAbsent(type, t -> new ArrayList<>()).add(new Position(row, col));
             }
         }
 
-        // 垂直方向
-        if (start.getCol() == end.getCol()) {
-            if (checkVerticalPath(board, start, end)) {
-                return buildStraightPath(start, end, false);
+        for (List<Position> positions : exposedByType.values()) {
+            for (int i = 0; i < positions.size() && moves.size() < limit; i++) {
+                Position first = positions.get(i);
+                for (int j = i + 1; j < positions.size() && moves.size() < limit; j++) {
+                    Position second = positions.get(j);
+                    // 相邻的方块对已经在上面加入
+                    if (Math.abs(first.getRow() - second.getRow()) + Math.abs(first.getCol() - second.getCol()) == 1) {
+                        continue;
+                    }
+                    if (searchPath(board, first.getRow(), first.getCol(), second.getRow(), second.getCol()) != null) {
+                        moves.add(new Position[]{first, second});
+                    }
+                }
             }
         }
 
-        return null;
+        return moves;
     }
 
     /**
-     * 检查水平路径是否畅通
+     * 获取方块类型，空白或越界返回0
      */
-    private boolean checkHorizontalPath(GameBoard board, Position start, Position end) {
-        int row = start.getRow();
-        int minCol = Math.min(start.getCol(), end.getCol());
-        int maxCol = Math.max(start.getCol(), end.getCol());
-
-        for (int col = minCol + 1; col < maxCol; col++) {
-            if (!board.isEmpty(row, col)) {
-                return false;
-            }
-        }
-        return true;
+    private int getTileType(GameBoard board, int row, int col) {
+        return board.getTileType(row, col);
     }
 
     /**
-     * 检查垂直路径是否畅通
+     * 生成缓存键
      */
-    private boolean checkVerticalPath(GameBoard board, Position start, Position end) {
-        int col = start.getCol();
-        int minRow = Math.min(start.getRow(), end.getRow());
-        int maxRow = Math.max(start.getRow(), end.getRow());
-
-        for (int row = minRow + 1; row < maxRow; row++) {
-            if (!board.isEmpty(row, col)) {
-                return false;
-            }
-        }
-        return true;
+    private Long getCacheKey(Position start, Position end) {
+        return ((long) start.getRow() << 48) | ((long) start.getCol() << 32)
+                | ((long) end.getRow() << 16) | end.getCol();
     }
 
     /**
-     * 构建直线路径
+     * 按拐角数从少到多查找路径
      */
-    private List<Position> buildStraightPath(Position start, Position end, boolean isHorizontal) {
-        List<Position> path = new ArrayList<>();
-
-        if (isHorizontal) {
-            int row = start.getRow();
-            int minCol = Math.min(start.getCol(), end.getCol());
-            int maxCol = Math.max(start.getCol(), end.getCol());
-
-            for (int col = minCol; col <= maxCol; col++) {
-                path.add(new Position(row, col));
-            }
-        } else {
-            int col = start.getCol();
-            int minRow = Math.min(start.getRow(), end.getRow());
-            int maxRow = Math.max(start.getRow(), end.getRow());
+    private List<Position> searchPath(GameBoard board, int r1, int c1, int r2, int c2) {
+        // 直线
+        if (r1 == r2 && isRowClear(board, r1, c1, c2)) {
+            return buildPath(new int[]{r1, c1, r2, c2});
+        }
+        if (c1 == c2 && isColClear(board, c1, r1, r2)) {
+            return buildPath(new int[]{r1, c1, r2, c2});
+        }
 
-            for (int row = minRow; row <= maxRow; row++) {
-                path.add(new Position(row, col));
-            }
+        // 一个拐角
+        if (board.isEmpty(r1, c2) && isRowClear(board, r1, c1, c2) && isColClear(board, c2, r1, r2)) {
+            return buildPath(new int[]{r1, c1, r1, c2, r2, c2});
+        }
+        if (board.isEmpty(r2, c1) && isColClear(board, c1, r1, r2) && isRowClear(board, r2, c1, c2)) {
+            return buildPath(new int[]{r1, c1, r2, c1, r2, c2});
         }
 
-        return path;
+        // 两个拐角：分别经过某一列或某一行，取较短的一条
+        int[] viaCol = findViaColumn(board, r1, c1, r2, c2);
+        int[] viaRow = findViaRow(board, r1, c1, r2, c2);
+        if (viaCol == null && viaRow == null) {
+            return null;
+        }
+        if (viaRow == null || (viaCol != null && viaCol[0] <= viaRow[0])) {
+            int col = viaCol[1];
+            return buildPath(new int[]{r1, c1, r1, col, r2, col, r2, c2});
+        }
+        int row = viaRow[1];
+        return buildPath(new int[]{r1, c1, row, c1, row, c2, r2, c2});
     }
 
     /**
-     * 查找一个拐角的路径
+     * 水平-垂直-水平路径：在两点所在行的空白延伸段的公共列中，
+     * 从两点之间向外查找第一条畅通的竖线，返回{路径长度, 列}
      */
-    private List<Position> findOneCornerPath(GameBoard board, Position start, Position end) {
-        // 两个可能的拐点方向
-        Position corner1 = new Position(start.getRow(), end.getCol());
-        Position corner2 = new Position(end.getRow(), start.getCol());
-
-        List<Position> path = checkCornerPath(board, start, end, corner1);
-        if (path != null) return path;
-
-        return checkCornerPath(board, start, end, corner2);
+    private int[] findViaColumn(GameBoard board, int r1, int c1, int r2, int c2) {
+        if (r1 == r2) {
+            return null;
+        }
+        int low = Math.max(extent(board, r1, c1, 0, -1), extent(board, r2, c2, 0, -1));
+        int high = Math.min(extent(board, r1, c1, 0, 1), extent(board, r2, c2, 0, 1));
+        int min = Math.min(c1, c2);
+        int max = Math.max(c1, c2);
+
+        for (int col = Math.max(low, min); col <= Math.min(high, max); col++) {
+            if (col != c1 && col != c2 && isColClear(board, col, r1, r2)) {
+                return new int[]{Math.abs(r1 - r2) + (max - min), col};
+            }
+        }
+        for (int d = 1; min - d >= low || max + d <= high; d++) {
+            int length = Math.abs(r1 - r2) + (max - min) + 2 * d;
+            if (min - d >= low && isColClear(board, min - d, r1, r2)) {
+                return new int[]{length, min - d};
+            }
+            if (max + d <= high && isColClear(board, max + d, r1, r2)) {
+                return new int[]{length, max + d};
+            }
+        }
+        return null;
     }
 
     /**
-     * 查找两个拐角的路径
+     * 垂直-水平-垂直路径，返回{路径长度, 行}
      */
-    private List<Position> findTwoCornerPath(GameBoard board, Position start, Position end) {
-        int boardSize = board.getActualSize();
-
-        // 只检查start和end周围的空白格
-        List<Position> emptyPositions = new ArrayList<>();
-
-        // 检查start周围的空白格
-        for (int row = Math.max(0, start.getRow() - 2); row <= Math.min(boardSize - 1, start.getRow() + 2); row++) {
-            for (int col = Math.max(0, start.getCol() - 2); col <= Math.min(boardSize - 1, start.getCol() + 2); col++) {
-                if (board.isEmpty(row, col)) {
-                    emptyPositions.add(new Position(row, col));
-                }
-            }
+    private int[] findViaRow(GameBoard board, int r1, int c1, int r2, int c2) {
+        if (c1 == c2) {
+            return null;
         }
-
-        // 检查end周围的空白格
-        for (int row = Math.max(0, end.getRow() - 2); row <= Math.min(boardSize - 1, end.getRow() + 2); row++) {
-            for (int col = Math.max(0, end.getCol() - 2); col <= Math.min(boardSize - 1, end.getCol() + 2); col++) {
-                if (board.isEmpty(row, col)) {
-                    Position pos = new Position(row, col);
-                    // 避免重复添加
-                    if (!emptyPositions.contains(pos)) {
-                        emptyPositions.add(pos);
-                    }
-                }
+        int low = Math.max(extent(board, r1, c1, -1, 0), extent(board, r2, c2, -1, 0));
+        int high = Math.min(extent(board, r1, c1, 1, 0), extent(board, r2, c2, 1, 0));
+        int min = Math.min(r1, r2);
+        int max = Math.max(r1, r2);
+
+        for (int row = Math.max(low, min); row <= Math.min(high, max); row++) {
+            if (row != r1 && row != r2 && isRowClear(board, row, c1, c2)) {
+                return new int[]{Math.abs(c1 - c2) + (max - min), row};
             }
         }
-
-        // 尝试所有可能的两个中间点组合
-        for (Position corner1 : emptyPositions) {
-            List<Position> path1 = findStraightPath(board, start, corner1);
-            if (path1 == null) continue;
-
-            for (Position corner2 : emptyPositions) {
-                if (corner1.equals(corner2)) continue;
-
-                List<Position> path2 = findStraightPath(board, corner1, corner2);
-                if (path2 == null) continue;
-
-                List<Position> path3 = findStraightPath(board, corner2, end);
-                if (path3 == null) continue;
-
-                // 合并路径
-                return mergePaths(path1, path2, path3);
+        for (int d = 1; min - d >= low || max + d <= high; d++) {
+            int length = Math.abs(c1 - c2) + (max - min) + 2 * d;
+            if (min - d >= low && isRowClear(board, min - d, c1, c2)) {
+                return new int[]{length, min - d};
+            }
+            if (max + d <= high && isRowClear(board, max + d, c1, c2)) {
+                return new int[]{length, max + d};
             }
         }
-
         return null;
     }
 
-
     /**
-     * 检查拐点路径
+     * 从方块出发沿指定方向经过的最远空白格坐标（行方向返回行号，列方向返回列号）
      */
-    private List<Position> checkCornerPath(GameBoard board, Position start, Position end, Position corner) {
-        if (!board.isEmpty(corner.getRow(), corner.getCol())) {
-            return null;
+    private int extent(GameBoard board, int row, int col, int dRow, int dCol) {
+        int r = row + dRow;
+        int c = col + dCol;
+        while (board.isEmpty(r, c)) {
+            r += dRow;
+            c += dCol;
         }
+        return dRow != 0 ? r - dRow : c - dCol;
+    }
 
-        List<Position> path1 = findStraightPath(board, start, corner);
-        List<Position> path2 = findStraightPath(board, corner, end);
-
-        if (path1 != null && path2 != null) {
-            return mergePaths(path1, path2);
+    /**
+     * 检查同一行两列之间（不含两端）是否畅通
+     */
+    private boolean isRowClear(GameBoard board, int row, int col1, int col2) {
+        int min = Math.min(col1, col2);
+        int max = Math.max(col1, col2);
+        for (int col = min + 1; col < max; col++) {
+            if (!board.isEmpty(row, col)) {
+                return false;
+            }
         }
-
-        return null;
+        return true;
     }
 
     /**
-     * 合并两个路径
+     * 检查同一列两行之间（不含两端）是否畅通
      */
-    private List<Position> mergePaths(List<Position> path1, List<Position> path2) {
-        List<Position> merged = new ArrayList<>(path1);
-        merged.addAll(path2.subList(1, path2.size()));
-        return merged;
+    private boolean isColClear(GameBoard board, int col, int row1, int row2) {
+        int min = Math.min(row1, row2);
+        int max = Math.max(row1, row2);
+        for (int row = min + 1; row < max; row++) {
+            if (!board.isEmpty(row, col)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
-     * 合并三个路径
+     * 按拐点坐标（r0, c0, r1, c1, ...）展开为逐格路径
      */
-    private List<Position> mergePaths(List<Position> path1, List<Position> path2, List<Position> path3) {
-        List<Position> merged = new ArrayList<>(path1);
-        merged.addAll(path2.subList(1, path2.size()));
-        merged.addAll(path3.subList(1, path3.size()));
-        return merged;
+    private List<Position> buildPath(int[] points) {
+        List<Position> path = new ArrayList<>();
+        path.add(new Position(points[0], points[1]));
+        for (int i = 2; i < points.length; i += 2) {
+            int row = points[i - 2];
+            int col = points[i - 1];
+            int dRow = Integer.signum(points[i] - row);
+            int dCol = Integer.signum(points[i + 1] - col);
+            while (row != points[i] || col != points[i + 1]) {
+                row += dRow;
+                col += dCol;
+                path.add(new Position(row, col));
+            }
+        }
+        return path;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,285 @@
+package com.yush.link.controller;
+
+import com.yush.link.model.GameBoard;
+import com.yush.link.model.Position;
+import com.yush.link.utils.MoveLog;
+import com.yush.link.utils.MoveLogReader;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 批量校验走法日志：在新棋盘上重现每一局，逐条检查记录是否符合规则，用于核对提交的成绩
+ *
+ * 消除和提示的一对必须能按连线规则连接；洗牌和重新生成只允许在无步可走时发生（与游戏一致）；
+ * 记为清空的对局必须确实清空，记为无步可走的对局必须确实无步可走；结束记录之后不能再有记录。
+ * 日志文件以内存映射方式读取，按文件分配给所有CPU核并行校验。
+ *
+ * 用法：java com.yush.link.controller.ReplayVerifier 目录 [线程数]
+ *      java com.yush.link.controller.ReplayVerifier generate 目录 [局数] [行数] [列数] [图片种类]
+ * generate 用贪心策略生成测试日志，每20局中有一局包含无法连接的消除。
+ */
+public class ReplayVerifier {
+    private static final long ROOT_SEED = 0x4D4C;
+    private static final int FORGED_EVERY = 20;
+
+    /**
+     * 一局的校验结果
+     */
+    public static class Result {
+        private final Path path;
+        private final String error;      // 不合规时的原因，合规时为null
+        private final int outcome;       // 结束原因，没有结束记录时为-1
+        private final int records;
+        private final long timeMillis;   // 最后一条记录距开局的毫秒数
+        private final long bytes;
+
+        Result(Path path, String error, int outcome, int records, long timeMillis, long bytes) {
+            this.path = path;
+            this.error = error;
+            this.outcome = outcome;
+            this.records = records;
+            this.timeMillis = timeMillis;
+            this.bytes = bytes;
+        }
+
+        public boolean isValid() { return error == null; }
+        public boolean isCleared() { return error == null && outcome == MoveLog.END_CLEARED; }
+        public Path getPath() { return path; }
+        public String getError() { return error; }
+        public int getOutcome() { return outcome; }
+        public int getRecords() { return records; }
+        public long getTimeMillis() { return timeMillis; }
+        public long getBytes() { return bytes; }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        if (args.length > 0 && args[0].equals("generate")) {
+            generate(Paths.get(arg(args, 1, "data/moves")), Integer.parseInt(arg(args, 2, "1000")),
+                    Integer.parseInt(arg(args, 3, "8")), Integer.parseInt(arg(args, 4, "8")),
+                    Integer.parseInt(arg(args, 5, "8")));
+            return;
+        }
+        if (args.length < 1) {
+            System.err.println("用法: java com.yush.link.controller.ReplayVerifier 目录 [线程数]");
+            System.exit(1);
+        }
+        Path directory = Paths.get(args[0]);
+        int threads = Integer.parseInt(arg(args, 1, String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(path -> path.toString().endsWith(MoveLog.FILE_EXTENSION))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        List<Future<Result>> futures = new ArrayList<>(files.size());
+        for (Path file : files) {
+            futures.add(executor.submit(() -> verify(file)));
+        }
+
+        int cleared = 0;
+        int unfinished = 0;
+        int invalid = 0;
+        long records = 0;
+        long bytes = 0;
+        Result fastest = null;
+        for (Future<Result> future : futures) {
+            Result result = future.get();
+            records += result.getRecords();
+            bytes += result.getBytes();
+            if (!result.isValid()) {
+                invalid++;
+                System.out.printf("INVALID %s: %s%n", result.getPath().getFileName(), result.getError());
+            } else if (result.isCleared()) {
+                cleared++;
+                if (fastest == null || result.getTimeMillis() < fastest.getTimeMillis()) {
+                    fastest = result;
+                }
+            } else {
+                unfinished++;
+            }
+        }
+        executor.shutdown();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d logs on %d thread(s) in %.2f s: %d cleared, %d unfinished, %d invalid%n",
+                files.size(), threads, seconds, cleared, unfinished, invalid);
+        System.out.printf("  %.0f games/s, %.0f records/s, %.1f MB/s%n",
+                files.size() / seconds, records / seconds, bytes / seconds / (1 << 20));
+        if (fastest != null) {
+            System.out.printf("  fastest verified clear: %s in %.1f s%n",
+                    fastest.getPath().getFileName(), fastest.getTimeMillis() / 1000.0);
+        }
+    }
+
+    /**
+     * 校验一个日志文件（内存映射读取）
+     */
+    public static Result verify(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return verify(path, new MoveLogReader(buffer), channel.size());
+        } catch (IOException e) {
+            return new Result(path, "unreadable: " + e.getMessage(), -1, 0, 0, 0);
+        }
+    }
+
+    static Result verify(Path path, MoveLogReader log, long bytes) {
+        PathFinder pathFinder = new PathFinder();
+        MoveReplayer replayer;
+        try {
+            replayer = new MoveReplayer(log);
+        } catch (RuntimeException e) {
+            return new Result(path, "invalid board parameters: " + e.getMessage(), -1, 0, 0, bytes);
+        }
+        byte previous = 0;
+        String error = null;
+        while (error == null && log.next()) {
+            error = check(log, replayer, pathFinder, previous);
+            if (error == null) {
+                try {
+                    replayer.apply();
+                } catch (RuntimeException e) {
+                    error = e.getMessage();
+                }
+            }
+            if (error != null) {
+                error = "record " + log.getIndex() + ": " + error;
+            }
+            previous = log.getType();
+        }
+        if (error == null && previous == MoveLog.SEED_HIGH) {
+            error = "seed record cut short";
+        }
+        return new Result(path, error, replayer.getOutcome(), log.getIndex() + 1, log.getTimeMillis(), bytes);
+    }
+
+    /**
+     * 检查当前记录能否在当前棋盘上发生，合规时返回null
+     */
+    private static String check(MoveLogReader log, MoveReplayer replayer, PathFinder pathFinder, byte previous) {
+        GameBoard board = replayer.getBoard();
+        byte type = log.getType();
+        if (replayer.getOutcome() >= 0) {
+            return "record after end of game";
+        }
+        if ((previous == MoveLog.SEED_HIGH) != (type == MoveLog.SEED_LOW)) {
+            return "unpaired seed record";
+        }
+        switch (type) {
+            case MoveLog.PAIR:
+            case MoveLog.HINT: {
+                Position first = replayer.positionOf(log.getFirstCell());
+                Position second = replayer.positionOf(log.getSecondCell());
+                if (pathFinder.findPath(board, first, second) == null) {
+                    return String.format("%s %s-%s cannot be connected",
+                            type == MoveLog.PAIR ? "pair" : "hint", first, second);
+                }
+                return null;
+            }
+            case MoveLog.SHUFFLE:
+            case MoveLog.SEED_HIGH:
+                return pathFinder.findAnyMove(board) != null ? "board changed while moves remain" : null;
+            case MoveLog.END:
+                switch (log.getPayload()) {
+                    case MoveLog.END_CLEARED:
+                        return board.isGameComplete() ? null : "claims a clear with " + board.getRemainingTiles() + " tiles left";
+                    case MoveLog.END_NO_MOVES:
+                        return board.isGameComplete() || pathFinder.findAnyMove(board) != null
+                                ? "claims no moves while moves remain" : null;
+                    case MoveLog.END_ABANDONED:
+                        return null;
+                    default:
+                        return "unknown outcome " + log.getPayload();
+                }
+            case MoveLog.UNDO:
+                return board.canUndo() ? null : "nothing to undo";
+            case MoveLog.REDO:
+                return board.canRedo() ? null : "nothing to redo";
+            case MoveLog.MISS:
+            case MoveLog.SEED_LOW:
+                return null;
+            default:
+                return "unknown record type " + type;
+        }
+    }
+
+    /**
+     * 用贪心策略生成测试日志（开局无步可走时按游戏的规则洗牌或重新生成）
+     */
+    private static void generate(Path directory, int games, int rows, int cols, int tileTypes) throws IOException {
+        SplittableRandom seeds = new SplittableRandom(ROOT_SEED);
+        PathFinder pathFinder = new PathFinder();
+        int forged = 0;
+        for (int i = 0; i < games; i++) {
+            GameBoard board = new GameBoard(rows, cols, tileTypes);
+            board.initializeBoard(seeds.nextLong());
+            try (MoveLog log = MoveLog.open(directory, board)) {
+                if (pathFinder.findAnyMove(board) == null) {
+                    board.shuffleBoard();
+                    log.shuffle(board.getShuffleCount());
+                    if (pathFinder.findAnyMove(board) == null) {
+                        board.initializeBoard();
+                        log.reseed(board.getSeed());
+                    }
+                }
+                boolean forge = i % FORGED_EVERY == FORGED_EVERY - 1;
+                Position[] move;
+                while ((move = pathFinder.findAnyMove(board)) != null) {
+                    if (forge) {
+                        Position[] blocked = findBlockedPair(board, pathFinder);
+                        if (blocked != null) {
+                            move = blocked;
+                            forge = false;
+                            forged++;
+                        }
+                    }
+                    board.removePair(move[0], move[1]);
+                    log.pair(move[0], move[1]);
+                }
+                log.end(board.isGameComplete() ? MoveLog.END_CLEARED : MoveLog.END_NO_MOVES);
+            }
+        }
+        System.out.printf("Wrote %d logs (%d with a forged pair) to %s%n", games, forged, directory);
+    }
+
+    /**
+     * 找一对类型相同但无法连接的方块
+     */
+    private static Position[] findBlockedPair(GameBoard board, PathFinder pathFinder) {
+        for (int a = 0; a < board.getSlotCount(); a++) {
+            Position first = new Position(board.getSlotRow(a), board.getSlotCol(a));
+            int type = board.getTileType(first.getRow(), first.getCol());
+            for (int b = a + 1; type > 0 && b < board.getSlotCount(); b++) {
+                Position second = new Position(board.getSlotRow(b), board.getSlotCol(b));
+                if (board.getTileType(second.getRow(), second.getCol()) == type
+                        && pathFinder.findPath(board, first, second) == null) {
+                    return new Position[]{first, second};
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String arg(String[] args, int index, String defaultValue) {
+        return index < args.length ? args[index] : defaultValue;
+    }
+}
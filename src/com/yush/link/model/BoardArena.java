@@ -0,0 +1,234 @@
+package com.yush.link.model;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * 堆外棋盘存储区：在堆外内存（java.lang.foreign）中为大量同尺寸的棋盘分配固定大小的槽位，释放的槽位会被复用
+ *
+ * 每个槽位为 [version i64][seed i64][remaining i32][shuffleCount i32][格子类型 u8 × cellCount][占用位 i64 × ⌈cellCount/64⌉]，
+ * 占用位与格子类型同步更新（类型非0即占用），寻路判断格子是否为空时只读一个位；占用位按8字节对齐。
+ * 内存由一个共享的Arena按块（64MB）按需申请，堆上只保留块的MemorySegment和空闲槽位表，
+ * 因此棋盘数量增加时堆占用基本不变。堆外内存总量由构造时的字节上限限制（最后一块按上限截短），
+ * 槽位用完时allocate抛出IllegalStateException。close()一次性释放全部内存，之后再访问任何槽位都会抛出IllegalStateException。
+ *
+ * 分配和释放是线程安全的；同一个槽位的内容同一时间只能由一个线程访问。
+ * 释放后旧的视图不会失效，继续使用会读写到复用该槽位的棋盘。
+ */
+public class BoardArena implements AutoCloseable {
+    private static final long VERSION_OFFSET = 0;
+    private static final long SEED_OFFSET = 8;
+    private static final long REMAINING_OFFSET = 16;
+    private static final long SHUFFLE_COUNT_OFFSET = 20;
+    private static final int HEADER_BYTES = 24;
+    private static final long CHUNK_BYTES = 64 << 20;
+
+    private final int cellCount;
+    private final long occupancyOffset;  // 占用位在槽位中的偏移
+    private final int occupancyWords;
+    private final long slotBytes;
+    private final int slotsPerChunk;
+    private final long maxSlots;        // 字节上限内可容纳的槽位数
+    private final Arena arena = Arena.ofShared();
+    private final List<MemorySegment> chunks = new ArrayList<>();
+    private final BitSet allocated = new BitSet();
+
+    private int[] freeSlots = new int[1024];
+    private int freeCount;
+    private int nextSlot;   // 从未使用过的第一个槽位
+    private int liveSlots;
+    private long reservedBytes;
+
+    /**
+     * @param maxBytes 最多申请的堆外内存字节数
+     */
+    public BoardArena(int cellCount, long maxBytes) {
+        if (cellCount <= 0) {
+            throw new IllegalArgumentException("cellCount must be positive: " + cellCount);
+        }
+        this.cellCount = cellCount;
+        this.occupancyOffset = (HEADER_BYTES + cellCount + 7) & ~7;
+        this.occupancyWords = (cellCount + 63) >>> 6;
+        this.slotBytes = occupancyOffset + (long) occupancyWords * Long.BYTES;
+        this.slotsPerChunk = (int) Math.max(1, CHUNK_BYTES / slotBytes);
+        this.maxSlots = Math.min(Integer.MAX_VALUE, maxBytes / slotBytes);
+        if (maxSlots < 1) {
+            throw new IllegalArgumentException("maxBytes " + maxBytes + " is smaller than one slot (" + slotBytes + ")");
+        }
+    }
+
+    /**
+     * 用于指定形状棋盘（包含外圈）的存储区
+     */
+    public static BoardArena forLayout(BoardLayout layout, long maxBytes) {
+        return new BoardArena((layout.getRows() + 2) * (layout.getCols() + 2), maxBytes);
+    }
+
+    /**
+     * 分配一个清空的槽位
+     */
+    public synchronized int allocate() {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (nextSlot >= maxSlots) {
+                throw new IllegalStateException("Arena is full: " + liveSlots + " slots, " + reservedBytes + " bytes");
+            }
+            slot = nextSlot++;
+            if (slot / slotsPerChunk >= chunks.size()) {
+                long slots = Math.min(slotsPerChunk, maxSlots - slot);
+                chunks.add(arena.allocate(slots * slotBytes, Long.BYTES));
+                reservedBytes += slots * slotBytes;
+            }
+        }
+        slotSegment(slot).fill((byte) 0);
+        allocated.set(slot);
+        liveSlots++;
+        return slot;
+    }
+
+    /**
+     * 释放槽位，之后可被再次分配
+     */
+    public synchronized void release(int slot) {
+        if (!allocated.get(slot)) {
+            throw new IllegalStateException("Slot " + slot + " is not allocated");
+        }
+        allocated.clear(slot);
+        liveSlots--;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * 槽位的存储视图，用于 GameBoard.withStorage
+     */
+    public synchronized BoardStorage storage(int slot) {
+        if (!allocated.get(slot)) {
+            throw new IllegalStateException("Slot " + slot + " is not allocated");
+        }
+        return new SlotStorage(slotSegment(slot));
+    }
+
+    private MemorySegment slotSegment(int slot) {
+        return chunks.get(slot / slotsPerChunk).asSlice((slot % slotsPerChunk) * slotBytes, slotBytes);
+    }
+
+    /**
+     * 释放全部堆外内存，之后所有槽位视图都不可再用
+     */
+    @Override
+    public synchronized void close() {
+        arena.close();
+        chunks.clear();
+        reservedBytes = 0;
+    }
+
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    public long getSlotBytes() {
+        return slotBytes;
+    }
+
+    public synchronized int getLiveSlots() {
+        return liveSlots;
+    }
+
+    /**
+     * 已申请的堆外内存字节数
+     */
+    public synchronized long getReservedBytes() {
+        return reservedBytes;
+    }
+
+    /**
+     * 一个槽位的读写视图（槽位大小的MemorySegment切片，越界访问会抛出异常）
+     */
+    private class SlotStorage implements BoardStorage {
+        private final MemorySegment slot;
+
+        SlotStorage(MemorySegment slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public int getCellCount() {
+            return cellCount;
+        }
+
+        @Override
+        public int getType(int cell) {
+            return slot.get(ValueLayout.JAVA_BYTE, HEADER_BYTES + cell);
+        }
+
+        @Override
+        public void setType(int cell, int type) {
+            slot.set(ValueLayout.JAVA_BYTE, HEADER_BYTES + cell, (byte) type);
+            long offset = occupancyOffset + (long) (cell >>> 6) * Long.BYTES;
+            long word = slot.get(ValueLayout.JAVA_LONG, offset);
+            long bit = 1L << cell;
+            slot.set(ValueLayout.JAVA_LONG, offset, type != 0 ? word | bit : word & ~bit);
+        }
+
+        @Override
+        public boolean isOccupied(int cell) {
+            long word = slot.get(ValueLayout.JAVA_LONG, occupancyOffset + (long) (cell >>> 6) * Long.BYTES);
+            return (word & 1L << cell) != 0;
+        }
+
+        @Override
+        public void clear() {
+            slot.asSlice(HEADER_BYTES).fill((byte) 0);
+        }
+
+        @Override
+        public int getRemaining() {
+            return slot.get(ValueLayout.JAVA_INT, REMAINING_OFFSET);
+        }
+
+        @Override
+        public void setRemaining(int remaining) {
+            slot.set(ValueLayout.JAVA_INT, REMAINING_OFFSET, remaining);
+        }
+
+        @Override
+        public long getVersion() {
+            return slot.get(ValueLayout.JAVA_LONG, VERSION_OFFSET);
+        }
+
+        @Override
+        public void setVersion(long version) {
+            slot.set(ValueLayout.JAVA_LONG, VERSION_OFFSET, version);
+        }
+
+        @Override
+        public long getSeed() {
+            return slot.get(ValueLayout.JAVA_LONG, SEED_OFFSET);
+        }
+
+        @Override
+        public void setSeed(long seed) {
+            slot.set(ValueLayout.JAVA_LONG, SEED_OFFSET, seed);
+        }
+
+        @Override
+        public int getShuffleCount() {
+            return slot.get(ValueLayout.JAVA_INT, SHUFFLE_COUNT_OFFSET);
+        }
+
+        @Override
+        public void setShuffleCount(int shuffleCount) {
+            slot.set(ValueLayout.JAVA_INT, SHUFFLE_COUNT_OFFSET, shuffleCount);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.yush.link.model;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 棋盘形状（不可变）
+ *
+ * 布局文件每行对应棋盘的一行：
+ *   '#' 放置方块的格子
+ *   '.' 空白格（没有方块，连线可以通过）
+ *   'X' 障碍格（没有方块，连线不能通过）
+ * 以';'开头的行为注释，行长不足时右侧补空白格。
+ *
+ * 可放置方块的格子预先整理成索引列表，生成、洗牌和查找可走步时只遍历这些格子，
+ * 与外接矩形的大小无关。
+ */
+public class BoardLayout {
+    public static final byte VOID = 0;
+    public static final byte PLAYABLE = 1;
+    public static final byte BLOCKED = 2;
+
+    public static final String FILE_EXTENSION = ".layout";
+    // 行数和列数的上限：走法日志和存档按u8记录行列数，撤销历史和走法日志按u16记录格子编号（含外圈）
+    public static final int MAX_SIZE = 200;
+    // 名称的UTF-8字节数上限（存档中按固定长度保存），更长的名称在字符边界处截断
+    public static final int MAX_NAME_BYTES = 64;
+
+    private final String name;
+    private final int rows;
+    private final int cols;
+    private final byte[] cells;         // rows * cols，按行存储
+    private final int[] playableCells;  // 可放置方块的格子（row * cols + col，从0开始）
+    private final boolean rectangle;    // 是否为完整矩形（没有空白格和障碍格）
+
+    private BoardLayout(String name, int rows, int cols, byte[] cells) {
+        this.name = trimName(name);
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = cells;
+
+        int count = 0;
+        for (byte cell : cells) {
+            if (cell == PLAYABLE) {
+                count++;
+            }
+        }
+        this.playableCells = new int[count];
+        int index = 0;
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] == PLAYABLE) {
+                playableCells[index++] = i;
+            }
+        }
+        this.rectangle = count == cells.length;
+    }
+
+    /**
+     * 完整的矩形棋盘
+     */
+    public static BoardLayout rectangle(int rows, int cols) {
+        byte[] cells = new byte[rows * cols];
+        Arrays.fill(cells, PLAYABLE);
+        return new BoardLayout(rows + "×" + cols, rows, cols, cells);
+    }
+
+    /**
+     * 由格子类型数组（rows * cols，按行存储）创建布局，用于从日志或存档中恢复
+     */
+    public static BoardLayout of(String name, int rows, int cols, byte[] cells) {
+        checkSize(name, rows, cols);
+        if (cells.length != rows * cols) {
+            throw new IllegalArgumentException("Expected " + rows * cols + " cells, got " + cells.length);
+        }
+        for (byte cell : cells) {
+            if (cell != VOID && cell != PLAYABLE && cell != BLOCKED) {
+                throw new IllegalArgumentException("Invalid cell " + cell);
+            }
+        }
+        return new BoardLayout(name, rows, cols, cells.clone());
+    }
+
+    /**
+     * 解析布局文本，格式错误时抛出IllegalArgumentException
+     */
+    public static BoardLayout parse(String name, List<String> lines) {
+        List<String> rowsText = new ArrayList<>();
+        for (String line : lines) {
+            if (line.startsWith(";")) {
+                continue;
+            }
+            rowsText.add(line.stripTrailing());
+        }
+        // 去掉末尾的空行
+        while (!rowsText.isEmpty() && rowsText.get(rowsText.size() - 1).isEmpty()) {
+            rowsText.remove(rowsText.size() - 1);
+        }
+
+        int rows = rowsText.size();
+        int cols = 0;
+        for (String row : rowsText) {
+            cols = Math.max(cols, row.length());
+        }
+        if (rows == 0 || cols == 0) {
+            throw new IllegalArgumentException("Empty layout: " + name);
+        }
+        checkSize(name, rows, cols);
+
+        byte[] cells = new byte[rows * cols];
+        for (int row = 0; row < rows; row++) {
+            String text = rowsText.get(row);
+            for (int col = 0; col < text.length(); col++) {
+                char ch = text.charAt(col);
+                switch (ch) {
+                    case '#': cells[row * cols + col] = PLAYABLE; break;
+                    case 'X': case 'x': cells[row * cols + col] = BLOCKED; break;
+                    case '.': case ' ': cells[row * cols + col] = VOID; break;
+                    default:
+                        throw new IllegalArgumentException(String.format(
+                                "Invalid character '%c' at %d:%d in layout %s", ch, row + 1, col + 1, name));
+                }
+            }
+        }
+
+        BoardLayout layout = new BoardLayout(name, rows, cols, cells);
+        if (layout.getPlayableCount() < 2) {
+            throw new IllegalArgumentException("Layout needs at least two tiles: " + name);
+        }
+        return layout;
+    }
+
+    /**
+     * 按UTF-8字节数截断名称，不会截断在多字节字符中间
+     */
+    private static String trimName(String name) {
+        if (name.getBytes(StandardCharsets.UTF_8).length <= MAX_NAME_BYTES) {
+            return name;
+        }
+        int bytes = 0;
+        int end = 0;
+        while (end < name.length()) {
+            int codePoint = name.codePointAt(end);
+            int length = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (bytes + length > MAX_NAME_BYTES) {
+                break;
+            }
+            bytes += length;
+            end += Character.charCount(codePoint);
+        }
+        return name.substring(0, end);
+    }
+
+    private static void checkSize(String name, int rows, int cols) {
+        if (rows > MAX_SIZE || cols > MAX_SIZE) {
+            throw new IllegalArgumentException(String.format(
+                    "Layout %s is %dx%d, larger than the maximum %dx%d", name, rows, cols, MAX_SIZE, MAX_SIZE));
+        }
+    }
+
+    /**
+     * 读取布局文件，名称取自文件名
+     */
+    public static BoardLayout load(Path path) throws IOException {
+        String fileName = path.getFileName().toString();
+        String name = fileName.endsWith(FILE_EXTENSION)
+                ? fileName.substring(0, fileName.length() - FILE_EXTENSION.length())
+                : fileName;
+        if (!name.isEmpty()) {
+            name = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        }
+        return parse(name, Files.readAllLines(path, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 读取目录下的所有布局文件（按文件名排序），无法解析的文件会被跳过
+     */
+    public static List<BoardLayout> loadAll(Path directory) {
+        List<Path> files = new ArrayList<>();
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + FILE_EXTENSION)) {
+                stream.forEach(files::add);
+            } catch (IOException e) {
+                System.err.println("无法读取布局目录: " + directory + " (" + e.getMessage() + ")");
+            }
+        }
+        files.sort(null);
+
+        List<BoardLayout> layouts = new ArrayList<>();
+        for (Path file : files) {
+            try {
+                layouts.add(load(file));
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("无法读取布局文件: " + file + " (" + e.getMessage() + ")");
+            }
+        }
+        return layouts;
+    }
+
+    /**
+     * 获取格子类型（坐标从0开始，超出范围视为空白格）
+     */
+    public byte getCell(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            return VOID;
+        }
+        return cells[row * cols + col];
+    }
+
+    public String getName() { return name; }
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+    public int getPlayableCount() { return playableCells.length; }
+    public boolean isRectangle() { return rectangle; }
+
+    /**
+     * 可放置方块的格子索引（row * cols + col），调用方不得修改
+     */
+    int[] getPlayableCells() { return playableCells; }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,46 @@
+package com.yush.link.model;
+
+/**
+ * 棋盘状态的存储：每个格子的方块类型和棋盘计数器
+ *
+ * 格子按 row * actualCols + col 编号（包含外圈），类型0表示空格。
+ * 默认使用堆内数组（HeapBoardStorage），大量同时存在的棋盘可以使用堆外的BoardArena。
+ */
+public interface BoardStorage {
+    /**
+     * 可存放的格子数
+     */
+    int getCellCount();
+
+    int getType(int cell);
+
+    void setType(int cell, int type);
+
+    /**
+     * 格子上是否有方块（BoardArena用占用位实现）
+     */
+    default boolean isOccupied(int cell) {
+        return getType(cell) != 0;
+    }
+
+    /**
+     * 把所有格子置为空
+     */
+    void clear();
+
+    int getRemaining();
+
+    void setRemaining(int remaining);
+
+    long getVersion();
+
+    void setVersion(long version);
+
+    long getSeed();
+
+    void setSeed(long seed);
+
+    int getShuffleCount();
+
+    void setShuffleCount(int shuffleCount);
+}
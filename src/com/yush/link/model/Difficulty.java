@@ -0,0 +1,46 @@
+package com.yush.link.model;
+
+/**
+ * 难度等级，以随机对局的清空率区间衡量（同样尺寸的棋盘因排列不同难度差别很大）
+ */
+public enum Difficulty {
+    EASY("Easy", 0.9, 1.0),
+    NORMAL("Normal", 0.5, 0.9),
+    HARD("Hard", 0.1, 0.5);     // 下限避免生成几乎无解的棋盘
+
+    private final String displayName;
+    private final double minClearRate;
+    private final double maxClearRate;
+
+    Difficulty(String displayName, double minClearRate, double maxClearRate) {
+        this.displayName = displayName;
+        this.minClearRate = minClearRate;
+        this.maxClearRate = maxClearRate;
+    }
+
+    /**
+     * 清空率是否在本难度的区间内
+     */
+    public boolean accepts(double clearRate) {
+        return clearRate >= minClearRate && clearRate <= maxClearRate;
+    }
+
+    /**
+     * 清空率与区间的距离（在区间内为0）
+     */
+    public double distance(double clearRate) {
+        if (clearRate < minClearRate) {
+            return minClearRate - clearRate;
+        }
+        return Math.max(0, clearRate - maxClearRate);
+    }
+
+    public String getDisplayName() { return displayName; }
+    public double getMinClearRate() { return minClearRate; }
+    public double getMaxClearRate() { return maxClearRate; }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -1,37 +1,196 @@
 package com.yush.link.model;
 
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 public class GameBoard {
+    // writeState写入的计数器字节数（格子类型之前）
+    public static final int STATE_HEADER_BYTES = 24;
+
     private int rows;    // 游戏区域行数（高度）
     private int cols;    // 游戏区域列数（宽度）
     private int tileTypes; // 图片种类数
     private int actualRows; // 包含外圈的行数
     private int actualCols; // 包含外圈的列数
-    private Tile[][] board;
+    // 格子类型和计数器：剩余方块数、棋盘版本号（每次变化时递增，用于路径缓存失效）、
+    // 种子（相同形状、种类数和种子生成相同的棋盘）、本局洗牌次数（第n次洗牌的种子由(seed, n)派生）
+    private final BoardStorage storage;
+
+    private final BoardLayout layout;   // 棋盘形状
+    private final boolean[][] blocked;  // 障碍格（包含外圈坐标）
+    private final int[] slotRows;       // 可放置方块的格子（包含外圈坐标）
+    private final int[] slotCols;
+    private final int[][] columnSlots;  // 每列可放置方块的行号（从上到下）
+    private final int[][] rowSlots;     // 每行可放置方块的列号（从左到右）
+
+    private GravityMode gravityMode = GravityMode.NONE;
+
+    // 撤销/重做历史（null表示不记录，机器人模拟用的副本不记录）
+    private MoveHistory history;
 
     public GameBoard(int rows, int cols, int tileTypes) {
-        this.rows = rows;
-        this.cols = cols;
+        this(BoardLayout.rectangle(rows, cols), tileTypes);
+    }
+
+    public GameBoard(BoardLayout layout, int tileTypes) {
+        this.layout = layout;
+        this.rows = layout.getRows();
+        this.cols = layout.getCols();
         this.tileTypes = tileTypes;
         this.actualRows = rows + 2;
         this.actualCols = cols + 2;
-        this.board = new Tile[actualRows][actualCols];
+        this.storage = new HeapBoardStorage(actualRows * actualCols);
+
+        this.blocked = new boolean[actualRows][actualCols];
+        for (int i = 1; i <= rows; i++) {
+            for (int j = 1; j <= cols; j++) {
+                blocked[i][j] = layout.getCell(i - 1, j - 1) == BoardLayout.BLOCKED;
+            }
+        }
+
+        int[] playable = layout.getPlayableCells();
+        this.slotRows = new int[playable.length];
+        this.slotCols = new int[playable.length];
+        int[] columnCounts = new int[actualCols];
+        int[] rowCounts = new int[actualRows];
+        for (int i = 0; i < playable.length; i++) {
+            slotRows[i] = playable[i] / cols + 1;
+            slotCols[i] = playable[i] % cols + 1;
+            columnCounts[slotCols[i]]++;
+            rowCounts[slotRows[i]]++;
+        }
+
+        // 按行列整理可放置的格子（重力模式按此补位，异形棋盘中跳过空白格和障碍格）
+        this.columnSlots = new int[actualCols][];
+        this.rowSlots = new int[actualRows][];
+        for (int j = 0; j < actualCols; j++) {
+            columnSlots[j] = new int[columnCounts[j]];
+            columnCounts[j] = 0;
+        }
+        for (int i = 0; i < actualRows; i++) {
+            rowSlots[i] = new int[rowCounts[i]];
+            rowCounts[i] = 0;
+        }
+        for (int i = 0; i < playable.length; i++) {
+            columnSlots[slotCols[i]][columnCounts[slotCols[i]]++] = slotRows[i];
+            rowSlots[slotRows[i]][rowCounts[slotRows[i]]++] = slotCols[i];
+        }
     }
 
     /**
-     * 初始化游戏棋盘
+     * 与source同形状、使用指定存储的棋盘（形状相关的只读数组共享）
      */
-    public void initializeBoard() {
-        // 清空棋盘
-        for (int i = 0; i < actualRows; i++) {
-            for (int j = 0; j < actualCols; j++) {
-                board[i][j] = null;
+    private GameBoard(GameBoard source, BoardStorage storage) {
+        this.layout = source.layout;
+        this.rows = source.rows;
+        this.cols = source.cols;
+        this.tileTypes = source.tileTypes;
+        this.actualRows = source.actualRows;
+        this.actualCols = source.actualCols;
+        this.blocked = source.blocked;
+        this.slotRows = source.slotRows;
+        this.slotCols = source.slotCols;
+        this.columnSlots = source.columnSlots;
+        this.rowSlots = source.rowSlots;
+        this.gravityMode = source.gravityMode;
+        if (storage.getCellCount() < actualRows * actualCols) {
+            throw new IllegalArgumentException("Storage holds " + storage.getCellCount() +
+                    " cells, board needs " + actualRows * actualCols);
+        }
+        this.storage = storage;
+    }
+
+    /**
+     * 复制棋盘（格子逐个复制），供机器人模拟走法
+     */
+    public GameBoard copy() {
+        GameBoard copy = new GameBoard(this, new HeapBoardStorage(actualRows * actualCols));
+        for (int i = 0; i < slotRows.length; i++) {
+            int cell = cellIndex(slotRows[i], slotCols[i]);
+            copy.storage.setType(cell, storage.getType(cell));
+        }
+        copy.storage.setRemaining(storage.getRemaining());
+        copy.storage.setVersion(storage.getVersion());
+        copy.storage.setSeed(storage.getSeed());
+        copy.storage.setShuffleCount(storage.getShuffleCount());
+        return copy;
+    }
+
+    /**
+     * 同形状、同种类数的棋盘视图，格子和计数器读写在storage中（例如BoardArena的槽位），
+     * 棋盘内容即storage当前的内容。可以反复为不同的槽位创建视图而不复制形状数据。
+     */
+    public GameBoard withStorage(BoardStorage storage) {
+        return new GameBoard(this, storage);
+    }
+
+    /**
+     * 棋盘状态（格子和计数器）的字节数，布局与BoardArena槽位的前部相同（不含占用位）：
+     * [version i64][seed i64][remaining i32][shuffleCount i32][格子类型 u8 × actualRows × actualCols]
+     */
+    public int getStateBytes() {
+        return STATE_HEADER_BYTES + actualRows * actualCols;
+    }
+
+    /**
+     * 把棋盘状态写入buffer的当前位置（格子整块复制）
+     */
+    public void writeState(ByteBuffer buffer) {
+        buffer.putLong(storage.getVersion());
+        buffer.putLong(storage.getSeed());
+        buffer.putInt(storage.getRemaining());
+        buffer.putInt(storage.getShuffleCount());
+        int cellCount = actualRows * actualCols;
+        if (storage instanceof HeapBoardStorage) {
+            buffer.put(((HeapBoardStorage) storage).getCells(), 0, cellCount);
+        } else {
+            for (int cell = 0; cell < cellCount; cell++) {
+                buffer.put((byte) storage.getType(cell));
             }
         }
+    }
+
+    /**
+     * 从buffer的当前位置读取writeState写入的状态，覆盖当前棋盘
+     */
+    public void readState(ByteBuffer buffer) {
+        clearHistory();
+        storage.setVersion(buffer.getLong());
+        storage.setSeed(buffer.getLong());
+        storage.setRemaining(buffer.getInt());
+        storage.setShuffleCount(buffer.getInt());
+        int cellCount = actualRows * actualCols;
+        if (storage instanceof HeapBoardStorage) {
+            buffer.get(((HeapBoardStorage) storage).getCells(), 0, cellCount);
+        } else {
+            for (int cell = 0; cell < cellCount; cell++) {
+                storage.setType(cell, buffer.get());
+            }
+        }
+    }
+
+    /**
+     * 用随机种子初始化游戏棋盘
+     */
+    public void initializeBoard() {
+        initializeBoard(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * 用指定种子初始化游戏棋盘（可按种子重现）
+     */
+    public void initializeBoard(long seed) {
+        clearHistory();
+        storage.setSeed(seed);
+        storage.setShuffleCount(0);
+
+        // 清空棋盘
+        storage.clear();
 
         // 计算需要的方块总数（偶数）
-        int totalTiles = rows * cols;
+        int totalTiles = slotRows.length;
         if (totalTiles % 2 != 0) {
             totalTiles--;
         }
@@ -64,118 +223,194 @@ public class GameBoard {
             }
         }
 
-        // 随机打乱顺序
-        Collections.shuffle(tileTypesList);
+        // 按种子打乱顺序
+        shuffle(tileTypesList, new SplittableRandom(seed));
 
-        // 放置方块到游戏区域
+        // 放置方块到游戏区域（格子数为奇数时留出一个空格）
+        int emptyCell = totalTiles < slotRows.length ? leftoverCell() : -1;
         int index = 0;
-        for (int i = 1; i <= rows; i++) {
-            for (int j = 1; j <= cols; j++) {
-                if (index < tileTypesList.size()) {
-                    int type = tileTypesList.get(index);
-                    board[i][j] = new Tile(type, i, j);
-                    index++;
-                }
+        storage.setRemaining(tileTypesList.size());
+        bumpVersion();
+        for (int i = 0; i < slotRows.length && index < tileTypesList.size(); i++) {
+            int cell = cellIndex(slotRows[i], slotCols[i]);
+            if (cell != emptyCell) {
+                storage.setType(cell, tileTypesList.get(index));
+                index++;
             }
         }
+    }
 
-        // 设置外圈空白格
-        for (int i = 0; i < actualRows; i++) {
-            for (int j = 0; j < actualCols; j++) {
-                if (i == 0 || i == actualRows - 1 || j == 0 || j == actualCols - 1) {
-                    board[i][j] = null;
-                }
-            }
+    /**
+     * 格子数为奇数时留空的格子：无重力时为最后一个格子；有重力时为最后一列（行）中离重力方向最远的格子，
+     * 使开局时每一列（行）都已压紧，撤销历史不会因为这个空格被清空
+     */
+    private int leftoverCell() {
+        if (gravityMode == GravityMode.NONE) {
+            return cellIndex(slotRows[slotRows.length - 1], slotCols[slotCols.length - 1]);
         }
+        boolean vertical = gravityMode.isVertical();
+        int[][] lines = vertical ? columnSlots : rowSlots;
+        int line = lines.length - 1;
+        while (lines[line].length == 0) {
+            line--;
+        }
+        int[] slots = lines[line];
+        // 压向末端（Down / Right / Center的前半段）时空格在首端，压向首端时在末端
+        boolean towardStart = gravityMode == GravityMode.UP || gravityMode == GravityMode.LEFT;
+        return cellOf(slots[towardStart ? slots.length - 1 : 0], vertical, line);
     }
 
     /**
-     * 检查是否还有可走的步
+     * 获取指定位置的方块（每次调用返回新的对象，空格或越界返回null）
      */
-    public boolean hasAvailableMoves() {
-        List<Position> activePositions = new ArrayList<>();
+    public Tile getTile(int row, int col) {
+        int type = getTileType(row, col);
+        return type == 0 ? null : new Tile(type, row, col);
+    }
 
-        // 收集所有活跃方块位置
-        for (int i = 1; i <= rows; i++) {
-            for (int j = 1; j <= cols; j++) {
-                Tile tile = board[i][j];
-                if (tile != null && tile.isActive()) {
-                    activePositions.add(new Position(i, j));
-                }
-            }
+    /**
+     * 获取指定位置的方块类型，空格或越界返回0
+     */
+    public int getTileType(int row, int col) {
+        if (row < 0 || row >= actualRows || col < 0 || col >= actualCols) {
+            return 0;
         }
+        return storage.getType(cellIndex(row, col));
+    }
 
-        // 检查每一对方块是否可以连接
-        for (int i = 0; i < activePositions.size(); i++) {
-            for (int j = i + 1; j < activePositions.size(); j++) {
-                Position pos1 = activePositions.get(i);
-                Position pos2 = activePositions.get(j);
-
-                Tile tile1 = getTile(pos1.getRow(), pos1.getCol());
-                Tile tile2 = getTile(pos2.getRow(), pos2.getCol());
-
-                if (tile1 != null && tile2 != null &&
-                        tile1.getType() == tile2.getType() &&
-                        canConnect(pos1, pos2)) {
-                    return true;
-                }
+    /**
+     * 移除指定位置的方块
+     */
+    public void removeTile(int row, int col) {
+        if (row >= 0 && row < actualRows && col >= 0 && col < actualCols) {
+            int cell = cellIndex(row, col);
+            if (storage.getType(cell) != 0) {
+                storage.setRemaining(storage.getRemaining() - 1);
             }
+            storage.setType(cell, 0);
+            bumpVersion();
         }
+    }
+
+    private int cellIndex(int row, int col) {
+        return row * actualCols + col;
+    }
 
-        return false;
+    private void bumpVersion() {
+        storage.setVersion(storage.getVersion() + 1);
     }
 
     /**
-     * 检查两个方块是否可以连接
+     * 消除一对方块，并按重力模式移动受影响的行或列
+     * @return 内容发生变化的格子（包括两个被消除的格子）
      */
-    public boolean canConnect(Position pos1, Position pos2) {
-        if (pos1.equals(pos2)) {
-            return false;
+    public List<Position> removePair(Position first, Position second) {
+        if (history != null) {
+            // 重力模式的撤销假定受影响的行列在消除前已按重力压紧（开局时奇数格棋盘的空格也留在压紧后的位置），
+            // 不满足时无法还原原来的位置，清空历史
+            if (gravityMode != GravityMode.NONE && !(isLineCompact(first) && isLineCompact(second))) {
+                history.clear();
+            } else {
+                history.recordPair(cellIndex(first.getRow(), first.getCol()),
+                        cellIndex(second.getRow(), second.getCol()),
+                        getTileType(first.getRow(), first.getCol()), getTileType(second.getRow(), second.getCol()));
+            }
         }
+        return applyRemovePair(first, second);
+    }
 
-        Tile tile1 = getTile(pos1.getRow(), pos1.getCol());
-        Tile tile2 = getTile(pos2.getRow(), pos2.getCol());
+    private List<Position> applyRemovePair(Position first, Position second) {
+        removeTile(first.getRow(), first.getCol());
+        removeTile(second.getRow(), second.getCol());
 
-        if (tile1 == null || tile2 == null ||
-                !tile1.isActive() || !tile2.isActive()) {
-            return false;
+        // 被消除的两个格子总是需要更新
+        Set<Position> changed = new LinkedHashSet<>();
+        changed.add(first);
+        changed.add(second);
+        if (gravityMode == GravityMode.NONE) {
+            return new ArrayList<>(changed);
         }
 
-        return tile1.getType() == tile2.getType();
+        // 只移动两个方块所在的列（或行），每次为O(列长)
+        if (gravityMode.isVertical()) {
+            applyGravity(first.getCol(), changed);
+            if (second.getCol() != first.getCol()) {
+                applyGravity(second.getCol(), changed);
+            }
+        } else {
+            applyGravity(first.getRow(), changed);
+            if (second.getRow() != first.getRow()) {
+                applyGravity(second.getRow(), changed);
+            }
+        }
+        bumpVersion();
+        return new ArrayList<>(changed);
     }
 
     /**
-     * 获取指定位置的方块
+     * 对一列（或一行）做原地压缩
+     * @param line 列号（纵向重力）或行号（横向重力）
      */
-    public Tile getTile(int row, int col) {
-        if (row < 0 || row >= actualRows || col < 0 || col >= actualCols) {
-            return null;
+    private void applyGravity(int line, Set<Position> changed) {
+        boolean vertical = gravityMode.isVertical();
+        int[] slots = vertical ? columnSlots[line] : rowSlots[line];
+        switch (gravityMode) {
+            case DOWN:
+            case RIGHT:
+                compact(slots, 0, slots.length, true, vertical, line, changed);
+                break;
+            case UP:
+            case LEFT:
+                compact(slots, 0, slots.length, false, vertical, line, changed);
+                break;
+            case CENTER:
+                // 上半部分向下、下半部分向上
+                int middle = slots.length / 2;
+                compact(slots, 0, middle, true, vertical, line, changed);
+                compact(slots, middle, slots.length, false, vertical, line, changed);
+                break;
+            default:
+                break;
         }
-        return board[row][col];
     }
 
     /**
-     * 移除指定位置的方块
+     * 把slots[from, to)范围内的方块按原顺序挤向末端（towardEnd）或首端，记录变化的格子
      */
-    public void removeTile(int row, int col) {
-        if (row >= 0 && row < actualRows && col >= 0 && col < actualCols) {
-            board[row][col] = null;
+    private void compact(int[] slots, int from, int to, boolean towardEnd, boolean vertical, int line,
+                         Set<Position> changed) {
+        int step = towardEnd ? -1 : 1;
+        int read = towardEnd ? to - 1 : from;
+        int write = read;
+
+        for (; read >= from && read < to; read += step) {
+            int type = storage.getType(cellOf(slots[read], vertical, line));
+            if (type == 0) {
+                continue;
+            }
+            if (read != write) {
+                storage.setType(cellOf(slots[write], vertical, line), type);
+                storage.setType(cellOf(slots[read], vertical, line), 0);
+                changed.add(cellAt(slots[write], vertical, line));
+                changed.add(cellAt(slots[read], vertical, line));
+            }
+            write += step;
         }
     }
 
+    private int cellOf(int slot, boolean vertical, int line) {
+        return vertical ? cellIndex(slot, line) : cellIndex(line, slot);
+    }
+
+    private Position cellAt(int slot, boolean vertical, int line) {
+        return vertical ? new Position(slot, line) : new Position(line, slot);
+    }
+
     /**
      * 检查游戏是否完成
      */
     public boolean isGameComplete() {
-        for (int i = 1; i <= rows; i++) {
-            for (int j = 1; j <= cols; j++) {
-                Tile tile = board[i][j];
-                if (tile != null && tile.isActive()) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        return storage.getRemaining() == 0;
     }
 
     /**
@@ -186,80 +421,329 @@ public class GameBoard {
             return false;
         }
 
-        if (row == 0 || row == actualRows - 1 || col == 0 || col == actualCols - 1) {
-            return true;
+        // 障碍格不可通行，外圈和形状中的空白格可通行
+        if (blocked[row][col]) {
+            return false;
         }
 
-        Tile tile = board[row][col];
-        return tile == null || !tile.isActive();
+        return !storage.isOccupied(cellIndex(row, col));
     }
 
     /**
      * 洗牌方法
      */
     public void shuffleBoard() {
-        List<Tile> activeTiles = new ArrayList<>();
-        List<Position> positions = new ArrayList<>();
+        if (history != null) {
+            history.recordShuffle(activeTypes());
+        }
+        applyShuffle();
+    }
+
+    private void applyShuffle() {
+        List<Integer> activeTypes = new ArrayList<>();
+        List<Integer> cells = new ArrayList<>();
 
         // 收集所有活跃方块
-        for (int i = 1; i <= rows; i++) {
-            for (int j = 1; j <= cols; j++) {
-                Tile tile = board[i][j];
-                if (tile != null && tile.isActive()) {
-                    activeTiles.add(tile);
-                    positions.add(new Position(i, j));
-                }
+        for (int i = 0; i < slotRows.length; i++) {
+            int cell = cellIndex(slotRows[i], slotCols[i]);
+            int type = storage.getType(cell);
+            if (type != 0) {
+                activeTypes.add(type);
+                cells.add(cell);
             }
         }
 
-        // 随机打乱方块类型
-        Collections.shuffle(activeTiles);
+        // 随机打乱方块类型（每次洗牌使用由种子和洗牌次数派生的独立序列）
+        int shuffleCount = storage.getShuffleCount() + 1;
+        storage.setShuffleCount(shuffleCount);
+        shuffle(activeTypes, new SplittableRandom(mix(storage.getSeed() + shuffleCount * GOLDEN_GAMMA)));
 
         // 重新分配类型到位置
-        for (int i = 0; i < positions.size(); i++) {
-            Position pos = positions.get(i);
-            Tile tile = activeTiles.get(i);
-            board[pos.getRow()][pos.getCol()] = new Tile(
-                    tile.getType(),
-                    pos.getRow(),
-                    pos.getCol()
-            );
+        for (int i = 0; i < cells.size(); i++) {
+            storage.setType(cells.get(i), activeTypes.get(i));
         }
+        bumpVersion();
     }
 
+    /**
+     * 按可放置格子的顺序列出各方块的类型（跳过空格）
+     */
+    private byte[] activeTypes() {
+        byte[] types = new byte[storage.getRemaining()];
+        int count = 0;
+        for (int i = 0; i < slotRows.length; i++) {
+            int type = storage.getType(cellIndex(slotRows[i], slotCols[i]));
+            if (type != 0 && count < types.length) {
+                types[count++] = (byte) type;
+            }
+        }
+        return types;
+    }
 
     /**
-     * 查找一对可消除的方块（提示功能）
+     * 从当前状态开始记录撤销历史（之前的历史清空）
      */
-    public Position[] findHint() {
-        // 收集所有活跃方块位置
-        List<Position> activePositions = new ArrayList<>();
-        for (int i = 1; i <= rows; i++) {
-            for (int j = 1; j <= cols; j++) {
-                Tile tile = board[i][j];
-                if (tile != null && tile.isActive()) {
-                    activePositions.add(new Position(i, j));
+    public void startUndoHistory() {
+        history = new MoveHistory();
+    }
+
+    private void clearHistory() {
+        if (history != null) {
+            history.clear();
+        }
+    }
+
+    public boolean canUndo() {
+        return history != null && history.canUndo();
+    }
+
+    public boolean canRedo() {
+        return history != null && history.canRedo();
+    }
+
+    /**
+     * 撤销上一步（消除或洗牌），只改动这一步涉及的格子（重力模式下为所在的行或列）
+     * @return 内容发生变化的格子，没有可撤销的步骤时为空
+     */
+    public List<Position> undo() {
+        if (!canUndo()) {
+            return Collections.emptyList();
+        }
+        long entry = history.undo();
+        if (MoveHistory.kind(entry) == MoveHistory.SHUFFLE) {
+            return restoreShuffle(history.shuffleTypes(entry));
+        }
+        return restorePair(entry);
+    }
+
+    /**
+     * 重做上一次撤销的步骤（消除和洗牌都可由之前的状态确定地重现）
+     * @return 内容发生变化的格子，没有可重做的步骤时为空
+     */
+    public List<Position> redo() {
+        if (!canRedo()) {
+            return Collections.emptyList();
+        }
+        long entry = history.redo();
+        if (MoveHistory.kind(entry) == MoveHistory.SHUFFLE) {
+            byte[] before = history.shuffleTypes(entry);
+            applyShuffle();
+            return changedActiveCells(before);
+        }
+        return applyRemovePair(positionOf(MoveHistory.firstCell(entry)), positionOf(MoveHistory.secondCell(entry)));
+    }
+
+    private Position positionOf(int cell) {
+        return new Position(cell / actualCols, cell % actualCols);
+    }
+
+    /**
+     * 按洗牌前的类型表还原，洗牌次数减一（下次洗牌得到同样的结果）
+     */
+    private List<Position> restoreShuffle(byte[] before) {
+        List<Position> changed = new ArrayList<>();
+        int index = 0;
+        for (int i = 0; i < slotRows.length; i++) {
+            int cell = cellIndex(slotRows[i], slotCols[i]);
+            int type = storage.getType(cell);
+            if (type != 0 && index < before.length) {
+                if (type != before[index]) {
+                    storage.setType(cell, before[index]);
+                    changed.add(new Position(slotRows[i], slotCols[i]));
                 }
+                index++;
             }
         }
+        storage.setShuffleCount(storage.getShuffleCount() - 1);
+        bumpVersion();
+        return changed;
+    }
 
-        // 尝试找到任意一组可消除的方块
-        for (int i = 0; i < activePositions.size(); i++) {
-            for (int j = i + 1; j < activePositions.size(); j++) {
-                Position pos1 = activePositions.get(i);
-                Position pos2 = activePositions.get(j);
+    /**
+     * 类型与before（按可放置格子的顺序）不同的格子
+     */
+    private List<Position> changedActiveCells(byte[] before) {
+        List<Position> changed = new ArrayList<>();
+        int index = 0;
+        for (int i = 0; i < slotRows.length && index < before.length; i++) {
+            int type = storage.getType(cellIndex(slotRows[i], slotCols[i]));
+            if (type != 0) {
+                if (type != before[index]) {
+                    changed.add(new Position(slotRows[i], slotCols[i]));
+                }
+                index++;
+            }
+        }
+        return changed;
+    }
 
-                Tile tile1 = getTile(pos1.getRow(), pos1.getCol());
-                Tile tile2 = getTile(pos2.getRow(), pos2.getCol());
+    /**
+     * 放回被消除的一对；重力模式下把所在行列中的方块移回消除前的位置
+     */
+    private List<Position> restorePair(long entry) {
+        Position first = positionOf(MoveHistory.firstCell(entry));
+        Position second = positionOf(MoveHistory.secondCell(entry));
+        int firstType = MoveHistory.firstType(entry);
+        int secondType = MoveHistory.secondType(entry);
+        storage.setRemaining(storage.getRemaining() + (firstType != 0 ? 1 : 0) + (secondType != 0 ? 1 : 0));
+
+        Set<Position> changed = new LinkedHashSet<>();
+        changed.add(first);
+        changed.add(second);
+        if (gravityMode == GravityMode.NONE) {
+            storage.setType(MoveHistory.firstCell(entry), firstType);
+            storage.setType(MoveHistory.secondCell(entry), secondType);
+        } else {
+            boolean vertical = gravityMode.isVertical();
+            int firstLine = vertical ? first.getCol() : first.getRow();
+            int secondLine = vertical ? second.getCol() : second.getRow();
+            int firstSlot = vertical ? first.getRow() : first.getCol();
+            int secondSlot = vertical ? second.getRow() : second.getCol();
+            if (firstLine == secondLine) {
+                restoreLine(firstLine, firstSlot, firstType, secondSlot, secondType, changed);
+            } else {
+                restoreLine(firstLine, firstSlot, firstType, -1, 0, changed);
+                restoreLine(secondLine, secondSlot, secondType, -1, 0, changed);
+            }
+        }
+        bumpVersion();
+        return new ArrayList<>(changed);
+    }
 
-                if (tile1 != null && tile2 != null && tile1.getType() == tile2.getType()) {
-                    // 返回这对方块的位置，让GameController检查是否可以连接
-                    return new Position[]{pos1, pos2};
-                }
+    /**
+     * 撤销一行（列）的压紧：按重力分段，把被消除的方块（slot为行号或列号，-1表示没有）插回原位
+     */
+    private void restoreLine(int line, int slotA, int typeA, int slotB, int typeB, Set<Position> changed) {
+        boolean vertical = gravityMode.isVertical();
+        int[] slots = vertical ? columnSlots[line] : rowSlots[line];
+        int indexA = Arrays.binarySearch(slots, slotA);
+        int indexB = slotB < 0 ? -1 : Arrays.binarySearch(slots, slotB);
+        // 按位置从前到后插入
+        if (indexB >= 0 && indexB < indexA) {
+            int index = indexA;
+            indexA = indexB;
+            indexB = index;
+            int type = typeA;
+            typeA = typeB;
+            typeB = type;
+        }
+        switch (gravityMode) {
+            case DOWN:
+            case RIGHT:
+                expand(slots, 0, slots.length, true, vertical, line, indexA, typeA, indexB, typeB, changed);
+                break;
+            case UP:
+            case LEFT:
+                expand(slots, 0, slots.length, false, vertical, line, indexA, typeA, indexB, typeB, changed);
+                break;
+            case CENTER:
+                int middle = slots.length / 2;
+                expand(slots, 0, middle, true, vertical, line, indexA, typeA, indexB, typeB, changed);
+                expand(slots, middle, slots.length, false, vertical, line, indexA, typeA, indexB, typeB, changed);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * compact的逆操作：slots[from, to)在消除前是压紧的（方块连续地排在末端或首端），
+     * 把现有方块按原顺序与插回的方块（下标在本段内才处理，按下标升序）一起写回消除前的区间
+     */
+    private void expand(int[] slots, int from, int to, boolean towardEnd, boolean vertical, int line,
+                        int indexA, int typeA, int indexB, int typeB, Set<Position> changed) {
+        boolean hasA = indexA >= from && indexA < to;
+        boolean hasB = indexB >= from && indexB < to;
+        if (!hasA && !hasB) {
+            return;
+        }
+        int[] tiles = new int[to - from];
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            int type = storage.getType(cellOf(slots[i], vertical, line));
+            if (type != 0) {
+                tiles[count++] = type;
+            }
+        }
+        int total = count + (hasA ? 1 : 0) + (hasB ? 1 : 0);
+        int start = towardEnd ? to - total : from;
+
+        int next = 0;
+        for (int i = from; i < to; i++) {
+            int type;
+            if (i < start || i >= start + total) {
+                type = 0;
+            } else if (hasA && i == indexA) {
+                type = typeA;
+            } else if (hasB && i == indexB) {
+                type = typeB;
+            } else {
+                type = tiles[next++];
+            }
+            int cell = cellOf(slots[i], vertical, line);
+            if (storage.getType(cell) != type) {
+                storage.setType(cell, type);
+                changed.add(cellAt(slots[i], vertical, line));
             }
         }
+    }
 
-        return null;
+    /**
+     * 位置所在的行（列）是否已按当前重力模式压紧
+     */
+    private boolean isLineCompact(Position position) {
+        boolean vertical = gravityMode.isVertical();
+        int line = vertical ? position.getCol() : position.getRow();
+        int[] slots = vertical ? columnSlots[line] : rowSlots[line];
+        switch (gravityMode) {
+            case DOWN:
+            case RIGHT:
+                return isCompact(slots, 0, slots.length, true, vertical, line);
+            case UP:
+            case LEFT:
+                return isCompact(slots, 0, slots.length, false, vertical, line);
+            case CENTER:
+                int middle = slots.length / 2;
+                return isCompact(slots, 0, middle, true, vertical, line)
+                        && isCompact(slots, middle, slots.length, false, vertical, line);
+            default:
+                return true;
+        }
+    }
+
+    private boolean isCompact(int[] slots, int from, int to, boolean towardEnd, boolean vertical, int line) {
+        // 压向末端：先空格后方块；压向首端：先方块后空格
+        boolean tileFirst = !towardEnd;
+        boolean switched = false;
+        for (int i = from; i < to; i++) {
+            boolean tile = storage.isOccupied(cellOf(slots[i], vertical, line));
+            if (tile != tileFirst) {
+                switched = true;
+            } else if (switched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * SplitMix64的混合函数，把相邻的输入映射为不相关的种子
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Fisher-Yates洗牌（Collections.shuffle只接受java.util.Random）
+     */
+    private static <T> void shuffle(List<T> list, RandomGenerator random) {
+        for (int i = list.size() - 1; i > 0; i--) {
+            Collections.swap(list, i, random.nextInt(i + 1));
+        }
     }
 
     // Getter 方法
@@ -269,5 +753,25 @@ public class GameBoard {
     public int getActualRows() { return actualRows; }
     public int getActualCols() { return actualCols; }
     public int getActualSize() { return Math.max(actualRows, actualCols); }
-    public Tile[][] getBoard() { return board.clone(); }
+    public int getRemainingTiles() { return storage.getRemaining(); }
+    public BoardLayout getLayout() { return layout; }
+    public GravityMode getGravityMode() { return gravityMode; }
+    public void setGravityMode(GravityMode gravityMode) { this.gravityMode = gravityMode; }
+
+    /**
+     * 是否为障碍格
+     */
+    public boolean isBlocked(int row, int col) {
+        return row >= 0 && row < actualRows && col >= 0 && col < actualCols && blocked[row][col];
+    }
+
+    /**
+     * 可放置方块的格子数及其坐标（包含外圈坐标），用于只遍历棋盘上的有效格子
+     */
+    public int getSlotCount() { return slotRows.length; }
+    public int getSlotRow(int index) { return slotRows[index]; }
+    public int getSlotCol(int index) { return slotCols[index]; }
+    public long getVersion() { return storage.getVersion(); }
+    public long getSeed() { return storage.getSeed(); }
+    public int getShuffleCount() { return storage.getShuffleCount(); }
 }
\ No newline at end of file
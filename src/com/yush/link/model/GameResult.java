@@ -0,0 +1,38 @@
+package com.yush.link.model;
+
+/**
+ * 一局完成的游戏记录
+ */
+public class GameResult {
+    private final long timestamp;   // 完成时间（毫秒时间戳）
+    private final int rows;
+    private final int cols;
+    private final long seed;        // 棋盘种子
+    private final int timeMillis;   // 用时（毫秒）
+    private final int moves;        // 尝试配对次数
+    private final int hintsUsed;    // 使用提示次数
+
+    public GameResult(long timestamp, int rows, int cols, long seed, int timeMillis, int moves, int hintsUsed) {
+        this.timestamp = timestamp;
+        this.rows = rows;
+        this.cols = cols;
+        this.seed = seed;
+        this.timeMillis = timeMillis;
+        this.moves = moves;
+        this.hintsUsed = hintsUsed;
+    }
+
+    public long getTimestamp() { return timestamp; }
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+    public long getSeed() { return seed; }
+    public int getTimeMillis() { return timeMillis; }
+    public int getMoves() { return moves; }
+    public int getHintsUsed() { return hintsUsed; }
+
+    @Override
+    public String toString() {
+        return String.format("GameResult{%dx%d, seed=%d, time=%dms, moves=%d, hints=%d}",
+                rows, cols, seed, timeMillis, moves, hintsUsed);
+    }
+}
@@ -0,0 +1,35 @@
+package com.yush.link.model;
+
+/**
+ * 重力模式：消除方块后，同一列（或同一行）中剩余的方块向指定方向移动补位
+ */
+public enum GravityMode {
+    NONE("None"),
+    DOWN("Down"),
+    UP("Up"),
+    LEFT("Left"),
+    RIGHT("Right"),
+    CENTER("Center");   // 每列上半部分向下、下半部分向上，向中间聚拢
+
+    private final String displayName;
+
+    GravityMode(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * 是否按列移动（否则按行移动）
+     */
+    public boolean isVertical() {
+        return this == DOWN || this == UP || this == CENTER;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,85 @@
+package com.yush.link.model;
+
+import java.util.Arrays;
+
+/**
+ * 堆内棋盘存储，每个格子一个字节
+ */
+class HeapBoardStorage implements BoardStorage {
+    private final byte[] cells;
+    private int remaining;
+    private long version;
+    private long seed;
+    private int shuffleCount;
+
+    HeapBoardStorage(int cellCount) {
+        this.cells = new byte[cellCount];
+    }
+
+    @Override
+    public int getCellCount() {
+        return cells.length;
+    }
+
+    /**
+     * 格子数组本身，供GameBoard整块读写状态
+     */
+    byte[] getCells() {
+        return cells;
+    }
+
+    @Override
+    public int getType(int cell) {
+        return cells[cell];
+    }
+
+    @Override
+    public void setType(int cell, int type) {
+        cells[cell] = (byte) type;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(cells, (byte) 0);
+    }
+
+    @Override
+    public int getRemaining() {
+        return remaining;
+    }
+
+    @Override
+    public void setRemaining(int remaining) {
+        this.remaining = remaining;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    @Override
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public int getShuffleCount() {
+        return shuffleCount;
+    }
+
+    @Override
+    public void setShuffleCount(int shuffleCount) {
+        this.shuffleCount = shuffleCount;
+    }
+}
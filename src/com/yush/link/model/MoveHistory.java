@@ -0,0 +1,95 @@
+package com.yush.link.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 撤销/重做历史：每一步压缩为一个long
+ *
+ * 消除一对：[类型 PAIR u8][保留 u8][第二个方块类型 u8][第一个方块类型 u8][第二个格子 u16][第一个格子 u16]，
+ * 格子为消除前的编号（row * actualCols + col）；
+ * 洗牌：[类型 SHUFFLE u8][保留 u24][洗牌前的类型表在shuffles中的下标 u32]，
+ * 类型表按可放置格子的顺序记录洗牌前各方块的类型（洗牌不改变哪些格子有方块）。
+ *
+ * entries[0, size) 可撤销，entries[size, limit) 可重做；记录新的一步时丢弃可重做的部分。
+ */
+final class MoveHistory {
+    static final int PAIR = 1;
+    static final int SHUFFLE = 2;
+
+    private long[] entries = new long[64];
+    private int size;
+    private int limit;
+    private final List<byte[]> shuffles = new ArrayList<>();
+
+    static long pair(int firstCell, int secondCell, int firstType, int secondType) {
+        return (long) PAIR << 56 | (long) (secondType & 0xFF) << 40 | (long) (firstType & 0xFF) << 32
+                | (long) (secondCell & 0xFFFF) << 16 | (firstCell & 0xFFFF);
+    }
+
+    static int kind(long entry) { return (int) (entry >>> 56); }
+    static int firstCell(long entry) { return (int) (entry & 0xFFFF); }
+    static int secondCell(long entry) { return (int) (entry >>> 16 & 0xFFFF); }
+    static int firstType(long entry) { return (int) (entry >>> 32 & 0xFF); }
+    static int secondType(long entry) { return (int) (entry >>> 40 & 0xFF); }
+
+    void recordPair(int firstCell, int secondCell, int firstType, int secondType) {
+        discardRedo();
+        push(pair(firstCell, secondCell, firstType, secondType));
+    }
+
+    void recordShuffle(byte[] typesBefore) {
+        discardRedo();
+        push((long) SHUFFLE << 56 | shuffles.size());
+        shuffles.add(typesBefore);
+    }
+
+    /**
+     * 丢弃可重做的步骤（以及它们引用的洗牌类型表）
+     */
+    private void discardRedo() {
+        for (int i = size; i < limit; i++) {
+            if (kind(entries[i]) == SHUFFLE) {
+                shuffles.subList((int) entries[i], shuffles.size()).clear();
+                break;
+            }
+        }
+        limit = size;
+    }
+
+    private void push(long entry) {
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+        entries[size++] = entry;
+        limit = size;
+    }
+
+    boolean canUndo() { return size > 0; }
+    boolean canRedo() { return size < limit; }
+
+    /**
+     * 退回一步，返回被撤销的记录
+     */
+    long undo() {
+        return entries[--size];
+    }
+
+    /**
+     * 前进一步，返回要重做的记录
+     */
+    long redo() {
+        return entries[size++];
+    }
+
+    byte[] shuffleTypes(long entry) {
+        return shuffles.get((int) entry);
+    }
+
+    void clear() {
+        size = 0;
+        limit = 0;
+        shuffles.clear();
+    }
+}
@@ -0,0 +1,48 @@
+package com.yush.link.model;
+
+/**
+ * 未完成对局的存档内容（棋盘为存档时的副本）
+ *
+ * 洗牌由种子和洗牌次数决定，棋盘状态中已包含这两项，无需另存随机数状态。
+ */
+public class SavedGame {
+    private final GameBoard board;
+    private final Difficulty difficulty;    // 目标难度，null表示不筛选
+    private final long elapsedMillis;       // 计时器已计的时间
+    private final int moves;                // 尝试配对次数
+    private final int hintsUsed;            // 使用提示次数
+    private final boolean autoPlayed;       // 是否使用过自动演示
+    private final Position selected;        // 选中的格子，没有时为null
+    private final String moveLogName;       // 走法日志的文件名，没有时为空字符串
+    private final int moveLogRecords;       // 存档时日志中的记录数
+
+    public SavedGame(GameBoard board, Difficulty difficulty, long elapsedMillis, int moves, int hintsUsed,
+                     boolean autoPlayed, Position selected, String moveLogName, int moveLogRecords) {
+        this.board = board;
+        this.difficulty = difficulty;
+        this.elapsedMillis = elapsedMillis;
+        this.moves = moves;
+        this.hintsUsed = hintsUsed;
+        this.autoPlayed = autoPlayed;
+        this.selected = selected;
+        this.moveLogName = moveLogName;
+        this.moveLogRecords = moveLogRecords;
+    }
+
+    public GameBoard getBoard() { return board; }
+    public Difficulty getDifficulty() { return difficulty; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public int getMoves() { return moves; }
+    public int getHintsUsed() { return hintsUsed; }
+    public boolean isAutoPlayed() { return autoPlayed; }
+    public Position getSelected() { return selected; }
+    public String getMoveLogName() { return moveLogName; }
+    public int getMoveLogRecords() { return moveLogRecords; }
+
+    @Override
+    public String toString() {
+        return String.format("SavedGame{%s, seed=%x, remaining=%d, time=%dms, moves=%d, hints=%d}",
+                board.getLayout().getName(), board.getSeed(), board.getRemainingTiles(), elapsedMillis, moves,
+                hintsUsed);
+    }
+}
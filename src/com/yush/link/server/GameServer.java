@@ -0,0 +1,337 @@
+package com.yush.link.server;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 对战服务器：接收线程接受连接后轮流分配给若干反应器线程，
+ * 每个反应器用一个非阻塞Selector处理其名下所有会话的读写和走法验证。
+ * 观众的数据按固定的广播周期批量写出，一局的数据流由所有观众共享。
+ *
+ * 用法：java com.yush.link.server.GameServer [端口] [反应器线程数]
+ */
+public class GameServer {
+    public static final int DEFAULT_PORT = 7420;
+    private static final int ACCEPT_BACKLOG = 4096;
+    // 观战数据的广播周期
+    private static final long BROADCAST_INTERVAL_MS = 50;
+
+    private final int port;
+    private final Reactor[] reactors;
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final AtomicInteger nextGameId = new AtomicInteger();
+    private final Map<Integer, SpectatorFeed> feeds = new ConcurrentHashMap<>();
+    private ServerSocketChannel serverChannel;
+    private Thread acceptor;
+    private volatile boolean running;
+
+    public GameServer(int port, int reactorCount) {
+        this.port = port;
+        this.reactors = new Reactor[Math.max(1, reactorCount)];
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int reactorCount = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        GameServer server = new GameServer(port, reactorCount);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "game-server-shutdown"));
+        System.out.printf("Game server listening on port %d with %d reactor(s)%n", server.getPort(), reactorCount);
+
+        // 每10秒输出一次统计
+        while (true) {
+            Thread.sleep(10_000);
+            System.out.printf("sessions=%d moves=%d validation %s%n",
+                    server.getActiveSessions(), server.getMoveCount(), server.getValidationHistogram());
+        }
+    }
+
+    /**
+     * 绑定端口并启动接收线程和反应器线程（端口为0时由系统分配）
+     */
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        serverChannel.bind(new InetSocketAddress(port), ACCEPT_BACKLOG);
+        running = true;
+
+        for (int i = 0; i < reactors.length; i++) {
+            reactors[i] = new Reactor(i);
+            reactors[i].thread.start();
+        }
+        acceptor = new Thread(this::acceptLoop, "game-server-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            serverChannel.close();
+        } catch (IOException ignored) {
+            // 正在关闭
+        }
+        for (Reactor reactor : reactors) {
+            reactor.selector.wakeup();
+        }
+        for (Reactor reactor : reactors) {
+            try {
+                reactor.thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 实际监听的端口
+     */
+    public int getPort() {
+        return serverChannel != null ? serverChannel.socket().getLocalPort() : port;
+    }
+
+    public int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    public int getReactorCount() {
+        return reactors.length;
+    }
+
+    /**
+     * 已验证的走法总数
+     */
+    public long getMoveCount() {
+        long moves = 0;
+        for (Reactor reactor : reactors) {
+            if (reactor != null) {
+                synchronized (reactor.histogram) {
+                    moves += reactor.histogram.getCount();
+                }
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * 所有反应器的走法验证耗时（合并后的副本）
+     */
+    public LatencyHistogram getValidationHistogram() {
+        LatencyHistogram merged = new LatencyHistogram();
+        for (Reactor reactor : reactors) {
+            if (reactor != null) {
+                synchronized (reactor.histogram) {
+                    merged.add(reactor.histogram);
+                }
+            }
+        }
+        return merged;
+    }
+
+    public void resetStatistics() {
+        for (Reactor reactor : reactors) {
+            if (reactor != null) {
+                synchronized (reactor.histogram) {
+                    reactor.histogram.reset();
+                }
+            }
+        }
+    }
+
+    /**
+     * 服务器线程（接收线程和反应器）累计占用的CPU时间，不支持时返回-1
+     */
+    public long getCpuNanos() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadCpuTimeSupported()) {
+            return -1;
+        }
+        long total = acceptor != null ? Math.max(0, threads.getThreadCpuTime(acceptor.threadId())) : 0;
+        for (Reactor reactor : reactors) {
+            if (reactor != null) {
+                total += Math.max(0, threads.getThreadCpuTime(reactor.thread.threadId()));
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 为新连接分配对局编号和观战数据流
+     */
+    SpectatorFeed createFeed() {
+        SpectatorFeed feed = new SpectatorFeed(nextGameId.incrementAndGet());
+        feeds.put(feed.getGameId(), feed);
+        return feed;
+    }
+
+    SpectatorFeed findFeed(int gameId) {
+        return feeds.get(gameId);
+    }
+
+    void removeFeed(SpectatorFeed feed) {
+        feeds.remove(feed.getGameId(), feed);
+    }
+
+    private void acceptLoop() {
+        int next = 0;
+        while (running) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                reactors[next].assign(channel);
+                next = (next + 1) % reactors.length;
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("接受连接失败: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 反应器：一个线程、一个Selector，负责一组会话
+     */
+    class Reactor {
+        final Thread thread;
+        final Selector selector;
+        final LatencyHistogram histogram = new LatencyHistogram();
+        private final Queue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+        private final Set<GameSession> sessions = new LinkedHashSet<>();
+        private long nextBroadcast;
+
+        Reactor(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this::run, "game-server-reactor-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        /**
+         * 由接收线程调用：把新连接交给反应器线程注册
+         */
+        void assign(SocketChannel channel) {
+            pending.add(channel);
+            selector.wakeup();
+        }
+
+        GameServer getServer() {
+            return GameServer.this;
+        }
+
+        void recordMove(long nanos) {
+            synchronized (histogram) {
+                histogram.record(nanos);
+            }
+        }
+
+        private void run() {
+            try {
+                nextBroadcast = System.currentTimeMillis() + BROADCAST_INTERVAL_MS;
+                while (running) {
+                    selector.select(Math.max(1, nextBroadcast - System.currentTimeMillis()));
+                    registerPending();
+
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        GameSession session = (GameSession) key.attachment();
+                        try {
+                            if (key.isReadable()) {
+                                session.onReadable();
+                            } else if (key.isWritable()) {
+                                session.onWritable();
+                            }
+                        } catch (IOException | RuntimeException e) {
+                            // 连接断开或协议错误，只关闭该会话
+                            closeSession(session);
+                        }
+                    }
+
+                    if (System.currentTimeMillis() >= nextBroadcast) {
+                        broadcast();
+                        nextBroadcast = System.currentTimeMillis() + BROADCAST_INTERVAL_MS;
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("反应器异常退出: " + e.getMessage());
+            } finally {
+                for (GameSession session : sessions) {
+                    session.close();
+                }
+                try {
+                    selector.close();
+                } catch (IOException ignored) {
+                    // 正在关闭
+                }
+            }
+        }
+
+        /**
+         * 选手发布计时，观众写出积累的数据
+         */
+        private void broadcast() {
+            long now = System.nanoTime();
+            for (Iterator<GameSession> iterator = sessions.iterator(); iterator.hasNext(); ) {
+                GameSession session = iterator.next();
+                try {
+                    session.onBroadcast(now);
+                } catch (IOException | RuntimeException e) {
+                    iterator.remove();
+                    session.close();
+                    activeSessions.decrementAndGet();
+                }
+            }
+        }
+
+        private void closeSession(GameSession session) {
+            if (sessions.remove(session)) {
+                session.close();
+                activeSessions.decrementAndGet();
+            }
+        }
+
+        private void registerPending() {
+            SocketChannel channel;
+            while ((channel = pending.poll()) != null) {
+                try {
+                    SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                    GameSession session = new GameSession(channel, key, this);
+                    key.attach(session);
+                    sessions.add(session);
+                    activeSessions.incrementAndGet();
+                } catch (IOException e) {
+                    try {
+                        channel.close();
+                    } catch (IOException ignored) {
+                        // 连接已关闭
+                    }
+                }
+            }
+        }
+    }
+}
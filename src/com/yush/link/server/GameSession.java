@@ -0,0 +1,284 @@
+package com.yush.link.server;
+
+import com.yush.link.controller.PathFinder;
+import com.yush.link.model.BoardLayout;
+import com.yush.link.model.GameBoard;
+import com.yush.link.model.GravityMode;
+import com.yush.link.model.Position;
+import com.yush.link.model.Tile;
+import com.yush.link.utils.GameConstants;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/**
+ * 一个客户端连接对应的对局，只在所属的反应器线程中访问
+ *
+ * 服务器持有权威的棋盘：客户端提交的每一步都用PathFinder验证后才在服务器棋盘上执行。
+ * 每个对局有一个观战数据流；发送SPECTATE的连接改为观众，按反应器的广播周期接收另一局的数据。
+ */
+class GameSession {
+    private static final int READ_BUFFER_BYTES = 1024;
+    private static final int WRITE_BUFFER_BYTES = 4096;
+    // 观众的写缓冲区至少能放下一个最大的快照，超出部分不排队（读得慢的观众改为重新同步）
+    private static final int SPECTATOR_BUFFER_BYTES = 64 * 1024;
+
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final GameServer.Reactor reactor;
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+    private ByteBuffer writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES);
+
+    // 每个会话独立的路径查找器（路径缓存按棋盘版本失效，不能在棋盘之间共享）
+    private final PathFinder pathFinder = new PathFinder();
+    private GameBoard board;
+    private int expectedSeq;
+
+    private SpectatorFeed feed;                       // 本局的观战数据流（观众为null）
+    private SpectatorFeed.Subscription subscription;  // 观看的对局（选手为null）
+    private long gameStartNanos;
+    private int lastTick;
+
+    GameSession(SocketChannel channel, SelectionKey key, GameServer.Reactor reactor) {
+        this.channel = channel;
+        this.key = key;
+        this.reactor = reactor;
+        this.feed = reactor.getServer().createFeed();
+    }
+
+    /**
+     * 读取并处理所有完整的帧
+     */
+    void onReadable() throws IOException {
+        int read = channel.read(readBuffer);
+        if (read < 0) {
+            throw new IOException("Connection closed by client");
+        }
+
+        processFrames();
+    }
+
+    void onWritable() throws IOException {
+        if (subscription != null) {
+            // 观众：写完后继续取数据
+            drainFeed();
+            return;
+        }
+        // 缓冲区腾出空间后继续处理已收到的帧
+        processFrames();
+    }
+
+    /**
+     * 处理读缓冲区中所有完整的帧并写出回复
+     *
+     * 写缓冲区放不下下一个回复时先写出；全部写出后继续处理剩余的帧（客户端可能已发完请求只等回复，
+     * 不会再有可读事件），写不完时等可写事件再继续。
+     */
+    private void processFrames() throws IOException {
+        readBuffer.flip();
+        boolean pending = false;
+        while (Protocol.hasFrame(readBuffer)) {
+            if (writeBuffer.remaining() < Protocol.HEADER_BYTES + Protocol.MAX_FRAME_BYTES) {
+                pending = flush();
+                if (pending) {
+                    break;
+                }
+                continue;
+            }
+            int length = readBuffer.getShort() & 0xFFFF;
+            int end = readBuffer.position() + length;
+            if (length == 0 || length > Protocol.MAX_FRAME_BYTES) {
+                throw new IOException("Invalid frame length " + length);
+            }
+            handleFrame(readBuffer.get());
+            readBuffer.position(end);
+        }
+        readBuffer.compact();
+
+        if (!pending) {
+            flush();
+        }
+    }
+
+    /**
+     * 反应器的广播周期：选手发布计时，观众取出新的数据
+     */
+    void onBroadcast(long now) throws IOException {
+        if (subscription != null) {
+            drainFeed();
+        } else if (board != null && feed.getSubscriberCount() > 0) {
+            int seconds = (int) ((now - gameStartNanos) / 1_000_000_000L);
+            if (seconds != lastTick) {
+                lastTick = seconds;
+                feed.tick(seconds);
+            }
+        }
+    }
+
+    private void handleFrame(byte type) throws IOException {
+        if (subscription != null) {
+            throw new IOException("Spectators cannot send frames");
+        }
+        long start = System.nanoTime();
+        switch (type) {
+            case Protocol.NEW_GAME:
+                startGame();
+                break;
+            case Protocol.MOVE: {
+                int seq = readBuffer.getInt();
+                byte status = applyMove(seq, readBuffer.get() & 0xFF, readBuffer.get() & 0xFF,
+                        readBuffer.get() & 0xFF, readBuffer.get() & 0xFF);
+                Protocol.writeMoveResult(writeBuffer, seq, status, board == null ? 0 : board.getRemainingTiles());
+                reactor.recordMove(System.nanoTime() - start);
+                break;
+            }
+            case Protocol.SHUFFLE: {
+                int seq = readBuffer.getInt();
+                byte status = applyShuffle(seq);
+                Protocol.writeMoveResult(writeBuffer, seq, status, board == null ? 0 : board.getRemainingTiles());
+                reactor.recordMove(System.nanoTime() - start);
+                break;
+            }
+            case Protocol.SPECTATE:
+                spectate(readBuffer.getInt());
+                break;
+            default:
+                throw new IOException("Unknown frame type " + type);
+        }
+    }
+
+    private void startGame() throws IOException {
+        int rows = readBuffer.get() & 0xFF;
+        int cols = readBuffer.get() & 0xFF;
+        int tileTypes = readBuffer.get() & 0xFF;
+        int gravity = readBuffer.get() & 0xFF;
+        long seed = readBuffer.getLong();
+        if (rows < GameConstants.MIN_BOARD_SIZE || rows > GameConstants.MAX_BOARD_SIZE ||
+                cols < GameConstants.MIN_BOARD_SIZE || cols > GameConstants.MAX_BOARD_SIZE ||
+                tileTypes < 1 || tileTypes > GameConstants.TILE_TYPE_COUNT ||
+                gravity >= GravityMode.values().length) {
+            throw new IOException("Invalid game parameters");
+        }
+
+        board = new GameBoard(BoardLayout.rectangle(rows, cols), tileTypes);
+        board.setGravityMode(GravityMode.values()[gravity]);
+        board.initializeBoard(seed);
+        expectedSeq = 1;
+        gameStartNanos = System.nanoTime();
+        lastTick = 0;
+        feed.startGame(board);
+        Protocol.writeGameStarted(writeBuffer, feed.getGameId(), seed, board.getRemainingTiles());
+    }
+
+    /**
+     * 此连接改为观看指定对局（选手的对局和数据流随之结束）
+     */
+    private void spectate(int gameId) throws IOException {
+        SpectatorFeed target = reactor.getServer().findFeed(gameId);
+        if (target == null || target == feed) {
+            throw new IOException("Unknown game " + gameId);
+        }
+        reactor.getServer().removeFeed(feed);
+        feed.close();
+        feed = null;
+        board = null;
+        subscription = target.subscribe();
+        writeBuffer = ByteBuffer.allocate(Math.max(SPECTATOR_BUFFER_BYTES,
+                Protocol.HEADER_BYTES + Protocol.MAX_SPECTATOR_FRAME_BYTES));
+    }
+
+    /**
+     * 验证并执行一步，返回状态
+     */
+    private byte applyMove(int seq, int row1, int col1, int row2, int col2) {
+        if (board == null) {
+            return Protocol.NO_GAME;
+        }
+        if (seq != expectedSeq) {
+            return Protocol.OUT_OF_SEQUENCE;
+        }
+        expectedSeq++;
+
+        Tile first = board.getTile(row1, col1);
+        Tile second = board.getTile(row2, col2);
+        if (first == null || second == null || !first.isActive() || !second.isActive() ||
+                first.getType() != second.getType()) {
+            return Protocol.MISMATCH;
+        }
+        Position start = new Position(row1, col1);
+        Position end = new Position(row2, col2);
+        if (pathFinder.findPath(board, start, end) == null) {
+            return Protocol.NO_PATH;
+        }
+
+        board.removePair(start, end);
+        feed.pairRemoved(start, end);
+        if (board.isGameComplete()) {
+            return Protocol.COMPLETE;
+        }
+        return pathFinder.findAnyMove(board) == null ? Protocol.STUCK : Protocol.OK;
+    }
+
+    /**
+     * 洗牌（由种子和洗牌次数决定，客户端可以重现），返回洗牌后是否有步可走
+     */
+    private byte applyShuffle(int seq) {
+        if (board == null) {
+            return Protocol.NO_GAME;
+        }
+        if (seq != expectedSeq) {
+            return Protocol.OUT_OF_SEQUENCE;
+        }
+        expectedSeq++;
+
+        board.shuffleBoard();
+        feed.shuffled();
+        return pathFinder.findAnyMove(board) == null ? Protocol.STUCK : Protocol.OK;
+    }
+
+    /**
+     * 观众：把新的数据放入写缓冲区并写出；观看的对局结束且数据已写完时关闭连接
+     */
+    private void drainFeed() throws IOException {
+        int frames = subscription.drain(writeBuffer);
+        if (frames < 0 && writeBuffer.position() == 0) {
+            throw new IOException("Spectated game closed");
+        }
+        flush();
+    }
+
+    /**
+     * 尽量写出缓冲区，写不完时关注可写事件
+     * @return 是否还有未写出的数据
+     */
+    private boolean flush() throws IOException {
+        writeBuffer.flip();
+        if (writeBuffer.hasRemaining()) {
+            channel.write(writeBuffer);
+        }
+        boolean pending = writeBuffer.hasRemaining();
+        writeBuffer.compact();
+        key.interestOps(pending ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        return pending;
+    }
+
+    void close() {
+        if (feed != null) {
+            reactor.getServer().removeFeed(feed);
+            feed.close();
+            feed = null;
+        }
+        if (subscription != null) {
+            subscription.cancel();
+            subscription = null;
+        }
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // 连接已关闭
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package com.yush.link.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.yush.link.controller.BoardSupply;
+import com.yush.link.controller.PathFinder;
+import com.yush.link.model.BoardLayout;
+import com.yush.link.model.Difficulty;
+import com.yush.link.model.GameBoard;
+import com.yush.link.model.GravityMode;
+import com.yush.link.model.Position;
+import com.yush.link.utils.GameConstants;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无界面的HTTP/JSON接口，供工具和压测驱动游戏
+ *
+ *   POST   /games?mode=easy|normal|hard&rows=&cols=&types=&gravity=&seed=十六进制   创建棋盘
+ *   GET    /games/{id}                       棋盘状态（cells=false时不含格子）
+ *   POST   /games/{id}/select?row=&col=      点击格子，第二次点击时尝试消除
+ *   POST   /games/{id}/match?r1=&c1=&r2=&c2= 直接尝试消除一对
+ *   GET    /games/{id}/hint                  一组可消除的方块
+ *   POST   /games/{id}/shuffle               洗牌
+ *   DELETE /games/{id}                       结束对局
+ *
+ * 指定种子时直接按种子生成棋盘（可重现），否则从BoardSupply取出按难度筛选过的棋盘。
+ * 每个请求在一个虚拟线程上处理。超过10分钟没有请求的对局被移除（之后的请求返回404）。
+ *
+ * 用法：java com.yush.link.server.HttpGameServer [端口]
+ */
+public class HttpGameServer {
+    public static final int DEFAULT_PORT = 7421;
+    private static final int ACCEPT_BACKLOG = 1024;
+    private static final long IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final long SWEEP_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    static {
+        // 响应头和响应体分两次写出，不关闭Nagle算法时与客户端的延迟确认叠加，每个请求多等约40ms
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService sweeper;
+    private final Map<Long, Game> games = new ConcurrentHashMap<>();
+    private final AtomicLong nextGameId = new AtomicLong();
+
+    /**
+     * 一局游戏，所有操作在对象锁内进行
+     */
+    private static class Game {
+        final long id;
+        final GameBoard board;
+        final PathFinder pathFinder = new PathFinder();
+        Position selected;
+        int moves;
+        int hints;
+        volatile long lastAccessMillis = System.currentTimeMillis();
+
+        Game(long id, GameBoard board) {
+            this.id = id;
+            this.board = board;
+        }
+    }
+
+    /**
+     * 请求参数错误（返回400）
+     */
+    private static class BadRequestException extends Exception {
+        BadRequestException(String message) {
+            super(message);
+        }
+    }
+
+    public HttpGameServer(int port) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(port), ACCEPT_BACKLOG);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/games", this::handle);
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "http-game-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        HttpGameServer server = new HttpGameServer(port);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "http-game-shutdown"));
+        System.out.printf("HTTP game API listening on port %d (virtual threads)%n", server.getPort());
+    }
+
+    public void start() {
+        server.start();
+        sweeper.scheduleWithFixedDelay(() -> removeIdleGames(System.currentTimeMillis() - IDLE_TIMEOUT_MILLIS),
+                SWEEP_INTERVAL_MILLIS, SWEEP_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        sweeper.shutdownNow();
+        server.stop(0);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public int getGameCount() {
+        return games.size();
+    }
+
+    /**
+     * 移除最后一次请求早于指定时间的对局（客户端没有DELETE就离开时，对局不会一直占用内存）
+     */
+    int removeIdleGames(long cutoffMillis) {
+        int removed = 0;
+        for (Game game : games.values()) {
+            if (game.lastAccessMillis < cutoffMillis && games.remove(game.id, game)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String[] segments = exchange.getRequestURI().getPath().split("/");
+            // segments: "", "games", [id], [action]；上下文按前缀匹配，/gamesX 之类的路径也会进来
+            if (segments.length < 2 || !"games".equals(segments[1]) || segments.length > 4) {
+                respond(exchange, 404, error("Unknown path " + exchange.getRequestURI().getPath()));
+                return;
+            }
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            String method = exchange.getRequestMethod();
+
+            if (segments.length == 2) {
+                if (!"POST".equals(method)) {
+                    respond(exchange, 405, error("Use POST to create a game"));
+                    return;
+                }
+                Game game = createGame(query);
+                respond(exchange, 201, state(new JsonWriter().beginObject(), game, true).endObject().toString());
+                return;
+            }
+
+            Game game = games.get(parseLong(segments[2], "game id"));
+            if (game == null) {
+                respond(exchange, 404, error("Unknown game " + segments[2]));
+                return;
+            }
+            game.lastAccessMillis = System.currentTimeMillis();
+            String action = segments.length > 3 ? segments[3] : "";
+            String body;
+            synchronized (game) {
+                body = dispatch(method, action, game, query);
+            }
+            if (body == null) {
+                respond(exchange, 405, error("Unsupported " + method + " " + exchange.getRequestURI().getPath()));
+            } else {
+                respond(exchange, 200, body);
+            }
+        } catch (BadRequestException e) {
+            respond(exchange, 400, error(e.getMessage()));
+        } catch (RuntimeException e) {
+            respond(exchange, 500, error(e.toString()));
+        }
+    }
+
+    /**
+     * 执行对局上的操作，返回响应内容；不支持的请求返回null
+     */
+    private String dispatch(String method, String action, Game game, Map<String, String> query)
+            throws BadRequestException {
+        JsonWriter json = new JsonWriter().beginObject();
+        switch (method + " " + action) {
+            case "GET ":
+                state(json, game, !"false".equals(query.get("cells")));
+                break;
+            case "DELETE ":
+                games.remove(game.id);
+                json.name("deleted").value(true);
+                break;
+            case "POST select":
+                select(json, game, parseInt(query, "row"), parseInt(query, "col"));
+                break;
+            case "POST match":
+                game.selected = null;
+                match(json, game, new Position(parseInt(query, "r1"), parseInt(query, "c1")),
+                        new Position(parseInt(query, "r2"), parseInt(query, "c2")));
+                break;
+            case "GET hint":
+                hint(json, game);
+                break;
+            case "POST shuffle":
+                game.selected = null;
+                game.board.shuffleBoard();
+                state(json, game, true);
+                break;
+            default:
+                return null;
+        }
+        return json.endObject().toString();
+    }
+
+    private Game createGame(Map<String, String> query) throws BadRequestException {
+        Difficulty difficulty = parseEnum(Difficulty.class, query.getOrDefault("mode", "normal"), "mode");
+        // 默认尺寸和种类数取同难度的内置模式
+        GameConstants.GameMode mode = GameConstants.GAME_MODES[0];
+        for (GameConstants.GameMode candidate : GameConstants.GAME_MODES) {
+            if (candidate.getDifficulty() == difficulty) {
+                mode = candidate;
+                break;
+            }
+        }
+        int rows = query.containsKey("rows") ? parseInt(query, "rows") : mode.getRows();
+        int cols = query.containsKey("cols") ? parseInt(query, "cols") : mode.getCols();
+        int tileTypes = query.containsKey("types") ? parseInt(query, "types") : mode.getTileTypes();
+        GravityMode gravity = parseEnum(GravityMode.class, query.getOrDefault("gravity", "none"), "gravity");
+        if (rows < GameConstants.MIN_BOARD_SIZE || rows > GameConstants.MAX_BOARD_SIZE ||
+                cols < GameConstants.MIN_BOARD_SIZE || cols > GameConstants.MAX_BOARD_SIZE) {
+            throw new BadRequestException("Board size must be between " + GameConstants.MIN_BOARD_SIZE +
+                    " and " + GameConstants.MAX_BOARD_SIZE);
+        }
+        if (tileTypes < 1 || tileTypes > GameConstants.TILE_TYPE_COUNT) {
+            throw new BadRequestException("types must be between 1 and " + GameConstants.TILE_TYPE_COUNT);
+        }
+
+        BoardLayout layout = BoardLayout.rectangle(rows, cols);
+        GameBoard board;
+        if (query.containsKey("seed")) {
+            board = new GameBoard(layout, tileTypes);
+            board.setGravityMode(gravity);
+            try {
+                board.initializeBoard(Long.parseUnsignedLong(query.get("seed"), 16));
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("seed must be hexadecimal");
+            }
+        } else {
+            board = BoardSupply.getInstance().take(layout, tileTypes, gravity, difficulty);
+        }
+
+        Game game = new Game(nextGameId.incrementAndGet(), board);
+        games.put(game.id, game);
+        return game;
+    }
+
+    /**
+     * 与界面点击相同：点击空格忽略，再次点击已选中的格子取消选中，第二个格子尝试消除
+     */
+    private void select(JsonWriter json, Game game, int row, int col) {
+        if (game.board.getTileType(row, col) == 0) {
+            json.name("ignored").value(true);
+        } else if (game.selected == null) {
+            game.selected = new Position(row, col);
+        } else if (game.selected.equals(new Position(row, col))) {
+            game.selected = null;
+        } else {
+            Position first = game.selected;
+            game.selected = null;
+            match(json, game, first, new Position(row, col));
+            return;
+        }
+        json.name("selected");
+        if (game.selected == null) {
+            json.nullValue();
+        } else {
+            json.cell(game.selected.getRow(), game.selected.getCol());
+        }
+    }
+
+    private void match(JsonWriter json, Game game, Position first, Position second) {
+        game.moves++;
+        GameBoard board = game.board;
+        int type = board.getTileType(first.getRow(), first.getCol());
+        List<Position> path = type != 0 && type == board.getTileType(second.getRow(), second.getCol())
+                ? game.pathFinder.findPath(board, first, second) : null;
+        json.name("matched").value(path != null);
+        if (path != null) {
+            json.name("path").beginArray();
+            for (Position position : path) {
+                json.cell(position.getRow(), position.getCol());
+            }
+            json.endArray();
+
+            // 内容变化的格子 [row, col, type]
+            json.name("changed").beginArray();
+            for (Position cell : board.removePair(first, second)) {
+                json.beginArray().value(cell.getRow()).value(cell.getCol())
+                        .value(board.getTileType(cell.getRow(), cell.getCol())).endArray();
+            }
+            json.endArray();
+        }
+        json.name("remaining").value(board.getRemainingTiles());
+        json.name("complete").value(board.isGameComplete());
+        json.name("stuck").value(!board.isGameComplete() && game.pathFinder.findAnyMove(board) == null);
+    }
+
+    private void hint(JsonWriter json, Game game) {
+        game.hints++;
+        Position[] move = game.pathFinder.findAnyMove(game.board);
+        json.name("move");
+        if (move == null) {
+            json.nullValue();
+        } else {
+            json.beginArray().cell(move[0].getRow(), move[0].getCol())
+                    .cell(move[1].getRow(), move[1].getCol()).endArray();
+        }
+    }
+
+    private JsonWriter state(JsonWriter json, Game game, boolean includeCells) {
+        GameBoard board = game.board;
+        json.name("id").value(game.id);
+        json.name("rows").value(board.getRows());
+        json.name("cols").value(board.getCols());
+        json.name("tileTypes").value(board.getTileTypes());
+        json.name("gravity").value(board.getGravityMode().getDisplayName());
+        json.name("seed").value(Long.toHexString(board.getSeed()));
+        json.name("shuffles").value(board.getShuffleCount());
+        json.name("remaining").value(board.getRemainingTiles());
+        json.name("moves").value(game.moves);
+        json.name("hints").value(game.hints);
+        json.name("complete").value(board.isGameComplete());
+        json.name("stuck").value(!board.isGameComplete() && game.pathFinder.findAnyMove(board) == null);
+        if (includeCells) {
+            // 行优先，0为空格，-1为障碍格
+            json.name("cells").beginArray();
+            for (int row = 1; row <= board.getRows(); row++) {
+                json.beginArray();
+                for (int col = 1; col <= board.getCols(); col++) {
+                    json.value(board.isBlocked(row, col) ? -1 : board.getTileType(row, col));
+                }
+                json.endArray();
+            }
+            json.endArray();
+        }
+        return json;
+    }
+
+    private static String error(String message) {
+        return new JsonWriter().beginObject().name("error").value(message).endObject().toString();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            query.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static int parseInt(Map<String, String> query, String name) throws BadRequestException {
+        String value = query.get(name);
+        if (value == null) {
+            throw new BadRequestException("Missing parameter " + name);
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException(name + " must be an integer");
+        }
+    }
+
+    private static long parseLong(String value, String name) throws BadRequestException {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException(name + " must be an integer");
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String name)
+            throws BadRequestException {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unknown " + name + " " + value);
+        }
+    }
+}
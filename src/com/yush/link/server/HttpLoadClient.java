@@ -0,0 +1,209 @@
+package com.yush.link.server;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * HTTP接口的本机压测：若干并发的客户端各自反复开局、请求提示并按提示消除，直到清空棋盘，
+ * 输出每秒请求数和各接口延迟的分位数
+ *
+ * 不指定地址时在同一进程中启动HttpGameServer。
+ *
+ * 用法：java com.yush.link.server.HttpLoadClient [并发数] [秒数] [行数] [列数] [图片种类] [地址]
+ * 默认：32 10 8 8 18（例如地址 http://localhost:7421）
+ */
+public class HttpLoadClient {
+    private static final long ROOT_SEED = 0x477;
+    private static final double WARMUP_FRACTION = 0.2;
+    // 连续洗牌超过此次数仍无步可走时放弃该局
+    private static final int MAX_SHUFFLES = 20;
+
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+    private static final Pattern MOVE = Pattern.compile("\"move\":\\[\\[(\\d+),(\\d+)],\\[(\\d+),(\\d+)]]");
+
+    private enum Endpoint { CREATE, HINT, MATCH, SHUFFLE, DELETE }
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final int rows;
+    private final int cols;
+    private final int tileTypes;
+    private volatile boolean running = true;
+    private volatile boolean measuring = false;
+
+    private HttpLoadClient(HttpClient client, String baseUrl, int rows, int cols, int tileTypes) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.rows = rows;
+        this.cols = cols;
+        this.tileTypes = tileTypes;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int workers = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int rows = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        int cols = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+        int tileTypes = args.length > 4 ? Integer.parseInt(args[4]) : 18;
+
+        HttpGameServer server = null;
+        String baseUrl;
+        if (args.length > 5) {
+            baseUrl = args[5];
+        } else {
+            server = new HttpGameServer(0);
+            server.start();
+            baseUrl = "http://127.0.0.1:" + server.getPort();
+        }
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpLoadClient load = new HttpLoadClient(client, baseUrl, rows, cols, tileTypes);
+        System.out.printf("Driving %s with %d concurrent clients (virtual threads), %dx%d/%d%n",
+                baseUrl, workers, rows, cols, tileTypes);
+
+        SplittableRandom seeds = new SplittableRandom(ROOT_SEED);
+        Worker[] running = new Worker[workers];
+        for (int i = 0; i < workers; i++) {
+            running[i] = load.new Worker(seeds.split());
+            executor.execute(running[i]);
+        }
+
+        long totalMillis = seconds * 1000L;
+        Thread.sleep((long) (totalMillis * WARMUP_FRACTION));
+        load.measuring = true;
+        long start = System.nanoTime();
+        Thread.sleep((long) (totalMillis * (1 - WARMUP_FRACTION)));
+        load.measuring = false;
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        load.running = false;
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        LatencyHistogram[] merged = new LatencyHistogram[Endpoint.values().length];
+        LatencyHistogram all = new LatencyHistogram();
+        long errors = 0;
+        long games = 0;
+        for (int i = 0; i < merged.length; i++) {
+            merged[i] = new LatencyHistogram();
+        }
+        for (Worker worker : running) {
+            for (int i = 0; i < merged.length; i++) {
+                merged[i].add(worker.latencies[i]);
+                all.add(worker.latencies[i]);
+            }
+            errors += worker.errors;
+            games += worker.games;
+        }
+
+        System.out.printf("  %.0f requests/s, %d games cleared, %d errors%n",
+                all.getCount() / elapsedSeconds, games, errors);
+        System.out.printf("  all      %s%n", all);
+        for (Endpoint endpoint : Endpoint.values()) {
+            if (merged[endpoint.ordinal()].getCount() > 0) {
+                System.out.printf("  %-8s %s%n", endpoint.name().toLowerCase(), merged[endpoint.ordinal()]);
+            }
+        }
+
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    /**
+     * 一个并发客户端：开局，循环请求提示并消除，清空后删除对局再开新局
+     */
+    private class Worker implements Runnable {
+        final LatencyHistogram[] latencies = new LatencyHistogram[Endpoint.values().length];
+        final SplittableRandom random;
+        long errors;
+        long games;
+
+        Worker(SplittableRandom random) {
+            this.random = random;
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i] = new LatencyHistogram();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    playGame();
+                }
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("压测请求失败: " + e.getMessage());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void playGame() throws IOException, InterruptedException {
+            String created = send(Endpoint.CREATE, "POST", String.format("/games?rows=%d&cols=%d&types=%d&seed=%x",
+                    rows, cols, tileTypes, random.nextLong()));
+            Matcher id = created == null ? null : ID.matcher(created);
+            if (id == null || !id.find()) {
+                return;
+            }
+            String game = "/games/" + id.group(1);
+
+            int shuffles = 0;
+            while (running) {
+                String hint = send(Endpoint.HINT, "GET", game + "/hint");
+                Matcher move = hint == null ? null : MOVE.matcher(hint);
+                if (move == null || !move.find()) {
+                    if (++shuffles > MAX_SHUFFLES) {
+                        break;
+                    }
+                    send(Endpoint.SHUFFLE, "POST", game + "/shuffle");
+                    continue;
+                }
+                String result = send(Endpoint.MATCH, "POST", String.format("%s/match?r1=%s&c1=%s&r2=%s&c2=%s",
+                        game, move.group(1), move.group(2), move.group(3), move.group(4)));
+                if (result == null || !result.contains("\"matched\":true")) {
+                    errors++;
+                    break;
+                }
+                if (result.contains("\"complete\":true")) {
+                    if (measuring) {
+                        games++;
+                    }
+                    break;
+                }
+            }
+            send(Endpoint.DELETE, "DELETE", game);
+        }
+
+        /**
+         * 发送请求并记录延迟，非2xx时计为错误并返回null
+         */
+        private String send(Endpoint endpoint, String method, String path) throws IOException, InterruptedException {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .method(method, HttpRequest.BodyPublishers.noBody())
+                    .build();
+            long start = System.nanoTime();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            long nanos = System.nanoTime() - start;
+            if (measuring) {
+                latencies[endpoint.ordinal()].record(nanos);
+            }
+            if (response.statusCode() / 100 != 2) {
+                errors++;
+                return null;
+            }
+            return response.body();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.yush.link.server;
+
+/**
+ * 简单的JSON输出（手工拼接，不使用反射），自动处理元素之间的逗号
+ */
+final class JsonWriter {
+    private final StringBuilder out = new StringBuilder(256);
+    private boolean first = true;   // 当前容器中还没有元素（或刚写完字段名）
+
+    JsonWriter beginObject() {
+        separator();
+        out.append('{');
+        first = true;
+        return this;
+    }
+
+    JsonWriter endObject() {
+        out.append('}');
+        first = false;
+        return this;
+    }
+
+    JsonWriter beginArray() {
+        separator();
+        out.append('[');
+        first = true;
+        return this;
+    }
+
+    JsonWriter endArray() {
+        out.append(']');
+        first = false;
+        return this;
+    }
+
+    JsonWriter name(String name) {
+        separator();
+        string(name);
+        out.append(':');
+        first = true;
+        return this;
+    }
+
+    JsonWriter value(long value) {
+        separator();
+        out.append(value);
+        return this;
+    }
+
+    JsonWriter value(boolean value) {
+        separator();
+        out.append(value);
+        return this;
+    }
+
+    JsonWriter value(String value) {
+        separator();
+        if (value == null) {
+            out.append("null");
+        } else {
+            string(value);
+        }
+        return this;
+    }
+
+    JsonWriter nullValue() {
+        separator();
+        out.append("null");
+        return this;
+    }
+
+    /**
+     * 坐标写为 [row, col]
+     */
+    JsonWriter cell(int row, int col) {
+        return beginArray().value(row).value(col).endArray();
+    }
+
+    private void separator() {
+        if (!first) {
+            out.append(',');
+        }
+        first = false;
+    }
+
+    private void string(String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+}
@@ -0,0 +1,367 @@
+package com.yush.link.server;
+
+import com.yush.link.controller.PathFinder;
+import com.yush.link.model.GameBoard;
+import com.yush.link.model.Position;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+/**
+ * 本机压测：在同一进程中启动GameServer，用若干客户端线程模拟大量会话通过回环地址下棋，
+ * 输出每秒走法数、服务器端验证耗时和客户端往返延迟的分位数，以及每个CPU核心能承载的会话数。
+ *
+ * 客户端的走法预先由同样种子的棋盘副本算好（贪心走到清空或无步可走），压测期间不占用计算。
+ * 每个会话一次只有一步在途，两步之间等待思考时间。观众连接轮流观看各局，只统计收到的快照和增量。
+ *
+ * 用法：java com.yush.link.server.LoadGenerator [会话数] [秒数] [反应器线程数] [客户端线程数]
+ *       [思考时间ms] [行数] [列数] [图片种类] [观众数]
+ * 默认：1000 10 1 1 50 8 8 18 0
+ */
+public class LoadGenerator {
+    private static final int SCRIPT_COUNT = 256;
+    private static final long ROOT_SEED = 0x10AD;
+    // 统计前的预热比例
+    private static final double WARMUP_FRACTION = 0.2;
+
+    /**
+     * 预先算好的一局走法
+     */
+    private static class Script {
+        final long seed;
+        final int[] moves;  // 每步打包为 row1 << 24 | col1 << 16 | row2 << 8 | col2
+
+        Script(long seed, int[] moves) {
+            this.seed = seed;
+            this.moves = moves;
+        }
+    }
+
+    /**
+     * 客户端会话，只在所属的客户端线程中访问
+     */
+    private static class ClientSession {
+        final SocketChannel channel;
+        final ByteBuffer readBuffer;
+        final ByteBuffer writeBuffer = ByteBuffer.allocate(64);
+        final int spectatedGame;   // 观看的对局编号，选手为0
+        Script script;
+        int moveIndex;
+        int seq;
+        long sentAt;
+        long nextSendAt;
+
+        ClientSession(SocketChannel channel, int spectatedGame) {
+            this.channel = channel;
+            this.spectatedGame = spectatedGame;
+            this.readBuffer = ByteBuffer.allocate(spectatedGame == 0 ? 256 :
+                    Protocol.HEADER_BYTES + Protocol.MAX_SPECTATOR_FRAME_BYTES);
+        }
+    }
+
+    private final int rows;
+    private final int cols;
+    private final int tileTypes;
+    private final long thinkNanos;
+    private final List<Script> scripts = new ArrayList<>();
+
+    private volatile boolean running = true;
+    private volatile boolean measuring = false;
+
+    private LoadGenerator(int rows, int cols, int tileTypes, int thinkMillis) {
+        this.rows = rows;
+        this.cols = cols;
+        this.tileTypes = tileTypes;
+        this.thinkNanos = thinkMillis * 1_000_000L;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int sessions = intArg(args, 0, 1000);
+        int seconds = intArg(args, 1, 10);
+        int reactorCount = intArg(args, 2, 1);
+        int clientThreads = intArg(args, 3, 1);
+        int thinkMillis = intArg(args, 4, 50);
+        int rows = intArg(args, 5, 8);
+        int cols = intArg(args, 6, 8);
+        int tileTypes = intArg(args, 7, 18);
+        int spectators = intArg(args, 8, 0);
+
+        LoadGenerator generator = new LoadGenerator(rows, cols, tileTypes, thinkMillis);
+        generator.prepareScripts();
+
+        GameServer server = new GameServer(0, reactorCount);
+        server.start();
+        try {
+            generator.run(server, sessions, spectators, seconds, clientThreads);
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * 为一组种子预先计算走法
+     */
+    private void prepareScripts() {
+        SplittableRandom seeds = new SplittableRandom(ROOT_SEED);
+        PathFinder pathFinder = new PathFinder();
+        for (int i = 0; i < SCRIPT_COUNT; i++) {
+            long seed = seeds.nextLong();
+            GameBoard board = new GameBoard(rows, cols, tileTypes);
+            board.initializeBoard(seed);
+
+            List<Integer> moves = new ArrayList<>();
+            Position[] move;
+            while ((move = pathFinder.findAnyMove(board)) != null) {
+                moves.add(move[0].getRow() << 24 | move[0].getCol() << 16 | move[1].getRow() << 8 | move[1].getCol());
+                board.removePair(move[0], move[1]);
+            }
+            scripts.add(new Script(seed, moves.stream().mapToInt(Integer::intValue).toArray()));
+        }
+    }
+
+    private void run(GameServer server, int sessions, int spectators, int seconds, int clientThreadCount)
+            throws Exception {
+        InetSocketAddress address = new InetSocketAddress("127.0.0.1", server.getPort());
+        ClientThread[] clients = new ClientThread[clientThreadCount];
+        for (int i = 0; i < clientThreadCount; i++) {
+            clients[i] = new ClientThread(i);
+        }
+
+        // 建立连接（按客户端线程轮流分配）
+        for (int i = 0; i < sessions; i++) {
+            // 第一步在思考时间内均匀错开，避免所有会话同时发送
+            clients[i % clientThreadCount].add(new ClientSession(connect(address), 0), thinkNanos * i / sessions);
+        }
+        // 选手的对局编号按连接顺序从1开始，等服务器登记完所有选手后再连接观众
+        while (server.getActiveSessions() < sessions) {
+            Thread.sleep(10);
+        }
+        for (int i = 0; i < spectators; i++) {
+            clients[i % clientThreadCount].add(new ClientSession(connect(address), i % sessions + 1), 0);
+        }
+        System.out.printf("Connected %d sessions and %d spectators to %d reactor(s), %d client thread(s), " +
+                        "think %d ms, %dx%d/%d%n", sessions, spectators, server.getReactorCount(), clientThreadCount,
+                thinkNanos / 1_000_000, rows, cols, tileTypes);
+
+        for (ClientThread client : clients) {
+            client.thread.start();
+        }
+
+        // 预热后清空统计再开始计时
+        long totalMillis = seconds * 1000L;
+        Thread.sleep((long) (totalMillis * WARMUP_FRACTION));
+        server.resetStatistics();
+        measuring = true;
+        long cpuStart = server.getCpuNanos();
+        long start = System.nanoTime();
+        Thread.sleep((long) (totalMillis * (1 - WARMUP_FRACTION)));
+        long elapsed = System.nanoTime() - start;
+        long cpuUsed = server.getCpuNanos() - cpuStart;
+        measuring = false;
+        running = false;
+
+        LatencyHistogram roundTrip = new LatencyHistogram();
+        long rejected = 0;
+        long games = 0;
+        long snapshots = 0;
+        long deltas = 0;
+        long spectatorBytes = 0;
+        for (ClientThread client : clients) {
+            client.selector.wakeup();
+            client.thread.join(2000);
+            roundTrip.add(client.roundTrip);
+            rejected += client.rejected;
+            games += client.games;
+            snapshots += client.snapshots;
+            deltas += client.deltas;
+            spectatorBytes += client.spectatorBytes;
+        }
+
+        LatencyHistogram validation = server.getValidationHistogram();
+        double elapsedSeconds = elapsed / 1e9;
+        double cores = cpuUsed > 0 ? cpuUsed / (double) elapsed : 0;
+        System.out.printf("  %.0f moves/s, %d games started, %d moves rejected%n",
+                validation.getCount() / elapsedSeconds, games, rejected);
+        System.out.printf("  server validation: %s%n", validation);
+        System.out.printf("  client round trip: %s%n", roundTrip);
+        if (spectators > 0) {
+            System.out.printf("  spectators: %.0f snapshots/s, %.0f deltas/s, %.1f KB/s%n",
+                    snapshots / elapsedSeconds, deltas / elapsedSeconds, spectatorBytes / elapsedSeconds / 1024);
+        }
+        if (cores > 0) {
+            System.out.printf("  server CPU %.2f cores -> %.0f sessions per core, %.0f moves per core-second%n",
+                    cores, sessions / cores, validation.getCount() / elapsedSeconds / cores);
+        }
+    }
+
+    private static SocketChannel connect(InetSocketAddress address) throws IOException {
+        SocketChannel channel = SocketChannel.open(address);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.configureBlocking(false);
+        return channel;
+    }
+
+    /**
+     * 客户端线程：一个Selector管理一组会话，按到期时间发送走法
+     */
+    private class ClientThread {
+        final Thread thread;
+        final Selector selector;
+        final LatencyHistogram roundTrip = new LatencyHistogram();
+        final PriorityQueue<ClientSession> due =
+                new PriorityQueue<>((a, b) -> Long.compare(a.nextSendAt, b.nextSendAt));
+        final List<ClientSession> sessions = new ArrayList<>();
+        int nextScript;
+        long rejected;
+        long games;
+        long snapshots;
+        long deltas;
+        long spectatorBytes;
+
+        ClientThread(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this::run, "load-client-" + index);
+            this.thread.setDaemon(true);
+            this.nextScript = index * 31;
+        }
+
+        void add(ClientSession session, long delayNanos) throws IOException {
+            session.channel.register(selector, SelectionKey.OP_READ, session);
+            session.nextSendAt = System.nanoTime() + delayNanos;
+            sessions.add(session);
+            due.add(session);
+        }
+
+        private void run() {
+            try {
+                while (running) {
+                    long now = System.nanoTime();
+                    ClientSession head = due.peek();
+                    long waitNanos = head == null ? 100_000_000L : head.nextSendAt - now;
+                    if (waitNanos > 1_000_000) {
+                        selector.select(waitNanos / 1_000_000);
+                    } else {
+                        selector.selectNow();
+                    }
+
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        onReadable((ClientSession) key.attachment());
+                    }
+
+                    now = System.nanoTime();
+                    while (!due.isEmpty() && due.peek().nextSendAt <= now) {
+                        send(due.poll(), now);
+                    }
+                }
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("压测客户端异常: " + e.getMessage());
+                }
+            } finally {
+                for (ClientSession session : sessions) {
+                    try {
+                        session.channel.close();
+                    } catch (IOException ignored) {
+                        // 正在关闭
+                    }
+                }
+            }
+        }
+
+        /**
+         * 发送下一帧：没有对局或走法用完时开新局，否则发送下一步
+         */
+        private void send(ClientSession session, long now) throws IOException {
+            session.writeBuffer.clear();
+            if (session.spectatedGame != 0) {
+                Protocol.writeSpectate(session.writeBuffer, session.spectatedGame);
+            } else if (session.script == null || session.moveIndex >= session.script.moves.length) {
+                session.script = scripts.get(nextScript++ % scripts.size());
+                session.moveIndex = 0;
+                session.seq = 0;
+                Protocol.writeNewGame(session.writeBuffer, rows, cols, tileTypes, 0, session.script.seed);
+                games++;
+            } else {
+                int move = session.script.moves[session.moveIndex];
+                Protocol.writeMove(session.writeBuffer, ++session.seq,
+                        move >>> 24, (move >>> 16) & 0xFF, (move >>> 8) & 0xFF, move & 0xFF);
+            }
+            session.writeBuffer.flip();
+            session.sentAt = now;
+            // 每个会话只有一帧在途，帧很小，回环连接上一次即可写完
+            while (session.writeBuffer.hasRemaining()) {
+                session.channel.write(session.writeBuffer);
+            }
+        }
+
+        private void onReadable(ClientSession session) throws IOException {
+            if (session.channel.read(session.readBuffer) < 0) {
+                throw new IOException("Server closed connection");
+            }
+            ByteBuffer buffer = session.readBuffer;
+            buffer.flip();
+            if (session.spectatedGame != 0) {
+                onSpectatorFrames(buffer);
+                buffer.compact();
+                return;
+            }
+            long now = System.nanoTime();
+            while (Protocol.hasFrame(buffer)) {
+                int length = buffer.getShort() & 0xFFFF;
+                int end = buffer.position() + length;
+                byte type = buffer.get();
+                if (type == Protocol.MOVE_RESULT) {
+                    buffer.getInt();
+                    byte status = buffer.get();
+                    if (measuring) {
+                        roundTrip.record(now - session.sentAt);
+                    }
+                    if (!Protocol.isAccepted(status)) {
+                        rejected++;
+                    }
+                    session.moveIndex++;
+                    if (status == Protocol.COMPLETE || status == Protocol.STUCK || !Protocol.isAccepted(status)) {
+                        session.moveIndex = session.script.moves.length;
+                    }
+                }
+                buffer.position(end);
+                session.nextSendAt = now + thinkNanos;
+                due.add(session);
+            }
+            buffer.compact();
+        }
+
+        private void onSpectatorFrames(ByteBuffer buffer) {
+            while (Protocol.hasFrame(buffer)) {
+                int length = buffer.getShort() & 0xFFFF;
+                int end = buffer.position() + length;
+                if (measuring) {
+                    if (buffer.get() == Protocol.SNAPSHOT) {
+                        snapshots++;
+                    } else {
+                        deltas++;
+                    }
+                    spectatorBytes += Protocol.HEADER_BYTES + length;
+                }
+                buffer.position(end);
+            }
+        }
+    }
+
+    private static int intArg(String[] args, int index, int defaultValue) {
+        return index < args.length ? Integer.parseInt(args[index]) : defaultValue;
+    }
+}
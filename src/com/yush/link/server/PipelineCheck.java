@@ -0,0 +1,81 @@
+package com.yush.link.server;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+
+/**
+ * 流水线请求检查：客户端一次写出大量请求（回复超过服务器写缓冲区的容量）后只等待回复，
+ * 服务器必须在不再收到新数据的情况下回复全部请求。
+ *
+ * 客户端的接收缓冲区设得很小，使服务器的写出多次受阻，覆盖写缓冲区满和等待可写事件两种情况。
+ * 全部回复按序收到时退出码为0，否则为1。
+ *
+ * 用法：java com.yush.link.server.PipelineCheck [请求数]
+ * 默认：5000
+ */
+public class PipelineCheck {
+    private static final int TIMEOUT_MILLIS = 5000;
+    private static final int PAUSE_EVERY = 64;
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+
+        GameServer server = new GameServer(0, 1);
+        server.start();
+        int received = 0;
+        String error = null;
+        try (Socket socket = new Socket()) {
+            socket.setReceiveBufferSize(1024);
+            socket.setSoTimeout(TIMEOUT_MILLIS);
+            socket.connect(new InetSocketAddress("127.0.0.1", server.getPort()));
+
+            // 尚未开局，每个洗牌请求都回复NO_GAME
+            ByteBuffer frames = ByteBuffer.allocate(requests * (Protocol.HEADER_BYTES + Protocol.SHUFFLE_BYTES));
+            for (int seq = 1; seq <= requests; seq++) {
+                Protocol.writeShuffle(frames, seq);
+            }
+            OutputStream out = socket.getOutputStream();
+            Thread writer = new Thread(() -> {
+                try {
+                    out.write(frames.array(), 0, frames.position());
+                    out.flush();
+                } catch (IOException e) {
+                    System.err.println("写出请求失败: " + e.getMessage());
+                }
+            }, "pipeline-writer");
+            writer.start();
+
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            try {
+                while (received < requests && error == null) {
+                    int length = in.readUnsignedShort();
+                    byte type = in.readByte();
+                    int seq = in.readInt();
+                    in.skipBytes(length - 1 - 4);
+                    if (type != Protocol.MOVE_RESULT || seq != received + 1) {
+                        error = String.format("unexpected reply type %d seq %d", type, seq);
+                    }
+                    received++;
+                    // 读得比服务器写得慢，使服务器的写出不时受阻
+                    if (received % PAUSE_EVERY == 0) {
+                        Thread.sleep(1);
+                    }
+                }
+            } catch (SocketTimeoutException e) {
+                error = "no reply within " + TIMEOUT_MILLIS + " ms";
+            }
+            writer.join();
+        } finally {
+            server.stop();
+        }
+
+        System.out.printf("%d of %d pipelined requests answered%s%n", received, requests,
+                error != null ? " (" + error + ")" : "");
+        System.exit(error == null ? 0 : 1);
+    }
+}
@@ -0,0 +1,134 @@
+package com.yush.link.server;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 对战服务器的二进制协议
+ *
+ * 每帧为 [长度 u16][类型 u8][内容]，长度不含自身的两个字节，整数均为大端序。
+ *
+ * 客户端 → 服务器
+ *   NEW_GAME      rows u8, cols u8, tileTypes u8, gravity u8, seed i64
+ *   MOVE          seq i32, row1 u8, col1 u8, row2 u8, col2 u8
+ *   SHUFFLE       seq i32（洗牌由种子和洗牌次数决定，客户端用GameBoard.shuffleBoard重现）
+ *   SPECTATE      gameId i32（此连接改为观看指定对局）
+ * 服务器 → 客户端
+ *   GAME_STARTED  gameId i32, seed i64, remaining i32
+ *   MOVE_RESULT   seq i32, status u8, remaining i32
+ * 服务器 → 观众（feedSeq为该对局数据流的序号）
+ *   SNAPSHOT      feedSeq i64, gameId i32, rows u8, cols u8, tileTypes u8, gravity u8, seed i64,
+ *                 shuffleCount i32, elapsed i32, remaining i32, 格子类型 u8 × rows × cols（行优先，0为空）
+ *   PAIR_REMOVED  feedSeq i64, row1 u8, col1 u8, row2 u8, col2 u8（按对局的重力模式移动）
+ *   SHUFFLED      feedSeq i64, 剩余方块按行优先顺序的新类型 u8 × remaining
+ *   TICK          feedSeq i64, elapsed i32
+ *
+ * 每局的走法序号（MOVE和SHUFFLE共用）从1开始连续递增，服务器拒绝乱序或重复的序号。
+ * 观众先收到快照，之后的增量序号连续；读得太慢时会再次收到快照，序号不大于快照序号的增量应忽略。
+ */
+public final class Protocol {
+    public static final int HEADER_BYTES = 2;
+    // 单帧最大长度（类型 + 内容）
+    public static final int MAX_FRAME_BYTES = 32;
+
+    public static final byte NEW_GAME = 1;
+    public static final byte MOVE = 2;
+    public static final byte SHUFFLE = 3;
+    public static final byte SPECTATE = 4;
+    public static final byte GAME_STARTED = (byte) 0x81;
+    public static final byte MOVE_RESULT = (byte) 0x82;
+    public static final byte SNAPSHOT = (byte) 0x83;
+    public static final byte PAIR_REMOVED = (byte) 0x84;
+    public static final byte SHUFFLED = (byte) 0x85;
+    public static final byte TICK = (byte) 0x86;
+
+    public static final int NEW_GAME_BYTES = 1 + 4 + 8;
+    public static final int MOVE_BYTES = 1 + 4 + 4;
+    public static final int SHUFFLE_BYTES = 1 + 4;
+    public static final int SPECTATE_BYTES = 1 + 4;
+    public static final int GAME_STARTED_BYTES = 1 + 4 + 8 + 4;
+    public static final int MOVE_RESULT_BYTES = 1 + 4 + 1 + 4;
+    // 快照中格子之前的字段（feedSeq之后）
+    public static final int SNAPSHOT_HEADER_BYTES = 4 + 4 + 8 + 4 + 4 + 4;
+    public static final int PAIR_REMOVED_BYTES = 1 + 8 + 4;
+    public static final int TICK_BYTES = 1 + 8 + 4;
+    // 最大的观战帧（200×200棋盘的快照）
+    public static final int MAX_SPECTATOR_FRAME_BYTES = 1 + 8 + SNAPSHOT_HEADER_BYTES + 200 * 200;
+
+    // MOVE_RESULT状态
+    public static final byte OK = 0;             // 消除成功
+    public static final byte COMPLETE = 1;       // 消除成功，棋盘已清空
+    public static final byte STUCK = 2;          // 消除成功，但已无步可走
+    public static final byte MISMATCH = 3;       // 格子为空或类型不同
+    public static final byte NO_PATH = 4;        // 无法连接
+    public static final byte OUT_OF_SEQUENCE = 5;
+    public static final byte NO_GAME = 6;        // 尚未开局
+
+    private Protocol() {
+    }
+
+    public static void writeNewGame(ByteBuffer buffer, int rows, int cols, int tileTypes, int gravity, long seed) {
+        buffer.putShort((short) NEW_GAME_BYTES);
+        buffer.put(NEW_GAME);
+        buffer.put((byte) rows);
+        buffer.put((byte) cols);
+        buffer.put((byte) tileTypes);
+        buffer.put((byte) gravity);
+        buffer.putLong(seed);
+    }
+
+    public static void writeMove(ByteBuffer buffer, int seq, int row1, int col1, int row2, int col2) {
+        buffer.putShort((short) MOVE_BYTES);
+        buffer.put(MOVE);
+        buffer.putInt(seq);
+        buffer.put((byte) row1);
+        buffer.put((byte) col1);
+        buffer.put((byte) row2);
+        buffer.put((byte) col2);
+    }
+
+    public static void writeShuffle(ByteBuffer buffer, int seq) {
+        buffer.putShort((short) SHUFFLE_BYTES);
+        buffer.put(SHUFFLE);
+        buffer.putInt(seq);
+    }
+
+    public static void writeSpectate(ByteBuffer buffer, int gameId) {
+        buffer.putShort((short) SPECTATE_BYTES);
+        buffer.put(SPECTATE);
+        buffer.putInt(gameId);
+    }
+
+    public static void writeGameStarted(ByteBuffer buffer, int gameId, long seed, int remaining) {
+        buffer.putShort((short) GAME_STARTED_BYTES);
+        buffer.put(GAME_STARTED);
+        buffer.putInt(gameId);
+        buffer.putLong(seed);
+        buffer.putInt(remaining);
+    }
+
+    public static void writeMoveResult(ByteBuffer buffer, int seq, byte status, int remaining) {
+        buffer.putShort((short) MOVE_RESULT_BYTES);
+        buffer.put(MOVE_RESULT);
+        buffer.putInt(seq);
+        buffer.put(status);
+        buffer.putInt(remaining);
+    }
+
+    /**
+     * 缓冲区（读模式）中是否有一个完整的帧
+     */
+    public static boolean hasFrame(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_BYTES) {
+            return false;
+        }
+        int length = buffer.getShort(buffer.position()) & 0xFFFF;
+        return buffer.remaining() >= HEADER_BYTES + length;
+    }
+
+    /**
+     * 状态是否表示消除成功
+     */
+    public static boolean isAccepted(byte status) {
+        return status == OK || status == COMPLETE || status == STUCK;
+    }
+}
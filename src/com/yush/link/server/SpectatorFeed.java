@@ -0,0 +1,248 @@
+package com.yush.link.server;
+
+import com.yush.link.model.GameBoard;
+import com.yush.link.model.Position;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 一局游戏的观战数据流：观众先收到棋盘快照，之后只收到增量（消除的一对、洗牌后的排列、计时）
+ *
+ * 增量在发布时编码成完整的帧放入固定容量的环形缓冲区，所有观众共享同一份数据，
+ * 各自只记录读到的序号。读得太慢被覆盖的观众不会排队等待，而是改为从最新的快照重新同步。
+ *
+ * 发布方法只能由对局所在的线程调用；订阅的读取可以在任意线程进行。
+ */
+public class SpectatorFeed {
+    private static final int CAPACITY = 256;
+    // 开新局的内部标记，观众读到时改为发送快照
+    private static final byte[] RESET = new byte[0];
+
+    private final int gameId;
+    private final AtomicReferenceArray<Event> ring = new AtomicReferenceArray<>(CAPACITY);
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private volatile long head;   // 最后发布的序号
+    private volatile boolean closed;
+
+    // 以下字段由锁保护：观众的快照必须与某个序号对应的棋盘一致
+    private GameBoard shadow;     // 按增量同步的棋盘副本，用于生成快照
+    private int elapsedSeconds;
+    private byte[] cachedSnapshot;
+    private long cachedSnapshotSeq = -1;
+
+    /**
+     * 环形缓冲区中的一项（帧内容不可变）
+     */
+    private static class Event {
+        final long seq;
+        final byte[] frame;
+
+        Event(long seq, byte[] frame) {
+            this.seq = seq;
+            this.frame = frame;
+        }
+    }
+
+    public SpectatorFeed(int gameId) {
+        this.gameId = gameId;
+    }
+
+    public int getGameId() {
+        return gameId;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.get();
+    }
+
+    /**
+     * 开始新的一局（保存棋盘副本，观众下次读取时收到快照）
+     */
+    public synchronized void startGame(GameBoard board) {
+        shadow = board.copy();
+        elapsedSeconds = 0;
+        append(RESET);
+    }
+
+    /**
+     * 一对方块被消除（副本按同样的重力模式移动）
+     */
+    public synchronized void pairRemoved(Position first, Position second) {
+        shadow.removePair(first, second);
+        ByteBuffer frame = newFrame(Protocol.PAIR_REMOVED, Protocol.PAIR_REMOVED_BYTES);
+        frame.put((byte) first.getRow());
+        frame.put((byte) first.getCol());
+        frame.put((byte) second.getRow());
+        frame.put((byte) second.getCol());
+        append(frame.array());
+    }
+
+    /**
+     * 洗牌后发送所有剩余方块的新类型（按行优先顺序），副本按种子重现同样的洗牌
+     */
+    public synchronized void shuffled() {
+        shadow.shuffleBoard();
+        int rows = shadow.getRows();
+        int cols = shadow.getCols();
+        byte[] types = new byte[shadow.getRemainingTiles()];
+        int count = 0;
+        for (int row = 1; row <= rows; row++) {
+            for (int col = 1; col <= cols; col++) {
+                int type = shadow.getTileType(row, col);
+                if (type != 0 && count < types.length) {
+                    types[count++] = (byte) type;
+                }
+            }
+        }
+        ByteBuffer frame = newFrame(Protocol.SHUFFLED, 1 + 8 + count);
+        frame.put(types, 0, count);
+        append(frame.array());
+    }
+
+    /**
+     * 计时（开局后经过的秒数）
+     */
+    public synchronized void tick(int seconds) {
+        elapsedSeconds = seconds;
+        ByteBuffer frame = newFrame(Protocol.TICK, Protocol.TICK_BYTES);
+        frame.putInt(seconds);
+        append(frame.array());
+    }
+
+    /**
+     * 对局连接断开，观众读完剩余的数据后结束
+     */
+    public void close() {
+        closed = true;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public Subscription subscribe() {
+        subscribers.incrementAndGet();
+        return new Subscription();
+    }
+
+    private ByteBuffer newFrame(byte type, int length) {
+        ByteBuffer frame = ByteBuffer.allocate(Protocol.HEADER_BYTES + length);
+        frame.putShort((short) length);
+        frame.put(type);
+        frame.putLong(head + 1);
+        return frame;
+    }
+
+    private void append(byte[] frame) {
+        long seq = head + 1;
+        ring.set((int) (seq % CAPACITY), new Event(seq, frame));
+        head = seq;
+    }
+
+    /**
+     * 当前棋盘的快照帧，尚未开局时返回null
+     */
+    private synchronized byte[] snapshot(long[] seqOut) {
+        if (shadow == null) {
+            return null;
+        }
+        seqOut[0] = head;
+        if (cachedSnapshotSeq != head) {
+            int rows = shadow.getRows();
+            int cols = shadow.getCols();
+            int length = 1 + 8 + Protocol.SNAPSHOT_HEADER_BYTES + rows * cols;
+            ByteBuffer frame = ByteBuffer.allocate(Protocol.HEADER_BYTES + length);
+            frame.putShort((short) length);
+            frame.put(Protocol.SNAPSHOT);
+            frame.putLong(head);
+            frame.putInt(gameId);
+            frame.put((byte) rows);
+            frame.put((byte) cols);
+            frame.put((byte) shadow.getTileTypes());
+            frame.put((byte) shadow.getGravityMode().ordinal());
+            frame.putLong(shadow.getSeed());
+            frame.putInt(shadow.getShuffleCount());
+            frame.putInt(elapsedSeconds);
+            frame.putInt(shadow.getRemainingTiles());
+            for (int row = 1; row <= rows; row++) {
+                for (int col = 1; col <= cols; col++) {
+                    frame.put((byte) shadow.getTileType(row, col));
+                }
+            }
+            cachedSnapshot = frame.array();
+            cachedSnapshotSeq = head;
+        }
+        return cachedSnapshot;
+    }
+
+    /**
+     * 一个观众的读取位置，只能由一个线程使用
+     */
+    public class Subscription {
+        private long cursor;              // 已发送的最后一个序号
+        private boolean needsSnapshot = true;
+        private long resyncs;
+        private final long[] snapshotSeq = new long[1];
+
+        /**
+         * 把尽可能多的待发送帧写入out（只写完整的帧），返回写入的帧数；
+         * 对局已结束且数据已读完时返回-1
+         */
+        public int drain(ByteBuffer out) {
+            int frames = 0;
+            while (true) {
+                if (needsSnapshot) {
+                    byte[] frame = snapshot(snapshotSeq);
+                    if (frame == null) {
+                        return closed && frames == 0 ? -1 : frames;
+                    }
+                    if (out.remaining() < frame.length) {
+                        return frames;
+                    }
+                    out.put(frame);
+                    cursor = snapshotSeq[0];
+                    needsSnapshot = false;
+                    frames++;
+                }
+
+                long published = head;
+                while (cursor < published) {
+                    long seq = cursor + 1;
+                    Event event = ring.get((int) (seq % CAPACITY));
+                    if (event == null || event.seq != seq) {
+                        // 已被覆盖：放弃积压的增量，从快照重新同步
+                        needsSnapshot = true;
+                        resyncs++;
+                        break;
+                    }
+                    if (event.frame == RESET) {
+                        needsSnapshot = true;
+                        break;
+                    }
+                    if (out.remaining() < event.frame.length) {
+                        return frames;
+                    }
+                    out.put(event.frame);
+                    cursor = seq;
+                    frames++;
+                }
+                if (!needsSnapshot) {
+                    return closed && cursor == head && frames == 0 ? -1 : frames;
+                }
+            }
+        }
+
+        /**
+         * 因读得太慢而重新同步的次数
+         */
+        public long getResyncCount() {
+            return resyncs;
+        }
+
+        public void cancel() {
+            subscribers.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.yush.link.utils;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 资源预加载器，在后台线程池中并行解码并缩放图片
+ */
+public class AssetPreloader {
+    // 工作线程数由engine.preloadThreads配置（启动时确定），且不超过CPU核数
+    private static final int WORKER_COUNT =
+            Math.max(1, Math.min(ConfigService.get().getPreloadThreads(), Runtime.getRuntime().availableProcessors()));
+
+    private static final ExecutorService workers = Executors.newFixedThreadPool(WORKER_COUNT, runnable -> {
+        Thread thread = new Thread(runnable, "asset-preloader");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    /**
+     * 加载进度回调（在EDT上调用）
+     */
+    public interface ProgressListener {
+        void onProgress(int loaded, int total);
+    }
+
+    /**
+     * 预加载指定模式所需的方块图片和游戏背景
+     */
+    public static CompletableFuture<Void> preloadMode(GameConstants.GameMode mode, ProgressListener listener) {
+        int tileTypes = mode.getTileTypes();
+        int total = tileTypes + 1;
+        AtomicInteger loaded = new AtomicInteger();
+        List<CompletableFuture<?>> tasks = new ArrayList<>(total);
+
+        // 高分屏上同时预生成设备像素尺寸的版本
+        double scale = ResourceLoader.getScreenScale();
+        for (int type = 1; type <= tileTypes; type++) {
+            int tileType = type;
+            tasks.add(submit(() -> {
+                TileSprite sprite = ResourceLoader.getTileSprite(tileType, GameConstants.TILE_IMAGE_SIZE);
+                if (sprite != null && scale > 1.0) {
+                    sprite.getVariantForScale(scale);
+                }
+            }, loaded, total, listener));
+        }
+        tasks.add(submit(() -> ResourceLoader.loadScaledImage(GameConstants.GAME_BG,
+                GameConstants.WINDOW_WIDTH, GameConstants.WINDOW_HEIGHT), loaded, total, listener));
+
+        return CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * 异步加载并缩放单张图片
+     */
+    public static CompletableFuture<Image> loadScaledAsync(String path, int width, int height) {
+        return CompletableFuture.supplyAsync(() -> ResourceLoader.loadScaledImage(path, width, height), workers);
+    }
+
+    private static CompletableFuture<Void> submit(Runnable task, AtomicInteger loaded, int total,
+                                                  ProgressListener listener) {
+        return CompletableFuture.runAsync(task, workers).whenComplete((result, error) -> {
+            // 单张图片失败不影响整体，TileButton会在使用时同步兜底
+            int count = loaded.incrementAndGet();
+            if (listener != null) {
+                SwingUtilities.invokeLater(() -> listener.onProgress(count, total));
+            }
+        }).exceptionally(error -> null);
+    }
+}
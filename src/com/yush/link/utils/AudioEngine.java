@@ -0,0 +1,303 @@
+package com.yush.link.utils;
+
+import javax.sound.sampled.*;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 音频引擎：背景音乐在独立线程中以小缓冲区流式播放，
+ * 音效预先生成PCM数据，由固定数量的播放线程各自持有一条输出线路。
+ *
+ * 触发音效只是向队列投递一个枚举值，不会阻塞EDT也不会分配内存；
+ * 没有可用的混音器（如无声卡的CI环境）时所有接口静默失效。
+ */
+public class AudioEngine {
+    public static final String BGM_PATH = GameConstants.RESOURCES_PATH + "audio/bgm.wav";
+
+    // 音效格式：44.1kHz 16位单声道
+    private static final float SAMPLE_RATE = 44100f;
+    private static final AudioFormat EFFECT_FORMAT = new AudioFormat(SAMPLE_RATE, 16, 1, true, false);
+    // 音效线路缓冲区约20ms，保证触发延迟低
+    private static final int EFFECT_BUFFER_BYTES = 2048;
+    // 音乐线路缓冲区
+    private static final int MUSIC_BUFFER_BYTES = 8192;
+    private static final int VOICE_COUNT = 4;
+
+    /**
+     * 音效类型
+     */
+    public enum SoundEffect {
+        MATCH, MISS, HINT
+    }
+
+    private static final BlockingQueue<SoundEffect> effectQueue = new ArrayBlockingQueue<>(16);
+    // 按音量缩放后的PCM数据，音量变化时整体替换
+    private static volatile byte[][] effectData;
+
+    private static volatile boolean soundEnabled = true;
+    private static volatile int musicVolume = 80;
+    private static volatile int effectsVolume = 90;
+
+    private static boolean started = false;
+    private static volatile boolean musicRunning = false;
+    private static Thread musicThread;
+    private static volatile SourceDataLine musicLine;
+
+    /**
+     * 启动音频引擎：打开音效线路并开始播放背景音乐
+     */
+    public static synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+
+        if (!isAudioAvailable()) {
+            soundEnabled = false;
+            return;
+        }
+
+        effectData = synthesizeEffects(effectsVolume);
+        for (int i = 0; i < VOICE_COUNT; i++) {
+            SourceDataLine line = openLine(EFFECT_FORMAT, EFFECT_BUFFER_BYTES);
+            if (line == null) {
+                break;
+            }
+            Thread voice = new Thread(() -> runVoice(line), "audio-voice-" + i);
+            voice.setDaemon(true);
+            voice.setPriority(Thread.MAX_PRIORITY);
+            voice.start();
+        }
+
+        if (soundEnabled) {
+            startMusic();
+        }
+    }
+
+    /**
+     * 播放音效（可在任意线程调用，队列已满时直接丢弃）
+     */
+    public static void playEffect(SoundEffect effect) {
+        if (soundEnabled && effectData != null) {
+            effectQueue.offer(effect);
+        }
+    }
+
+    /**
+     * 应用声音设置
+     */
+    public static synchronized void configure(boolean enabled, int musicVolumePercent, int effectsVolumePercent) {
+        boolean effectsChanged = effectsVolumePercent != effectsVolume;
+        musicVolume = clampPercent(musicVolumePercent);
+        effectsVolume = clampPercent(effectsVolumePercent);
+
+        if (effectsChanged && effectData != null) {
+            effectData = synthesizeEffects(effectsVolume);
+        }
+        applyGain(musicLine, musicVolume);
+
+        if (enabled == soundEnabled) {
+            return;
+        }
+        soundEnabled = enabled && (!started || isAudioAvailable());
+        if (started) {
+            if (soundEnabled) {
+                startMusic();
+            } else {
+                stopMusic();
+                effectQueue.clear();
+            }
+        }
+    }
+
+    public static boolean isSoundEnabled() {
+        return soundEnabled;
+    }
+
+    private static boolean isAudioAvailable() {
+        try {
+            return AudioSystem.getMixerInfo().length > 0
+                    && AudioSystem.isLineSupported(new DataLine.Info(SourceDataLine.class, EFFECT_FORMAT));
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static SourceDataLine openLine(AudioFormat format, int bufferBytes) {
+        try {
+            SourceDataLine line = AudioSystem.getSourceDataLine(format);
+            line.open(format, bufferBytes);
+            line.start();
+            return line;
+        } catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+            if (GameConstants.DEBUG_MODE) {
+                e.printStackTrace();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 音效播放线程：从队列取出音效并写入自己的线路
+     */
+    private static void runVoice(SourceDataLine line) {
+        try {
+            while (true) {
+                SoundEffect effect = effectQueue.take();
+                byte[] data = effectData[effect.ordinal()];
+                line.write(data, 0, data.length);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            line.close();
+        }
+    }
+
+    private static synchronized void startMusic() {
+        if (musicRunning) {
+            return;
+        }
+        musicRunning = true;
+        musicThread = new Thread(AudioEngine::runMusic, "audio-music");
+        musicThread.setDaemon(true);
+        musicThread.start();
+    }
+
+    private static synchronized void stopMusic() {
+        musicRunning = false;
+        if (musicThread != null) {
+            musicThread.interrupt();
+            musicThread = null;
+        }
+    }
+
+    /**
+     * 背景音乐线程：循环流式读取音乐文件写入线路
+     */
+    private static void runMusic() {
+        File file = new File(BGM_PATH);
+        byte[] buffer = new byte[MUSIC_BUFFER_BYTES / 2];
+        SourceDataLine line = null;
+
+        try {
+            while (musicRunning && !Thread.currentThread().isInterrupted()) {
+                try (AudioInputStream stream = openPcmStream(file)) {
+                    if (stream == null) {
+                        return;
+                    }
+                    if (line == null) {
+                        line = openLine(stream.getFormat(), MUSIC_BUFFER_BYTES);
+                        if (line == null) {
+                            return;
+                        }
+                        musicLine = line;
+                        applyGain(line, musicVolume);
+                    }
+
+                    int read;
+                    long played = 0;
+                    while (musicRunning && (read = stream.read(buffer, 0, buffer.length)) > 0) {
+                        line.write(buffer, 0, read - read % stream.getFormat().getFrameSize());
+                        played += read;
+                    }
+                    if (played == 0) {
+                        return;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (GameConstants.DEBUG_MODE) {
+                e.printStackTrace();
+            }
+        } finally {
+            musicLine = null;
+            if (line != null) {
+                line.stop();
+                line.close();
+            }
+            musicRunning = false;
+        }
+    }
+
+    /**
+     * 打开音乐文件并转换为PCM；格式不受支持时返回null（静默不播放音乐）
+     */
+    private static AudioInputStream openPcmStream(File file) throws IOException {
+        if (!Files.isRegularFile(file.toPath())) {
+            return null;
+        }
+        InputStream input = new BufferedInputStream(Files.newInputStream(file.toPath()));
+        try {
+            AudioInputStream source = AudioSystem.getAudioInputStream(input);
+            AudioFormat format = source.getFormat();
+            if (format.getEncoding() == AudioFormat.Encoding.PCM_SIGNED) {
+                return source;
+            }
+            AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(), 16,
+                    format.getChannels(), format.getChannels() * 2, format.getSampleRate(), false);
+            return AudioSystem.getAudioInputStream(pcm, source);
+        } catch (UnsupportedAudioFileException | IllegalArgumentException e) {
+            input.close();
+            if (GameConstants.DEBUG_MODE) {
+                System.err.println("不支持的音乐格式: " + file);
+            }
+            return null;
+        }
+    }
+
+    private static void applyGain(SourceDataLine line, int volumePercent) {
+        if (line == null || !line.isControlSupported(FloatControl.Type.MASTER_GAIN)) {
+            return;
+        }
+        FloatControl gain = (FloatControl) line.getControl(FloatControl.Type.MASTER_GAIN);
+        float db = volumePercent <= 0 ? gain.getMinimum() : (float) (20 * Math.log10(volumePercent / 100.0));
+        gain.setValue(Math.max(gain.getMinimum(), Math.min(gain.getMaximum(), db)));
+    }
+
+    /**
+     * 生成音效PCM数据（按音效音量缩放）
+     */
+    private static byte[][] synthesizeEffects(int volumePercent) {
+        double volume = volumePercent / 100.0;
+        byte[][] data = new byte[SoundEffect.values().length][];
+        // 消除：两个上升的短音
+        data[SoundEffect.MATCH.ordinal()] = concat(
+                tone(880, 70, 0.5 * volume), tone(1320, 110, 0.5 * volume));
+        // 失败：低沉的短音
+        data[SoundEffect.MISS.ordinal()] = tone(220, 120, 0.45 * volume);
+        // 提示：柔和的钟声
+        data[SoundEffect.HINT.ordinal()] = tone(1046, 250, 0.35 * volume);
+        return data;
+    }
+
+    private static byte[] tone(double frequency, int millis, double amplitude) {
+        int samples = (int) (SAMPLE_RATE * millis / 1000);
+        byte[] pcm = new byte[samples * 2];
+        for (int i = 0; i < samples; i++) {
+            // 指数衰减包络，开头5ms线性淡入避免爆音
+            double envelope = Math.exp(-4.0 * i / samples) * Math.min(1.0, i / (SAMPLE_RATE * 0.005));
+            short value = (short) (Math.sin(2 * Math.PI * frequency * i / SAMPLE_RATE) * envelope * amplitude
+                    * Short.MAX_VALUE);
+            pcm[2 * i] = (byte) value;
+            pcm[2 * i + 1] = (byte) (value >> 8);
+        }
+        return pcm;
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = new byte[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private static int clampPercent(int value) {
+        return Math.max(0, Math.min(100, value));
+    }
+}
@@ -0,0 +1,140 @@
+package com.yush.link.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * 配置服务：启动时加载config/game.properties，发布不可变的配置快照，
+ * 并通过WatchService监视文件变化，修改后无需重启即可生效
+ */
+public class ConfigService {
+    // 文件变化后等待写入完成再重新加载
+    private static final long RELOAD_DELAY_MS = 200;
+
+    private static final AtomicReference<GameConfig> current = new AtomicReference<>(GameConfig.defaults());
+    private static final List<Consumer<GameConfig>> listeners = new CopyOnWriteArrayList<>();
+    private static Thread watchThread;
+
+    /**
+     * 获取当前配置快照
+     */
+    public static GameConfig get() {
+        return current.get();
+    }
+
+    /**
+     * 加载配置文件，失败时保留原有配置
+     */
+    public static synchronized GameConfig load() {
+        Path path = Paths.get(GameConstants.CONFIG_PATH);
+        if (!Files.isRegularFile(path)) {
+            System.err.println("配置文件不存在，使用默认配置: " + path);
+            return current.get();
+        }
+
+        try (InputStream in = Files.newInputStream(path)) {
+            Properties props = new Properties();
+            props.load(in);
+            publish(GameConfig.fromProperties(props));
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("无法读取配置文件: " + path + " (" + e.getMessage() + ")");
+        }
+        return current.get();
+    }
+
+    /**
+     * 注册配置变化监听器（在监视线程上回调，涉及界面的监听器需自行切换到EDT）
+     */
+    public static void addListener(Consumer<GameConfig> listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(Consumer<GameConfig> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 启动配置文件监视线程
+     */
+    public static synchronized void startWatching() {
+        if (watchThread != null) {
+            return;
+        }
+
+        Path file = Paths.get(GameConstants.CONFIG_PATH).toAbsolutePath();
+        Path directory = file.getParent();
+        WatchService watchService;
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | UnsupportedOperationException e) {
+            System.err.println("无法监视配置文件: " + e.getMessage());
+            return;
+        }
+
+        watchThread = new Thread(() -> watch(watchService, file.getFileName()), "config-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    private static void watch(WatchService watchService, Path fileName) {
+        try (watchService) {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (fileName.equals(event.context())) {
+                        changed = true;
+                    }
+                }
+
+                if (changed) {
+                    // 合并短时间内的多次写入事件
+                    TimeUnit.MILLISECONDS.sleep(RELOAD_DELAY_MS);
+                    WatchKey pending;
+                    while ((pending = watchService.poll()) != null) {
+                        pending.pollEvents();
+                        pending.reset();
+                    }
+                    load();
+                }
+                if (!key.reset()) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | ClosedWatchServiceException e) {
+            System.err.println("配置文件监视已停止: " + e.getMessage());
+        }
+    }
+
+    private static void publish(GameConfig config) {
+        GameConfig previous = current.getAndSet(config);
+        if (config.equals(previous)) {
+            return;
+        }
+        if (GameConstants.DEBUG_MODE) {
+            System.out.println("配置已更新: " + config);
+        }
+        for (Consumer<GameConfig> listener : listeners) {
+            try {
+                listener.accept(config);
+            } catch (RuntimeException e) {
+                // 单个监听器出错不影响其他监听器
+                System.err.println("配置更新通知失败: " + e.getMessage());
+                if (GameConstants.DEBUG_MODE) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.yush.link.utils;
+
+import java.util.Arrays;
+
+/**
+ * 帧统计：记录最近若干帧的耗时，计算帧率、耗时分位数和迟到帧数
+ */
+public class FrameStats {
+    private final long[] frameNanos;
+    private final long[] frameTimestamps;
+    private final long targetFrameNanos;
+    private int count = 0;
+    private int next = 0;
+    private long totalFrames = 0;
+    private long lateFrames = 0;
+
+    public FrameStats(int capacity, int targetFps) {
+        this.frameNanos = new long[capacity];
+        this.frameTimestamps = new long[capacity];
+        this.targetFrameNanos = 1_000_000_000L / Math.max(1, targetFps);
+    }
+
+    /**
+     * 记录一帧
+     * @param timestamp 帧结束时间（System.nanoTime）
+     * @param duration 渲染耗时
+     */
+    public synchronized void record(long timestamp, long duration) {
+        frameNanos[next] = duration;
+        frameTimestamps[next] = timestamp;
+        next = (next + 1) % frameNanos.length;
+        if (count < frameNanos.length) {
+            count++;
+        }
+        totalFrames++;
+        if (duration > targetFrameNanos) {
+            lateFrames++;
+        }
+    }
+
+    /**
+     * 最近一秒内的帧率
+     */
+    public synchronized double getFps() {
+        if (count < 2) {
+            return 0;
+        }
+        int newest = (next - 1 + frameNanos.length) % frameNanos.length;
+        long latest = frameTimestamps[newest];
+        int frames = 0;
+        long oldest = latest;
+        for (int i = 0; i < count; i++) {
+            int index = (newest - i + frameNanos.length) % frameNanos.length;
+            if (latest - frameTimestamps[index] > 1_000_000_000L) {
+                break;
+            }
+            oldest = frameTimestamps[index];
+            frames++;
+        }
+        long span = latest - oldest;
+        return span > 0 ? (frames - 1) * 1_000_000_000.0 / span : 0;
+    }
+
+    /**
+     * 帧耗时分位数（毫秒）
+     * @param percentile 0~100
+     */
+    public synchronized double getPercentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(frameNanos, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))] / 1_000_000.0;
+    }
+
+    public synchronized long getTotalFrames() { return totalFrames; }
+    public synchronized long getLateFrames() { return lateFrames; }
+
+    @Override
+    public String toString() {
+        return String.format("FPS %.1f  p50 %.2fms  p95 %.2fms  p99 %.2fms  late %d",
+                getFps(), getPercentileMillis(50), getPercentileMillis(95), getPercentileMillis(99),
+                getLateFrames());
+    }
+}
@@ -0,0 +1,166 @@
+package com.yush.link.utils;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * 游戏配置快照（不可变），由ConfigService从config/game.properties加载
+ */
+public final class GameConfig {
+    private static final String HIGH_SCORE_PREFIX = "game.highScore.";
+
+    // 游戏设置
+    private final int defaultSize;
+    private final String animationSpeed;
+    private final boolean showHints;
+    private final String tileStyle;
+    private final boolean soundEnabled;
+    private final int musicVolume;
+    private final int effectsVolume;
+    private final Map<Integer, Integer> highScores;
+
+    // 引擎调优参数
+    private final int preloadThreads;
+    private final int spriteCacheSize;
+    private final String renderMode;
+    private final int targetFps;
+    private final int animationBudgetMs;
+    private final int generationBudgetMs;
+
+    // 自动演示
+    private final String botPolicy;
+    private final int botMoveDelayMs;
+    private final int botMoveBudgetMs;
+
+    private GameConfig(Properties props) {
+        this.defaultSize = intValue(props, "game.defaultSize", 8, 2, 200);
+        this.animationSpeed = props.getProperty("game.animationSpeed", "normal").trim().toLowerCase();
+        this.showHints = Boolean.parseBoolean(props.getProperty("game.showHints", "true").trim());
+        this.tileStyle = props.getProperty("game.tileStyle", "colorful").trim().toLowerCase();
+        this.soundEnabled = Boolean.parseBoolean(props.getProperty("game.soundEnabled", "true").trim());
+        this.musicVolume = intValue(props, "game.musicVolume", 80, 0, 100);
+        this.effectsVolume = intValue(props, "game.effectsVolume", 90, 0, 100);
+
+        Map<Integer, Integer> scores = new TreeMap<>();
+        for (String key : props.stringPropertyNames()) {
+            if (key.startsWith(HIGH_SCORE_PREFIX)) {
+                int size = Integer.parseInt(key.substring(HIGH_SCORE_PREFIX.length()).trim());
+                scores.put(size, intValue(props, key, 0, 0, Integer.MAX_VALUE));
+            }
+        }
+        this.highScores = Collections.unmodifiableMap(scores);
+
+        this.preloadThreads = intValue(props, "engine.preloadThreads", 3, 1, 16);
+        this.spriteCacheSize = intValue(props, "engine.spriteCacheSize", 512, 16, 65536);
+        this.renderMode = props.getProperty("engine.renderMode", "passive").trim().toLowerCase();
+        this.targetFps = intValue(props, "engine.targetFps", 60, 10, 240);
+        this.animationBudgetMs = intValue(props, "engine.animationBudgetMs", 4, 1, 16);
+        this.generationBudgetMs = intValue(props, "engine.generationBudgetMs", 300, 0, 5000);
+
+        this.botPolicy = props.getProperty("bot.policy", "lookahead").trim().toLowerCase();
+        this.botMoveDelayMs = intValue(props, "bot.moveDelayMs", 400, 50, 5000);
+        this.botMoveBudgetMs = intValue(props, "bot.moveBudgetMs", 20, 1, 200);
+    }
+
+    /**
+     * 从属性集创建配置，格式错误时抛出IllegalArgumentException
+     */
+    public static GameConfig fromProperties(Properties props) {
+        return new GameConfig(props);
+    }
+
+    /**
+     * 默认配置（配置文件不存在时使用）
+     */
+    public static GameConfig defaults() {
+        return new GameConfig(new Properties());
+    }
+
+    private static int intValue(Properties props, String key, int defaultValue, int min, int max) {
+        String value = props.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Math.max(min, Math.min(max, Integer.parseInt(value.trim())));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value, e);
+        }
+    }
+
+    public int getDefaultSize() { return defaultSize; }
+    public String getAnimationSpeed() { return animationSpeed; }
+    public boolean isShowHints() { return showHints; }
+    public String getTileStyle() { return tileStyle; }
+    public boolean isSoundEnabled() { return soundEnabled; }
+    public int getMusicVolume() { return musicVolume; }
+    public int getEffectsVolume() { return effectsVolume; }
+    public Map<Integer, Integer> getHighScores() { return highScores; }
+    public int getPreloadThreads() { return preloadThreads; }
+    public int getSpriteCacheSize() { return spriteCacheSize; }
+    public String getRenderMode() { return renderMode; }
+    public int getTargetFps() { return targetFps; }
+    public int getAnimationBudgetMs() { return animationBudgetMs; }
+    public int getGenerationBudgetMs() { return generationBudgetMs; }
+    public String getBotPolicy() { return botPolicy; }
+    public int getBotMoveDelayMs() { return botMoveDelayMs; }
+    public int getBotMoveBudgetMs() { return botMoveBudgetMs; }
+
+    public boolean isActiveRendering() {
+        return "active".equals(renderMode);
+    }
+
+    /**
+     * 动画时长倍率：slow为1.5倍，fast为0.6倍
+     */
+    public double getAnimationScale() {
+        switch (animationSpeed) {
+            case "slow": return 1.5;
+            case "fast": return 0.6;
+            default: return 1.0;
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        GameConfig other = (GameConfig) obj;
+        return defaultSize == other.defaultSize &&
+                showHints == other.showHints &&
+                soundEnabled == other.soundEnabled &&
+                musicVolume == other.musicVolume &&
+                effectsVolume == other.effectsVolume &&
+                preloadThreads == other.preloadThreads &&
+                spriteCacheSize == other.spriteCacheSize &&
+                targetFps == other.targetFps &&
+                animationBudgetMs == other.animationBudgetMs &&
+                generationBudgetMs == other.generationBudgetMs &&
+                botMoveDelayMs == other.botMoveDelayMs &&
+                botMoveBudgetMs == other.botMoveBudgetMs &&
+                botPolicy.equals(other.botPolicy) &&
+                animationSpeed.equals(other.animationSpeed) &&
+                tileStyle.equals(other.tileStyle) &&
+                renderMode.equals(other.renderMode) &&
+                highScores.equals(other.highScores);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(defaultSize, animationSpeed, showHints, tileStyle, soundEnabled, musicVolume,
+                effectsVolume, highScores, preloadThreads, spriteCacheSize, renderMode, targetFps,
+                animationBudgetMs, generationBudgetMs, botPolicy, botMoveDelayMs, botMoveBudgetMs);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("GameConfig{defaultSize=%d, animationSpeed=%s, showHints=%s, tileStyle=%s, " +
+                        "sound=%s/%d/%d, preloadThreads=%d, spriteCacheSize=%d, renderMode=%s, targetFps=%d, bot=%s/%dms/%dms}",
+                defaultSize, animationSpeed, showHints, tileStyle, soundEnabled, musicVolume, effectsVolume,
+                preloadThreads, spriteCacheSize, renderMode, targetFps, botPolicy, botMoveDelayMs, botMoveBudgetMs);
+    }
+}
@@ -1,5 +1,8 @@
 package com.yush.link.utils;
 
+import com.yush.link.model.BoardLayout;
+import com.yush.link.model.Difficulty;
+
 import java.awt.*;
 
 public class GameConstants {
@@ -13,11 +16,19 @@ public class GameConstants {
 
     // 方块大小
     public static final int TILE_SIZE = 55;
+    // 方块图片大小（四周各留6像素边距）
+    public static final int TILE_IMAGE_SIZE = TILE_SIZE - 12;
+
+    // 配置文件与数据目录
+    public static final String CONFIG_PATH = "config/game.properties";
+    public static final String DATA_PATH = "data/";
+    public static final String LAYOUTS_PATH = "config/layouts/";
 
     // 资源路径
     public static final String RESOURCES_PATH = "resources/";
     public static final String IMAGES_PATH = RESOURCES_PATH + "images/";
     public static final String TILE_PATH = IMAGES_PATH + "tiles/tile_";
+    public static final String TILE_ATLAS = IMAGES_PATH + "tiles.atlas";
 
     // 图片文件
     public static final String MENU_BG = IMAGES_PATH + "menu_bg.png";
@@ -33,11 +44,17 @@ public class GameConstants {
 
     // 游戏模式配置
     public static final GameMode[] GAME_MODES = {
-            new GameMode(6, 6, "6×6 Easy", 12),
-            new GameMode(8, 8, "8×8 Normal", 18),
-            new GameMode(10, 10, "10×10 Hard", 24)
+            new GameMode(6, 6, "6×6 Easy", 12, Difficulty.EASY),
+            new GameMode(8, 8, "8×8 Normal", 18, Difficulty.NORMAL),
+            new GameMode(10, 10, "10×10 Hard", 24, Difficulty.HARD)
     };
 
+    // 自定义棋盘尺寸范围
+    public static final int MIN_BOARD_SIZE = 2;
+    public static final int MAX_BOARD_SIZE = BoardLayout.MAX_SIZE;
+    // 方块图片种类数（resources/images/tiles）
+    public static final int TILE_TYPE_COUNT = 30;
+
     // 调试模式
     public static final boolean DEBUG_MODE = false;
 
@@ -47,18 +64,43 @@ public class GameConstants {
         private final int cols;
         private final String name;
         private final int tileTypes;
+        private final BoardLayout layout;   // 棋盘形状，null表示完整矩形
+        private final Difficulty difficulty;    // 目标难度，null表示不筛选棋盘
 
         public GameMode(int rows, int cols, String name, int tileTypes) {
+            this(rows, cols, name, tileTypes, null, null);
+        }
+
+        public GameMode(int rows, int cols, String name, int tileTypes, Difficulty difficulty) {
+            this(rows, cols, name, tileTypes, null, difficulty);
+        }
+
+        private GameMode(int rows, int cols, String name, int tileTypes, BoardLayout layout, Difficulty difficulty) {
             this.rows = rows;
             this.cols = cols;
             this.name = name;
             this.tileTypes = tileTypes;
+            this.layout = layout;
+            this.difficulty = difficulty;
+        }
+
+        /**
+         * 使用指定形状（尺寸取自形状，方块种类数不变）
+         */
+        public GameMode withLayout(BoardLayout layout) {
+            return new GameMode(layout.getRows(), layout.getCols(), layout.getName() + " " + name, tileTypes, layout,
+                    difficulty);
+        }
+
+        public BoardLayout getLayout() {
+            return layout != null ? layout : BoardLayout.rectangle(rows, cols);
         }
 
         public int getRows() { return rows; }
         public int getCols() { return cols; }
         public String getName() { return name; }
         public int getTileTypes() { return tileTypes; }
+        public Difficulty getDifficulty() { return difficulty; }
 
         @Override
         public String toString() { return name; }
@@ -0,0 +1,313 @@
+package com.yush.link.utils;
+
+import com.yush.link.model.BoardLayout;
+import com.yush.link.model.GameBoard;
+import com.yush.link.model.Position;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 对局的走法日志：每局一个文件，记录开局参数和之后的每个事件，可据此重现任意时刻的棋盘
+ *
+ * 文件头：magic i32, version u16, 头部长度 u16, 开局时间 i64, 种子 i64,
+ *        图片种类 u8, 重力模式 u8, rows u8, cols u8, flags u8, 形状名长度 u8, 形状名 UTF-8,
+ *        [异形棋盘的格子类型 u8 × rows × cols（flags & 1）]
+ * 记录：定长8字节 [类型 u8][距上一条的毫秒数 u24][内容 u32]，两个格子编码为 (row * actualCols + col) 的高低16位
+ *
+ * 记录先写入缓冲区，缓冲区满或对局结束时写出。日志只用于排查问题，写入失败时停止记录，不影响游戏。
+ */
+public class MoveLog implements Closeable {
+    public static final String DIRECTORY = GameConstants.DATA_PATH + "moves/";
+    public static final String FILE_EXTENSION = ".mlog";
+
+    static final int MAGIC = 0x46544C4D;   // "FTLM"
+    static final int VERSION = 1;
+    static final int FIXED_HEADER_BYTES = 4 + 2 + 2 + 8 + 8 + 6;
+    static final int FLAG_CELLS = 1;
+    public static final int RECORD_BYTES = 8;
+    static final int MAX_DELTA_MILLIS = 0xFFFFFF;
+
+    // 记录类型
+    public static final byte PAIR = 1;        // 消除一对
+    public static final byte MISS = 2;        // 尝试配对失败（不改变棋盘）
+    public static final byte HINT = 3;        // 提示的一对
+    public static final byte SHUFFLE = 4;     // 洗牌，内容为本局第几次洗牌（洗牌由种子和次数决定）
+    public static final byte SEED_HIGH = 5;   // 重新生成棋盘：新种子的高32位
+    public static final byte SEED_LOW = 6;    // 重新生成棋盘：新种子的低32位（读到时生成）
+    public static final byte END = 7;         // 对局结束，内容为结果
+    public static final byte UNDO = 8;        // 撤销上一步（消除或洗牌）
+    public static final byte REDO = 9;        // 重做上一次撤销的步骤
+
+    // 结束原因
+    public static final int END_CLEARED = 0;
+    public static final int END_NO_MOVES = 1;
+    public static final int END_ABANDONED = 2;
+
+    private static final int BUFFER_BYTES = 4096;
+
+    private final Path path;
+    private final int actualCols;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private FileChannel channel;
+    private long lastNanos;
+    private int recordCount;
+    private boolean ended;
+
+    private MoveLog(Path path, FileChannel channel, GameBoard board) {
+        this.path = path;
+        this.channel = channel;
+        this.actualCols = board.getActualCols();
+        this.lastNanos = System.nanoTime();
+    }
+
+    /**
+     * 在默认目录（data/moves）中为新的一局创建日志；无法创建时返回不记录的日志
+     */
+    public static MoveLog start(GameBoard board) {
+        try {
+            return open(Paths.get(DIRECTORY), board);
+        } catch (IOException e) {
+            System.err.println("无法创建走法日志: " + e.getMessage());
+            return new MoveLog(null, null, board);
+        }
+    }
+
+    /**
+     * 在指定目录中创建日志并写入文件头（文件名为开局时间和种子）
+     */
+    public static MoveLog open(Path directory, GameBoard board) throws IOException {
+        Files.createDirectories(directory);
+        long startMillis = System.currentTimeMillis();
+        Path path = directory.resolve(String.format("%d-%016x%s", startMillis, board.getSeed(), FILE_EXTENSION));
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        MoveLog log = new MoveLog(path, channel, board);
+        log.writeHeader(startMillis, board);
+        return log;
+    }
+
+    /**
+     * 继续写存档时的日志：日志应恰好有records条记录，其后只能是不改变棋盘的记录（失误、提示、中途放弃），
+     * 这些记录会被截掉。日志缺少记录（例如崩溃时缓冲区未写出）或无法打开时返回不记录的日志。
+     */
+    public static MoveLog resume(String fileName, int records, GameBoard board) {
+        if (fileName.isEmpty()) {
+            return new MoveLog(null, null, board);
+        }
+        Path path = Paths.get(DIRECTORY).resolve(fileName);
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(FIXED_HEADER_BYTES);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < FIXED_HEADER_BYTES || header.getInt() != MAGIC || header.getShort() != VERSION) {
+                throw new IOException("not a move log");
+            }
+            long end = (header.getShort(6) & 0xFFFF) + (long) records * RECORD_BYTES;
+            if (channel.size() < end || !onlyPassiveRecords(channel, end)) {
+                throw new IOException("log does not match the saved game");
+            }
+            channel.truncate(end);
+            channel.position(end);
+            MoveLog log = new MoveLog(path, channel, board);
+            log.recordCount = records;
+            return log;
+        } catch (IOException e) {
+            System.err.println("无法继续走法日志 " + fileName + "，本局不再记录: " + e.getMessage());
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // 已关闭
+                }
+            }
+            return new MoveLog(null, null, board);
+        }
+    }
+
+    /**
+     * from之后（到文件末尾）的记录是否都不改变棋盘
+     */
+    private static boolean onlyPassiveRecords(FileChannel channel, long from) throws IOException {
+        long tailBytes = channel.size() - from;
+        if (tailBytes > BUFFER_BYTES) {
+            return false;
+        }
+        ByteBuffer tail = ByteBuffer.allocate((int) tailBytes);
+        while (tail.hasRemaining() && channel.read(tail, from + tail.position()) > 0) {
+            // 读取到末尾
+        }
+        tail.flip();
+        while (tail.remaining() >= RECORD_BYTES) {
+            byte type = (byte) (tail.getInt() >>> 24);
+            int payload = tail.getInt();
+            if (type != MISS && type != HINT && !(type == END && payload == END_ABANDONED)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeHeader(long startMillis, GameBoard board) throws IOException {
+        BoardLayout layout = board.getLayout();
+        byte[] name = layout.getName().getBytes(StandardCharsets.UTF_8);
+        int nameLength = Math.min(name.length, 255);
+        boolean cells = !layout.isRectangle();
+        int headerBytes = FIXED_HEADER_BYTES + nameLength + (cells ? layout.getRows() * layout.getCols() : 0);
+
+        ByteBuffer header = ByteBuffer.allocate(headerBytes);
+        header.putInt(MAGIC);
+        header.putShort((short) VERSION);
+        header.putShort((short) headerBytes);
+        header.putLong(startMillis);
+        header.putLong(board.getSeed());
+        header.put((byte) board.getTileTypes());
+        header.put((byte) board.getGravityMode().ordinal());
+        header.put((byte) layout.getRows());
+        header.put((byte) layout.getCols());
+        header.put((byte) (cells ? FLAG_CELLS : 0));
+        header.put((byte) nameLength);
+        header.put(name, 0, nameLength);
+        if (cells) {
+            for (int row = 0; row < layout.getRows(); row++) {
+                for (int col = 0; col < layout.getCols(); col++) {
+                    header.put(layout.getCell(row, col));
+                }
+            }
+        }
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+    }
+
+    public void pair(Position first, Position second) {
+        record(PAIR, cells(first, second));
+    }
+
+    public void miss(Position first, Position second) {
+        record(MISS, cells(first, second));
+    }
+
+    public void hint(Position first, Position second) {
+        record(HINT, cells(first, second));
+    }
+
+    public void shuffle(int shuffleCount) {
+        record(SHUFFLE, shuffleCount);
+    }
+
+    public void undo() {
+        record(UNDO, 0);
+    }
+
+    public void redo() {
+        record(REDO, 0);
+    }
+
+    /**
+     * 棋盘按新种子重新生成
+     */
+    public void reseed(long seed) {
+        record(SEED_HIGH, (int) (seed >>> 32));
+        record(SEED_LOW, (int) seed);
+    }
+
+    /**
+     * 记录结束原因并写出（同一局只记录一次）
+     */
+    public void end(int outcome) {
+        if (ended) {
+            return;
+        }
+        record(END, outcome);
+        ended = true;
+        flush();
+    }
+
+    public boolean isEnded() {
+        return ended;
+    }
+
+    /**
+     * 已记录的条数（包括尚在缓冲区中的）
+     */
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * 日志文件，不记录时为null
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    private int cells(Position first, Position second) {
+        return (first.getRow() * actualCols + first.getCol()) << 16 | (second.getRow() * actualCols + second.getCol());
+    }
+
+    private void record(byte type, int payload) {
+        if (channel == null || ended) {
+            return;
+        }
+        long now = System.nanoTime();
+        long delta = Math.min(MAX_DELTA_MILLIS, (now - lastNanos) / 1_000_000);
+        // 只推进已计入的整毫秒，避免连续的短间隔被舍去
+        lastNanos += delta * 1_000_000;
+        if (delta == MAX_DELTA_MILLIS) {
+            lastNanos = now;
+        }
+        buffer.putInt((type & 0xFF) << 24 | (int) delta);
+        buffer.putInt(payload);
+        recordCount++;
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (channel == null) {
+            return;
+        }
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            System.err.println("走法日志写入失败，停止记录: " + e.getMessage());
+            closeChannel();
+        }
+        buffer.clear();
+    }
+
+    /**
+     * 写出缓冲区并关闭文件（未结束的对局记为中途放弃）
+     */
+    @Override
+    public void close() {
+        end(END_ABANDONED);
+        closeChannel();
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // 已关闭
+            }
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.yush.link.utils;
+
+import com.yush.link.model.BoardLayout;
+import com.yush.link.model.GravityMode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 读取走法日志（格式见MoveLog），逐条遍历记录
+ *
+ * 只读取传入的缓冲区，不复制数据，可直接用于内存映射的文件。末尾不完整的记录（写入中断）会被忽略。
+ */
+public class MoveLogReader {
+    private final ByteBuffer buffer;
+    private final long startMillis;
+    private final long seed;
+    private final int tileTypes;
+    private final GravityMode gravityMode;
+    private final BoardLayout layout;
+    private final int recordsStart;
+
+    // 当前记录
+    private byte type;
+    private int payload;
+    private long timeMillis;   // 距开局的毫秒数
+    private int index = -1;
+
+    /**
+     * @param buffer 日志内容（从position开始），格式错误时抛出IOException
+     */
+    public MoveLogReader(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.slice();
+        try {
+            if (this.buffer.getInt() != MoveLog.MAGIC) {
+                throw new IOException("Not a move log");
+            }
+            int version = this.buffer.getShort() & 0xFFFF;
+            if (version != MoveLog.VERSION) {
+                throw new IOException("Unsupported move log version " + version);
+            }
+            int headerBytes = this.buffer.getShort() & 0xFFFF;
+            startMillis = this.buffer.getLong();
+            seed = this.buffer.getLong();
+            tileTypes = this.buffer.get() & 0xFF;
+            int gravity = this.buffer.get() & 0xFF;
+            int rows = this.buffer.get() & 0xFF;
+            int cols = this.buffer.get() & 0xFF;
+            int flags = this.buffer.get() & 0xFF;
+            byte[] name = new byte[this.buffer.get() & 0xFF];
+            this.buffer.get(name);
+            if (gravity >= GravityMode.values().length) {
+                throw new IOException("Invalid gravity mode " + gravity);
+            }
+            gravityMode = GravityMode.values()[gravity];
+            if ((flags & MoveLog.FLAG_CELLS) != 0) {
+                byte[] cells = new byte[rows * cols];
+                this.buffer.get(cells);
+                layout = BoardLayout.of(new String(name, StandardCharsets.UTF_8), rows, cols, cells);
+            } else {
+                layout = BoardLayout.rectangle(rows, cols);
+            }
+            recordsStart = headerBytes;
+            this.buffer.position(recordsStart);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt move log header: " + e, e);
+        }
+    }
+
+    public static MoveLogReader read(Path path) throws IOException {
+        return new MoveLogReader(ByteBuffer.wrap(Files.readAllBytes(path)));
+    }
+
+    /**
+     * 移到下一条记录，没有更多记录时返回false
+     */
+    public boolean next() {
+        if (buffer.remaining() < MoveLog.RECORD_BYTES) {
+            return false;
+        }
+        int head = buffer.getInt();
+        type = (byte) (head >>> 24);
+        timeMillis += head & MoveLog.MAX_DELTA_MILLIS;
+        payload = buffer.getInt();
+        index++;
+        return true;
+    }
+
+    /**
+     * 回到第一条记录之前
+     */
+    public void rewind() {
+        buffer.position(recordsStart);
+        timeMillis = 0;
+        index = -1;
+    }
+
+    public int getRecordCount() {
+        return (buffer.limit() - recordsStart) / MoveLog.RECORD_BYTES;
+    }
+
+    public long getStartMillis() { return startMillis; }
+    public long getSeed() { return seed; }
+    public int getTileTypes() { return tileTypes; }
+    public GravityMode getGravityMode() { return gravityMode; }
+    public BoardLayout getLayout() { return layout; }
+
+    public byte getType() { return type; }
+    public int getPayload() { return payload; }
+    public long getTimeMillis() { return timeMillis; }
+    public int getIndex() { return index; }
+
+    /**
+     * 记录中第一个格子的编号（row * actualCols + col）
+     */
+    public int getFirstCell() { return payload >>> 16; }
+
+    public int getSecondCell() { return payload & 0xFFFF; }
+}
@@ -2,21 +2,49 @@ package com.yush.link.utils;
 
 import javax.imageio.ImageIO;
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /* 资源加载器 */
 public class ResourceLoader {
-    // 使用HashMap作为图片缓存，key为图片路径，value为加载后的Image对象
-    private static final Map<String, Image> imageCache = new HashMap<>();
+    // 图片缓存，key为图片路径，value为加载后的Image对象（预加载线程与EDT会并发访问）
+    private static final Map<String, Image> imageCache = new ConcurrentHashMap<>();
+
+    // 缩放后的图片缓存，key为"路径@宽x高"，按最近使用淘汰，容量由engine.spriteCacheSize配置
+    private static volatile int scaledCacheLimit = ConfigService.get().getSpriteCacheSize();
+    private static final Map<String, Image> scaledCache = Collections.synchronizedMap(
+            new LinkedHashMap<String, Image>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Image> eldest) {
+                    return size() > scaledCacheLimit;
+                }
+            });
+
+    // 多分辨率方块图片缓存，key = tileType << 16 | 逻辑尺寸；缩放棋盘时尺寸连续变化，同样按最近使用淘汰
+    private static final Map<Integer, TileSprite> spriteCache = Collections.synchronizedMap(
+            new LinkedHashMap<Integer, TileSprite>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, TileSprite> eldest) {
+                    return size() > scaledCacheLimit;
+                }
+            });
+
+    // 预打包的方块图集，首次使用时映射
+    private static class AtlasHolder {
+        static final TileAtlas ATLAS = TileAtlas.open(GameConstants.TILE_ATLAS);
+    }
 
     // 加载图片资源
     public static Image loadImage(String path) {
         // 1.检查缓存中是否已有该图片
-        if (imageCache.containsKey(path)) {
-            return imageCache.get(path);
+        Image cached = imageCache.get(path);
+        if (cached != null) {
+            return cached;
         }
 
         try {
@@ -37,7 +65,131 @@ public class ResourceLoader {
 
     // 加载方块图片
     public static Image loadTileImage(int tileType) {
-        String path = String.format("%s%d.png", GameConstants.TILE_PATH, tileType);
-        return loadImage(path);
+        return loadImage(getTilePath(tileType));
+    }
+
+    /**
+     * 加载并缩放图片，结果按尺寸缓存
+     */
+    public static Image loadScaledImage(String path, int width, int height) {
+        String key = path + "@" + width + "x" + height;
+        Image cached = scaledCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Image source = loadImage(path);
+        if (source == null) {
+            return null;
+        }
+        Image scaled = scaleImage(source, width, height);
+        scaledCache.put(key, scaled);
+        return scaled;
+    }
+
+    /**
+     * 获取指定尺寸的方块图片；优先从图集读取，图集中没有时解码PNG作为兜底
+     */
+    public static Image getTileImage(int tileType, int size) {
+        if (tileType <= 0) {
+            return null;
+        }
+
+        String path = getTilePath(tileType);
+        String key = path + "@" + size + "x" + size;
+        Image cached = scaledCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        TileAtlas atlas = AtlasHolder.ATLAS;
+        if (atlas != null && atlas.contains(tileType, size)) {
+            Image image = atlas.getTile(tileType, size);
+            scaledCache.put(key, image);
+            return image;
+        }
+        return loadScaledImage(path, size, size);
+    }
+
+    /**
+     * 获取多分辨率方块图片，高分屏上按设备缩放比例自动选择原生尺寸的版本
+     */
+    public static TileSprite getTileSprite(int tileType, int size) {
+        if (tileType <= 0) {
+            return null;
+        }
+        int key = (tileType << 16) | size;
+        TileSprite cached = spriteCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        // 在锁外加载图片，预加载线程之间不互相阻塞
+        Image base = getTileImage(tileType, size);
+        if (base == null) {
+            return null;
+        }
+        TileSprite sprite = new TileSprite(tileType, size, base);
+        TileSprite existing = spriteCache.putIfAbsent(key, sprite);
+        return existing != null ? existing : sprite;
+    }
+
+    /**
+     * 获取默认屏幕的缩放比例（无显示设备时为1）
+     */
+    public static double getScreenScale() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return 1.0;
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().getDefaultTransform().getScaleX();
+    }
+
+    /**
+     * 设置缩放图片缓存（以及多分辨率方块图片缓存）的容量
+     */
+    public static void setScaledCacheLimit(int limit) {
+        scaledCacheLimit = Math.max(1, limit);
+    }
+
+    /**
+     * 判断方块图片是否已按指定尺寸缓存
+     */
+    public static boolean isTileImageCached(int tileType, int size) {
+        return scaledCache.containsKey(getTilePath(tileType) + "@" + size + "x" + size);
+    }
+
+    /**
+     * 将图片一次性缩放为BufferedImage，绘制时无需再次缩放
+     */
+    public static BufferedImage scaleImage(Image source, int width, int height) {
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Image current = source;
+        int currentWidth = source.getWidth(null);
+        int currentHeight = source.getHeight(null);
+
+        // 大幅缩小时逐次减半，避免双线性插值产生锯齿
+        while (currentWidth / 2 >= width && currentHeight / 2 >= height) {
+            currentWidth /= 2;
+            currentHeight /= 2;
+            BufferedImage half = new BufferedImage(currentWidth, currentHeight, BufferedImage.TYPE_INT_ARGB);
+            drawScaled(half, current, currentWidth, currentHeight);
+            current = half;
+        }
+
+        drawScaled(scaled, current, width, height);
+        return scaled;
+    }
+
+    private static void drawScaled(BufferedImage target, Image source, int width, int height) {
+        Graphics2D g2d = target.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2d.drawImage(source, 0, 0, width, height, null);
+        g2d.dispose();
+    }
+
+    private static String getTilePath(int tileType) {
+        return GameConstants.TILE_PATH + tileType + ".png";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,380 @@
+package com.yush.link.utils;
+
+import com.yush.link.model.BoardLayout;
+import com.yush.link.model.Difficulty;
+import com.yush.link.model.GameBoard;
+import com.yush.link.model.GravityMode;
+import com.yush.link.model.Position;
+import com.yush.link.model.SavedGame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+/**
+ * 未完成对局的存档（savegame.snapshot）
+ *
+ * 存档文件内存映射，分为两个按最大棋盘预留的槽位，交替写入：写完内容和校验和后才写序号，
+ * 写到一半时崩溃只会损坏正在写的槽位，读取时取校验通过且序号最大的槽位。
+ * 槽位位置和文件大小固定，棋盘尺寸变化时不需要重新映射或截断文件（映射期间截断在Windows上会失败）。
+ * 槽位内各字段位于固定偏移（见下方常量），之后依次是棋盘形状的格子和GameBoard.writeState的棋盘状态，
+ * 恢复时只需映射文件并整块复制，不需要解析。
+ *
+ * 存档、清除和读取都在后台线程中按提交顺序进行，调用线程（EDT）只复制一份棋盘；
+ * 连续的多次存档只写最新的一次。
+ */
+public class SaveStore {
+    public static final String SAVE_FILE = "savegame.snapshot";
+
+    private static final int MAGIC = 0x46544C47;   // "FTLG"
+    private static final int VERSION = 2;
+
+    // 槽位头部：magic i32, version i32, 序号 i64, 校验和 i32（SAVED_MILLIS到槽位末尾）, 槽位长度 i32
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int SEQUENCE_OFFSET = 8;
+    private static final int CRC_OFFSET = 16;
+    private static final int SLOT_BYTES_OFFSET = 20;
+    // 存档内容
+    private static final int SAVED_MILLIS_OFFSET = 24;
+    private static final int ELAPSED_OFFSET = 32;
+    private static final int MOVES_OFFSET = 40;
+    private static final int HINTS_OFFSET = 44;
+    private static final int LOG_RECORDS_OFFSET = 48;
+    private static final int SELECTED_ROW_OFFSET = 52;   // i16，没有选中时为-1
+    private static final int SELECTED_COL_OFFSET = 54;
+    private static final int TILE_TYPES_OFFSET = 56;     // 以下为u8
+    private static final int GRAVITY_OFFSET = 57;
+    private static final int DIFFICULTY_OFFSET = 58;     // 不筛选时为0xFF
+    private static final int FLAGS_OFFSET = 59;
+    private static final int ROWS_OFFSET = 60;
+    private static final int COLS_OFFSET = 61;
+    private static final int NAME_LENGTH_OFFSET = 62;
+    private static final int LOG_NAME_LENGTH_OFFSET = 63;
+    private static final int NAME_OFFSET = 64;           // 形状名 UTF-8
+    private static final int LOG_NAME_OFFSET = 128;      // 走法日志文件名 UTF-8
+    private static final int HEADER_BYTES = 192;
+    private static final int MAX_NAME_BYTES = BoardLayout.MAX_NAME_BYTES;
+    // 槽位容量：头部 + 最大棋盘的形状格子 + 棋盘状态（含外圈）；槽位i位于 i * SLOT_CAPACITY
+    private static final int SLOT_CAPACITY = (HEADER_BYTES + BoardLayout.MAX_SIZE * BoardLayout.MAX_SIZE
+            + GameBoard.STATE_HEADER_BYTES + (BoardLayout.MAX_SIZE + 2) * (BoardLayout.MAX_SIZE + 2) + 7) & ~7;
+
+    private static final int FLAG_AUTO_PLAYED = 1;
+    private static final int NO_DIFFICULTY = 0xFF;
+
+    private static final Object CLEAR = new Object();
+    private static final Object SHUTDOWN = new Object();
+    private static SaveStore instance;
+
+    private final Path path;
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private Thread writerThread;
+
+    // 以下字段只在写入线程中访问
+    private FileChannel channel;
+    private MappedByteBuffer map;
+    private long sequence;
+
+    public SaveStore(Path directory) {
+        this.path = directory.resolve(SAVE_FILE);
+    }
+
+    /**
+     * 获取默认存档（位于data目录）
+     */
+    public static synchronized SaveStore getInstance() {
+        if (instance == null) {
+            instance = new SaveStore(Paths.get(GameConstants.DATA_PATH));
+            instance.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(instance::close, "save-store-shutdown"));
+        }
+        return instance;
+    }
+
+    public synchronized void start() {
+        if (writerThread != null) {
+            return;
+        }
+        writerThread = new Thread(this::runWriter, "game-autosave");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * 保存对局（后台写入，不阻塞调用线程），覆盖之前的存档
+     */
+    public void save(SavedGame game) {
+        queue.offer(game);
+    }
+
+    /**
+     * 删除存档（对局结束后调用）
+     */
+    public void clear() {
+        queue.offer(CLEAR);
+    }
+
+    /**
+     * 读取存档，在之前提交的存档写完后完成；没有有效存档时结果为null
+     */
+    public CompletableFuture<SavedGame> load() {
+        CompletableFuture<SavedGame> result = new CompletableFuture<>();
+        queue.offer(result);
+        return result;
+    }
+
+    /**
+     * 写完队列中的存档后关闭
+     */
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            thread = writerThread;
+        }
+        if (thread == null || !thread.isAlive()) {
+            return;
+        }
+        queue.offer(SHUTDOWN);
+        try {
+            thread.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runWriter() {
+        List<Object> items = new ArrayList<>();
+        try {
+            while (true) {
+                items.add(queue.take());
+                queue.drainTo(items);
+                for (int i = 0; i < items.size(); i++) {
+                    Object item = items.get(i);
+                    if (item == SHUTDOWN) {
+                        return;
+                    }
+                    if (item instanceof CompletableFuture) {
+                        ((CompletableFuture<SavedGame>) item).complete(readSafely());
+                        continue;
+                    }
+                    // 紧接着还有存档或清除时，这一次会被覆盖，不必写
+                    Object next = i + 1 < items.size() ? items.get(i + 1) : null;
+                    if (next == CLEAR || next instanceof SavedGame) {
+                        continue;
+                    }
+                    try {
+                        if (item == CLEAR) {
+                            erase();
+                        } else {
+                            write((SavedGame) item);
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        System.err.println("无法写入存档: " + e.getMessage());
+                    }
+                }
+                items.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (Object item : queue) {
+                if (item instanceof CompletableFuture) {
+                    ((CompletableFuture<SavedGame>) item).complete(null);
+                }
+            }
+            closeChannel();
+        }
+    }
+
+    private SavedGame readSafely() {
+        try {
+            return read();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("无法读取存档: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 映射存档文件（不存在时create为false则返回false），并取得已有槽位的最大序号
+     */
+    private boolean open(boolean create) throws IOException {
+        if (channel != null) {
+            return true;
+        }
+        if (!create && !Files.isRegularFile(path)) {
+            return false;
+        }
+        Files.createDirectories(path.getParent());
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        // 映射两个完整的槽位（文件不足时扩展，旧版本留下的更长文件尾部不使用）
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, SLOT_CAPACITY * 2L);
+        for (int slot = 0; slot < 2; slot++) {
+            if (isValid(slot * SLOT_CAPACITY)) {
+                sequence = Math.max(sequence, map.getLong(slot * SLOT_CAPACITY + SEQUENCE_OFFSET));
+            }
+        }
+        return true;
+    }
+
+    private SavedGame read() throws IOException {
+        if (!open(false) || map == null) {
+            return null;
+        }
+        int base = -1;
+        long best = -1;
+        for (int slot = 0; slot < 2; slot++) {
+            int slotBase = slot * SLOT_CAPACITY;
+            if (isValid(slotBase) && map.getLong(slotBase + SEQUENCE_OFFSET) > best) {
+                best = map.getLong(slotBase + SEQUENCE_OFFSET);
+                base = slotBase;
+            }
+        }
+        return base < 0 ? null : decode(base);
+    }
+
+    private boolean isValid(int base) {
+        int slotBytes = map.getInt(base + SLOT_BYTES_OFFSET);
+        if (map.getInt(base + MAGIC_OFFSET) != MAGIC || map.getInt(base + VERSION_OFFSET) != VERSION
+                || slotBytes < HEADER_BYTES || slotBytes > SLOT_CAPACITY) {
+            return false;
+        }
+        return map.getInt(base + CRC_OFFSET) == checksum(base, slotBytes);
+    }
+
+    private int checksum(int base, int slotBytes) {
+        ByteBuffer content = map.duplicate();
+        content.limit(base + slotBytes).position(base + SAVED_MILLIS_OFFSET);
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        return (int) crc.getValue();
+    }
+
+    private SavedGame decode(int base) {
+        int rows = map.get(base + ROWS_OFFSET) & 0xFF;
+        int cols = map.get(base + COLS_OFFSET) & 0xFF;
+        String name = readString(base + NAME_OFFSET, map.get(base + NAME_LENGTH_OFFSET) & 0xFF);
+        String logName = readString(base + LOG_NAME_OFFSET, map.get(base + LOG_NAME_LENGTH_OFFSET) & 0xFF);
+
+        // 形状和棋盘状态整块复制
+        ByteBuffer content = map.duplicate();
+        content.position(base + HEADER_BYTES);
+        byte[] cells = new byte[rows * cols];
+        content.get(cells);
+        GameBoard board = new GameBoard(BoardLayout.of(name, rows, cols, cells), map.get(base + TILE_TYPES_OFFSET) & 0xFF);
+        board.setGravityMode(GravityMode.values()[map.get(base + GRAVITY_OFFSET)]);
+        board.readState(content);
+
+        int difficulty = map.get(base + DIFFICULTY_OFFSET) & 0xFF;
+        int selectedRow = map.getShort(base + SELECTED_ROW_OFFSET);
+        int selectedCol = map.getShort(base + SELECTED_COL_OFFSET);
+        return new SavedGame(board,
+                difficulty == NO_DIFFICULTY ? null : Difficulty.values()[difficulty],
+                map.getLong(base + ELAPSED_OFFSET),
+                map.getInt(base + MOVES_OFFSET),
+                map.getInt(base + HINTS_OFFSET),
+                (map.get(base + FLAGS_OFFSET) & FLAG_AUTO_PLAYED) != 0,
+                selectedRow < 0 ? null : new Position(selectedRow, selectedCol),
+                logName,
+                map.getInt(base + LOG_RECORDS_OFFSET));
+    }
+
+    private String readString(int offset, int length) {
+        byte[] bytes = new byte[Math.min(length, MAX_NAME_BYTES)];
+        map.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void write(SavedGame game) throws IOException {
+        open(true);
+        GameBoard board = game.getBoard();
+        BoardLayout layout = board.getLayout();
+        int slotBytes = (HEADER_BYTES + layout.getRows() * layout.getCols() + board.getStateBytes() + 7) & ~7;
+
+        // 写入较旧的槽位：先写内容和校验和，最后写序号
+        long next = sequence + 1;
+        int base = (int) (next % 2) * SLOT_CAPACITY;
+        map.putInt(base + MAGIC_OFFSET, 0);
+        map.putLong(base + SAVED_MILLIS_OFFSET, System.currentTimeMillis());
+        map.putLong(base + ELAPSED_OFFSET, game.getElapsedMillis());
+        map.putInt(base + MOVES_OFFSET, game.getMoves());
+        map.putInt(base + HINTS_OFFSET, game.getHintsUsed());
+        map.putInt(base + LOG_RECORDS_OFFSET, game.getMoveLogRecords());
+        Position selected = game.getSelected();
+        map.putShort(base + SELECTED_ROW_OFFSET, (short) (selected == null ? -1 : selected.getRow()));
+        map.putShort(base + SELECTED_COL_OFFSET, (short) (selected == null ? -1 : selected.getCol()));
+        map.put(base + TILE_TYPES_OFFSET, (byte) board.getTileTypes());
+        map.put(base + GRAVITY_OFFSET, (byte) board.getGravityMode().ordinal());
+        map.put(base + DIFFICULTY_OFFSET, (byte) (game.getDifficulty() == null ? NO_DIFFICULTY : game.getDifficulty().ordinal()));
+        map.put(base + FLAGS_OFFSET, (byte) (game.isAutoPlayed() ? FLAG_AUTO_PLAYED : 0));
+        map.put(base + ROWS_OFFSET, (byte) layout.getRows());
+        map.put(base + COLS_OFFSET, (byte) layout.getCols());
+        map.put(base + NAME_LENGTH_OFFSET, (byte) writeString(base + NAME_OFFSET, layout.getName()));
+        map.put(base + LOG_NAME_LENGTH_OFFSET, (byte) writeString(base + LOG_NAME_OFFSET, game.getMoveLogName()));
+
+        ByteBuffer content = map.duplicate();
+        content.position(base + HEADER_BYTES);
+        for (int row = 0; row < layout.getRows(); row++) {
+            for (int col = 0; col < layout.getCols(); col++) {
+                content.put(layout.getCell(row, col));
+            }
+        }
+        board.writeState(content);
+        while (content.position() < base + slotBytes) {
+            content.put((byte) 0);
+        }
+
+        map.putInt(base + CRC_OFFSET, checksum(base, slotBytes));
+        map.putInt(base + VERSION_OFFSET, VERSION);
+        map.putInt(base + SLOT_BYTES_OFFSET, slotBytes);
+        map.putLong(base + SEQUENCE_OFFSET, next);
+        map.putInt(base + MAGIC_OFFSET, MAGIC);
+        map.force();
+        sequence = next;
+    }
+
+    /**
+     * 写入字符串（超过64字节时截断；形状名在创建布局时已按字符边界截断），返回写入的字节数
+     */
+    private int writeString(int offset, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_NAME_BYTES);
+        map.put(offset, bytes, 0, length);
+        return length;
+    }
+
+    private void erase() throws IOException {
+        if (!open(false) || map == null) {
+            return;
+        }
+        map.putInt(MAGIC_OFFSET, 0);
+        map.putInt(SLOT_CAPACITY + MAGIC_OFFSET, 0);
+        map.force();
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // 已关闭
+            }
+            channel = null;
+            map = null;
+        }
+    }
+}
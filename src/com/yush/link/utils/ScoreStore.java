@@ -0,0 +1,563 @@
+package com.yush.link.utils;
+
+import com.yush.link.model.GameResult;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * 成绩与统计存储
+ *
+ * 每局完成的游戏以定长记录追加到二进制日志（scores.journal），
+ * 写入在后台线程中批量进行，每批只执行一次fsync。
+ * 日志达到一定长度后把各模式的统计压缩成快照（scores.snapshot），随后清空日志重新开始，
+ * 启动时只需读取快照并回放当前日志。
+ * 快照和日志头都记录代数：写完快照后日志才换到新的一代，中途崩溃时旧一代日志中的记录已包含在快照里，启动时直接丢弃。
+ * 内存中按模式建立索引，查询最佳成绩为O(1)。
+ */
+public class ScoreStore {
+    public static final String JOURNAL_FILE = "scores.journal";
+    public static final String SNAPSHOT_FILE = "scores.snapshot";
+
+    private static final int JOURNAL_MAGIC = 0x46544C4A;  // "FTLJ"
+    private static final int SNAPSHOT_MAGIC = 0x46544C53; // "FTLS"
+    private static final int VERSION = 2;
+    // 版本1：日志头只有magic和版本，快照记录已压缩到的日志偏移（读取后立即转换为版本2）
+    private static final int LEGACY_VERSION = 1;
+    private static final int LEGACY_JOURNAL_HEADER_BYTES = 8;
+    // 日志头：magic(4) version(4) generation(8)
+    private static final int JOURNAL_HEADER_BYTES = 16;
+    // 记录：timestamp(8) rows(4) cols(4) seed(8) timeMillis(4) moves(4) hints(4) crc(4)
+    private static final int RECORD_BYTES = 40;
+    private static final int SNAPSHOT_ENTRY_BYTES = 24;
+
+    // 批量写入：最多64条或等待500ms
+    private static final int MAX_BATCH = 64;
+    private static final long BATCH_WINDOW_MS = 500;
+    // 快照之后累计的记录数达到此值时重新生成快照
+    private static final int COMPACT_THRESHOLD = 256;
+
+    private static final Object SHUTDOWN = new Object();
+    private static ScoreStore instance;
+
+    /**
+     * 单个模式的统计（不可变）
+     */
+    public static class ModeStats {
+        private final int rows;
+        private final int cols;
+        private final int bestTimeMillis;
+        private final int gamesPlayed;
+        private final long totalTimeMillis;
+
+        public ModeStats(int rows, int cols, int bestTimeMillis, int gamesPlayed, long totalTimeMillis) {
+            this.rows = rows;
+            this.cols = cols;
+            this.bestTimeMillis = bestTimeMillis;
+            this.gamesPlayed = gamesPlayed;
+            this.totalTimeMillis = totalTimeMillis;
+        }
+
+        static ModeStats of(GameResult result) {
+            return new ModeStats(result.getRows(), result.getCols(), result.getTimeMillis(), 1,
+                    result.getTimeMillis());
+        }
+
+        ModeStats merge(ModeStats other) {
+            return new ModeStats(rows, cols, Math.min(bestTimeMillis, other.bestTimeMillis),
+                    gamesPlayed + other.gamesPlayed, totalTimeMillis + other.totalTimeMillis);
+        }
+
+        public int getRows() { return rows; }
+        public int getCols() { return cols; }
+        public int getBestTimeMillis() { return bestTimeMillis; }
+        public int getGamesPlayed() { return gamesPlayed; }
+        public long getAverageTimeMillis() { return gamesPlayed == 0 ? 0 : totalTimeMillis / gamesPlayed; }
+    }
+
+    private final Path journalPath;
+    private final Path snapshotPath;
+
+    // 查询索引（包含已提交但可能尚未写盘的记录）
+    private final Map<Integer, ModeStats> index = new ConcurrentHashMap<>();
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final CountDownLatch loaded = new CountDownLatch(1);
+    private Thread writerThread;
+
+    // 以下字段只在写入线程中访问
+    private FileChannel journal;            // 加载失败时为null
+    private final Map<Integer, ModeStats> persistedIndex = new HashMap<>();
+    private int recordsSinceSnapshot = 0;
+    private long generation;                // 当前日志的代数（与最近的快照相同）
+    private long legacySnapshotOffset;      // 版本1快照压缩到的日志偏移
+
+    public ScoreStore(Path directory) {
+        this.journalPath = directory.resolve(JOURNAL_FILE);
+        this.snapshotPath = directory.resolve(SNAPSHOT_FILE);
+    }
+
+    /**
+     * 获取默认存储（位于data目录），首次调用时在后台加载
+     */
+    public static synchronized ScoreStore getInstance() {
+        if (instance == null) {
+            instance = new ScoreStore(Paths.get(GameConstants.DATA_PATH));
+            instance.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(instance::close, "score-store-shutdown"));
+        }
+        return instance;
+    }
+
+    /**
+     * 启动写入线程（先加载快照和日志尾部，再处理写入队列）
+     */
+    public synchronized void start() {
+        if (writerThread != null) {
+            return;
+        }
+        writerThread = new Thread(this::runWriter, "score-writer");
+        writerThread.setDaemon(true);
+        writerThread.setPriority(Thread.NORM_PRIORITY - 1);
+        writerThread.start();
+    }
+
+    /**
+     * 记录一局游戏（立即更新索引，写盘在后台进行，不会阻塞调用线程）
+     */
+    public void record(GameResult result) {
+        index.merge(key(result.getRows(), result.getCols()), ModeStats.of(result), ModeStats::merge);
+        queue.offer(result);
+    }
+
+    /**
+     * 查询指定模式的最佳用时（毫秒），没有记录时返回-1
+     */
+    public int getBestTimeMillis(int rows, int cols) {
+        ModeStats stats = index.get(key(rows, cols));
+        return stats == null ? -1 : stats.getBestTimeMillis();
+    }
+
+    public ModeStats getStats(int rows, int cols) {
+        return index.get(key(rows, cols));
+    }
+
+    public List<ModeStats> getAllStats() {
+        List<ModeStats> stats = new ArrayList<>(index.values());
+        stats.sort(Comparator.comparingInt(ModeStats::getRows).thenComparingInt(ModeStats::getCols));
+        return stats;
+    }
+
+    /**
+     * 等待历史数据加载完成
+     */
+    public boolean awaitLoaded(long timeoutMillis) throws InterruptedException {
+        return loaded.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 写完队列中的记录后关闭
+     */
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            thread = writerThread;
+        }
+        if (thread == null || !thread.isAlive()) {
+            return;
+        }
+        queue.offer(SHUTDOWN);
+        try {
+            thread.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runWriter() {
+        try {
+            loadJournal();
+        } finally {
+            loaded.countDown();
+        }
+
+        List<GameResult> batch = new ArrayList<>(MAX_BATCH);
+        boolean running = true;
+        try {
+            while (running) {
+                Object item = queue.take();
+                long deadline = System.currentTimeMillis() + BATCH_WINDOW_MS;
+
+                // 收集一批记录
+                while (item != null) {
+                    if (item == SHUTDOWN) {
+                        running = false;
+                        break;
+                    }
+                    batch.add((GameResult) item);
+                    if (batch.size() >= MAX_BATCH) {
+                        break;
+                    }
+                    long wait = deadline - System.currentTimeMillis();
+                    item = wait > 0 ? queue.poll(wait, TimeUnit.MILLISECONDS) : queue.poll();
+                }
+
+                if (!batch.isEmpty()) {
+                    // 启动时加载失败则先重试加载，仍失败时这一批只保留在内存索引中
+                    if (journal != null || loadJournal()) {
+                        try {
+                            writeBatch(batch);
+                        } catch (IOException e) {
+                            // 一批失败不影响之后的写入
+                            System.err.println("无法写入成绩记录: " + e.getMessage());
+                            if (GameConstants.DEBUG_MODE) {
+                                e.printStackTrace();
+                            }
+                        }
+                    }
+                    batch.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeJournal();
+        }
+    }
+
+    /**
+     * 加载历史数据，失败时打印原因并返回false（journal保持为null）
+     */
+    private boolean loadJournal() {
+        try {
+            load();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("无法加载成绩记录: " + e.getMessage());
+            if (GameConstants.DEBUG_MODE) {
+                e.printStackTrace();
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 加载快照并回放当前一代的日志；日志末尾不完整或校验失败的记录会被截断
+     */
+    private void load() throws IOException {
+        Files.createDirectories(journalPath.getParent());
+        persistedIndex.clear();
+        boolean hasSnapshot = readSnapshot();
+
+        FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            int version = readJournalVersion(channel);
+            long journalGeneration = version == VERSION ? readJournalGeneration(channel) : 0;
+            long start;
+            if (version == 0) {
+                if (size > 0) {
+                    // 日志头损坏：保留旧文件，重新开始
+                    channel.close();
+                    Files.move(journalPath, journalPath.resolveSibling(JOURNAL_FILE + ".corrupt"),
+                            StandardCopyOption.REPLACE_EXISTING);
+                    channel = FileChannel.open(journalPath, StandardOpenOption.CREATE,
+                            StandardOpenOption.READ, StandardOpenOption.WRITE);
+                }
+                resetJournal(channel, generation);
+                start = size = JOURNAL_HEADER_BYTES;
+            } else if (journalGeneration < generation) {
+                // 写完快照后、换新日志前中断：日志中的记录已包含在快照中
+                resetJournal(channel, generation);
+                start = size = JOURNAL_HEADER_BYTES;
+            } else if (version == LEGACY_VERSION) {
+                // 版本1：从快照记录的偏移回放，快照与日志不一致时丢弃快照从头回放
+                start = legacySnapshotOffset;
+                if (!hasSnapshot || start < LEGACY_JOURNAL_HEADER_BYTES || start > size
+                        || (start - LEGACY_JOURNAL_HEADER_BYTES) % RECORD_BYTES != 0) {
+                    persistedIndex.clear();
+                    start = LEGACY_JOURNAL_HEADER_BYTES;
+                }
+            } else {
+                if (journalGeneration > generation) {
+                    // 快照丢失或损坏：只能回放当前一代日志
+                    persistedIndex.clear();
+                    generation = journalGeneration;
+                }
+                start = JOURNAL_HEADER_BYTES;
+            }
+
+            long position = replay(channel, start, size);
+            if (position < size) {
+                // 截断未写完整的记录
+                channel.truncate(position);
+                channel.force(true);
+            }
+            channel.position(position);
+            journal = channel;
+
+            for (Map.Entry<Integer, ModeStats> entry : persistedIndex.entrySet()) {
+                index.merge(entry.getKey(), entry.getValue(), ModeStats::merge);
+            }
+            if (version == LEGACY_VERSION) {
+                // 转换为版本2：写出快照后日志从新的一代开始
+                writeSnapshot();
+            }
+        } catch (IOException | RuntimeException e) {
+            journal = null;
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 从start开始回放日志记录到persistedIndex，返回最后一条完整记录之后的偏移
+     */
+    private long replay(FileChannel channel, long start, long size) throws IOException {
+        long position = start;
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * 256);
+        int replayed = 0;
+        boolean corrupt = false;
+        while (position < size && !corrupt) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            buffer.flip();
+            while (buffer.remaining() >= RECORD_BYTES) {
+                GameResult result = decodeRecord(buffer);
+                if (result == null) {
+                    corrupt = true;
+                    break;
+                }
+                persistedIndex.merge(key(result.getRows(), result.getCols()), ModeStats.of(result), ModeStats::merge);
+                position += RECORD_BYTES;
+                replayed++;
+            }
+            if (read < RECORD_BYTES) {
+                break;
+            }
+        }
+        recordsSinceSnapshot = replayed;
+        return position;
+    }
+
+    /**
+     * 清空日志，写入指定代数的日志头
+     */
+    private static void resetJournal(FileChannel channel, long generation) throws IOException {
+        channel.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(JOURNAL_HEADER_BYTES);
+        header.putInt(JOURNAL_MAGIC).putInt(VERSION).putLong(generation).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, JOURNAL_HEADER_BYTES - header.remaining());
+        }
+        channel.force(true);
+        channel.position(JOURNAL_HEADER_BYTES);
+    }
+
+    /**
+     * 日志头的版本（VERSION或LEGACY_VERSION），日志头缺失或损坏时返回0
+     */
+    private static int readJournalVersion(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(LEGACY_JOURNAL_HEADER_BYTES);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < LEGACY_JOURNAL_HEADER_BYTES || header.getInt() != JOURNAL_MAGIC) {
+            return 0;
+        }
+        int version = header.getInt();
+        if (version == VERSION && channel.size() >= JOURNAL_HEADER_BYTES) {
+            return VERSION;
+        }
+        return version == LEGACY_VERSION ? LEGACY_VERSION : 0;
+    }
+
+    private static long readJournalGeneration(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        channel.read(buffer, LEGACY_JOURNAL_HEADER_BYTES);
+        return buffer.flip().getLong();
+    }
+
+    /**
+     * 读取快照到persistedIndex并设置generation（版本1的快照还设置legacySnapshotOffset），
+     * 没有有效快照时返回false（代数为0）
+     */
+    private boolean readSnapshot() {
+        generation = 0;
+        legacySnapshotOffset = 0;
+        if (!Files.isRegularFile(snapshotPath)) {
+            return false;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshotPath));
+            if (buffer.remaining() < 24 || buffer.getInt() != SNAPSHOT_MAGIC) {
+                return false;
+            }
+            int version = buffer.getInt();
+            if (version != VERSION && version != LEGACY_VERSION) {
+                return false;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), 0, buffer.limit() - 4);
+            if ((int) crc.getValue() != buffer.getInt(buffer.limit() - 4)) {
+                return false;
+            }
+
+            // 版本2记录代数，版本1记录日志偏移（代数视为0）
+            long value = buffer.getLong();
+            int count = buffer.getInt();
+            if (buffer.remaining() != count * SNAPSHOT_ENTRY_BYTES + 4) {
+                return false;
+            }
+            for (int i = 0; i < count; i++) {
+                ModeStats stats = new ModeStats(buffer.getInt(), buffer.getInt(), buffer.getInt(),
+                        buffer.getInt(), buffer.getLong());
+                persistedIndex.put(key(stats.getRows(), stats.getCols()), stats);
+            }
+            if (version == VERSION) {
+                generation = value;
+            } else {
+                legacySnapshotOffset = value;
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            persistedIndex.clear();
+            return false;
+        }
+    }
+
+    private void writeBatch(List<GameResult> batch) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(batch.size() * RECORD_BYTES);
+        for (GameResult result : batch) {
+            encodeRecord(buffer, result);
+        }
+        buffer.flip();
+        long start = journal.position();
+        try {
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            // 每批只同步一次
+            journal.force(false);
+        } catch (IOException e) {
+            // 去掉写了一半的记录，之后的批次仍按记录边界追加
+            try {
+                journal.truncate(start);
+                journal.position(start);
+            } catch (IOException ignored) {
+                // 截断也失败时，下次启动按校验和截断
+            }
+            throw e;
+        }
+
+        for (GameResult result : batch) {
+            persistedIndex.merge(key(result.getRows(), result.getCols()), ModeStats.of(result), ModeStats::merge);
+        }
+        recordsSinceSnapshot += batch.size();
+        if (recordsSinceSnapshot >= COMPACT_THRESHOLD) {
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * 把已写盘的统计压缩成下一代快照（先写临时文件再原子替换），然后清空日志开始新的一代
+     */
+    private void writeSnapshot() throws IOException {
+        long next = generation + 1;
+        ByteBuffer buffer = ByteBuffer.allocate(20 + persistedIndex.size() * SNAPSHOT_ENTRY_BYTES + 4);
+        buffer.putInt(SNAPSHOT_MAGIC).putInt(VERSION).putLong(next).putInt(persistedIndex.size());
+        for (ModeStats stats : persistedIndex.values()) {
+            buffer.putInt(stats.getRows()).putInt(stats.getCols()).putInt(stats.bestTimeMillis)
+                    .putInt(stats.gamesPlayed).putLong(stats.totalTimeMillis);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+
+        Path temp = snapshotPath.resolveSibling(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        generation = next;
+        resetJournal(journal, next);
+        recordsSinceSnapshot = 0;
+    }
+
+    private static void encodeRecord(ByteBuffer buffer, GameResult result) {
+        int start = buffer.position();
+        buffer.putLong(result.getTimestamp())
+                .putInt(result.getRows())
+                .putInt(result.getCols())
+                .putLong(result.getSeed())
+                .putInt(result.getTimeMillis())
+                .putInt(result.getMoves())
+                .putInt(result.getHintsUsed());
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), buffer.arrayOffset() + start, RECORD_BYTES - 4);
+        buffer.putInt((int) crc.getValue());
+    }
+
+    /**
+     * 解码一条记录，校验失败时返回null
+     */
+    private static GameResult decodeRecord(ByteBuffer buffer) {
+        int start = buffer.position();
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), buffer.arrayOffset() + start, RECORD_BYTES - 4);
+        if ((int) crc.getValue() != buffer.getInt(start + RECORD_BYTES - 4)) {
+            return null;
+        }
+        GameResult result = new GameResult(buffer.getLong(), buffer.getInt(), buffer.getInt(), buffer.getLong(),
+                buffer.getInt(), buffer.getInt(), buffer.getInt());
+        buffer.getInt();
+        return result;
+    }
+
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.force(true);
+            journal.close();
+        } catch (IOException e) {
+            if (GameConstants.DEBUG_MODE) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static int key(int rows, int cols) {
+        return (rows << 16) | cols;
+    }
+}
@@ -0,0 +1,109 @@
+package com.yush.link.utils;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 方块图集：一个文件内打包了已解码、已缩放的ARGB方块图片
+ *
+ * 文件格式（大端序）：
+ * magic(int) version(int) count(int)
+ * count个索引项：tileType(int) width(int) height(int) offset(int)
+ * 像素数据：每个像素一个ARGB int，offset为相对文件头的字节偏移
+ */
+public class TileAtlas {
+    public static final int MAGIC = 0x46544C41; // "FTLA"
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 12;
+    public static final int ENTRY_BYTES = 16;
+
+    // 整个文件映射到内存，像素直接从映射区拷贝到BufferedImage
+    private final IntBuffer pixels;
+    // key = tileType << 16 | size
+    private final Map<Integer, int[]> index = new HashMap<>();
+
+    private TileAtlas(MappedByteBuffer buffer) throws IOException {
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Invalid tile atlas header");
+        }
+
+        int count = buffer.getInt(8);
+        for (int i = 0; i < count; i++) {
+            int base = HEADER_BYTES + i * ENTRY_BYTES;
+            int tileType = buffer.getInt(base);
+            int width = buffer.getInt(base + 4);
+            int height = buffer.getInt(base + 8);
+            int offset = buffer.getInt(base + 12);
+            if (offset % 4 != 0 || offset + (long) width * height * 4 > buffer.capacity()) {
+                throw new IOException("Corrupt tile atlas entry: " + tileType);
+            }
+            if (width == height) {
+                index.put(key(tileType, width), new int[]{width, height, offset / 4});
+            }
+        }
+        this.pixels = buffer.asIntBuffer();
+    }
+
+    /**
+     * 打开图集文件，文件不存在或格式不正确时返回null
+     */
+    public static TileAtlas open(String path) {
+        Path file = Paths.get(path);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // 映射在通道关闭后仍然有效
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new TileAtlas(buffer);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("无法加载方块图集: " + path);
+            if (GameConstants.DEBUG_MODE) {
+                e.printStackTrace();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 判断图集中是否包含指定尺寸的方块
+     */
+    public boolean contains(int tileType, int size) {
+        return index.containsKey(key(tileType, size));
+    }
+
+    /**
+     * 从图集中取出方块图片，不包含时返回null
+     */
+    public BufferedImage getTile(int tileType, int size) {
+        int[] entry = index.get(key(tileType, size));
+        if (entry == null) {
+            return null;
+        }
+
+        BufferedImage image = new BufferedImage(entry[0], entry[1], BufferedImage.TYPE_INT_ARGB);
+        int[] data = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        // 各线程使用独立视图，避免共享position
+        IntBuffer view = pixels.duplicate();
+        view.position(entry[2]);
+        view.get(data, 0, data.length);
+        return image;
+    }
+
+    private static int key(int tileType, int size) {
+        return (tileType << 16) | size;
+    }
+}
@@ -0,0 +1,76 @@
+package com.yush.link.utils;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 图集生成工具：读取tiles目录下的PNG，按渲染尺寸缩放后打包成图集文件
+ *
+ * 用法：java com.yush.link.utils.TileAtlasGenerator [尺寸...]
+ * 不指定尺寸时生成GameConstants.TILE_IMAGE_SIZE的1倍和2倍（高分屏）两种尺寸
+ */
+public class TileAtlasGenerator {
+    public static void main(String[] args) throws IOException {
+        List<Integer> sizes = new ArrayList<>();
+        for (String arg : args) {
+            sizes.add(Integer.parseInt(arg));
+        }
+        if (sizes.isEmpty()) {
+            sizes.add(GameConstants.TILE_IMAGE_SIZE);
+            sizes.add(GameConstants.TILE_IMAGE_SIZE * 2);
+        }
+
+        // 收集所有存在的方块图片
+        List<Integer> tileTypes = new ArrayList<>();
+        for (int type = 1; Files.isRegularFile(Paths.get(GameConstants.TILE_PATH + type + ".png")); type++) {
+            tileTypes.add(type);
+        }
+
+        Path output = Paths.get(GameConstants.TILE_ATLAS);
+        int count = tileTypes.size() * sizes.size();
+        long start = System.nanoTime();
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(output)))) {
+            out.writeInt(TileAtlas.MAGIC);
+            out.writeInt(TileAtlas.VERSION);
+            out.writeInt(count);
+
+            // 写入索引
+            int offset = TileAtlas.HEADER_BYTES + count * TileAtlas.ENTRY_BYTES;
+            for (int type : tileTypes) {
+                for (int size : sizes) {
+                    out.writeInt(type);
+                    out.writeInt(size);
+                    out.writeInt(size);
+                    out.writeInt(offset);
+                    offset += size * size * 4;
+                }
+            }
+
+            // 写入像素数据，顺序与索引一致
+            for (int type : tileTypes) {
+                Image source = ResourceLoader.loadTileImage(type);
+                if (source == null) {
+                    throw new IOException("Cannot read tile image " + type);
+                }
+                for (int size : sizes) {
+                    BufferedImage scaled = ResourceLoader.scaleImage(source, size, size);
+                    for (int argb : scaled.getRGB(0, 0, size, size, null, 0, size)) {
+                        out.writeInt(argb);
+                    }
+                }
+            }
+        }
+
+        System.out.printf("Wrote %d tiles %s to %s in %d ms%n", count, sizes, output,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
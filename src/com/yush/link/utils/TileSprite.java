@@ -0,0 +1,83 @@
+package com.yush.link.utils;
+
+import java.awt.*;
+import java.awt.image.AbstractMultiResolutionImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 多分辨率方块图片：按设备缩放比例懒加载对应像素尺寸的版本
+ *
+ * Java2D在缩放屏幕上绘制时会按实际像素尺寸请求版本，
+ * 因此每次绘制都能命中原生分辨率的图片，不会在绘制时再次插值。
+ * 各尺寸的版本存放在ResourceLoader的缩放图片缓存中（容量由engine.spriteCacheSize限制），
+ * 这里只记住最近一次使用的版本，省去每次绘制时查找缓存。
+ */
+public class TileSprite extends AbstractMultiResolutionImage {
+    private final int tileType;
+    private final int logicalSize;
+    private final Image baseImage;
+    // 最近一次使用的高分辨率版本，没有时为null
+    private volatile Variant lastVariant;
+
+    private static final class Variant {
+        final int pixelSize;
+        final Image image;
+
+        Variant(int pixelSize, Image image) {
+            this.pixelSize = pixelSize;
+            this.image = image;
+        }
+    }
+
+    public TileSprite(int tileType, int logicalSize, Image baseImage) {
+        this.tileType = tileType;
+        this.logicalSize = logicalSize;
+        this.baseImage = baseImage;
+    }
+
+    @Override
+    public Image getResolutionVariant(double destImageWidth, double destImageHeight) {
+        int pixelSize = (int) Math.ceil(Math.max(destImageWidth, destImageHeight) - 0.001);
+        if (pixelSize <= logicalSize) {
+            return baseImage;
+        }
+        Variant last = lastVariant;
+        if (last != null && last.pixelSize == pixelSize) {
+            return last.image;
+        }
+        Image variant = ResourceLoader.getTileImage(tileType, pixelSize);
+        if (variant == null) {
+            return baseImage;
+        }
+        lastVariant = new Variant(pixelSize, variant);
+        return variant;
+    }
+
+    /**
+     * 获取指定缩放比例下的版本（用于预加载）
+     */
+    public Image getVariantForScale(double scale) {
+        return getResolutionVariant(logicalSize * scale, logicalSize * scale);
+    }
+
+    @Override
+    public List<Image> getResolutionVariants() {
+        List<Image> variants = new ArrayList<>(2);
+        variants.add(baseImage);
+        Variant last = lastVariant;
+        if (last != null) {
+            variants.add(last.image);
+        }
+        return variants;
+    }
+
+    @Override
+    protected Image getBaseImage() {
+        return baseImage;
+    }
+
+    public int getLogicalSize() {
+        return logicalSize;
+    }
+}
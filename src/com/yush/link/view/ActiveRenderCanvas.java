@@ -0,0 +1,184 @@
+package com.yush.link.view;
+
+import com.yush.link.utils.FrameStats;
+import com.yush.link.utils.GameConstants;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferStrategy;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 主动渲染画布：渲染线程按目标帧率驱动，通过BufferStrategy翻页显示
+ *
+ * 渲染线程只负责帧节奏和统计，实际绘制在EDT上执行，
+ * 这样读取棋盘、按钮和动画状态时不需要额外加锁。
+ */
+public class ActiveRenderCanvas extends Canvas {
+    private static final Font STATS_FONT = new Font("Monospaced", Font.PLAIN, 12);
+    private static final Color STATS_BACKGROUND = new Color(0, 0, 0, 150);
+
+    private final GamePanel panel;
+    private final int targetFps;
+    private final FrameStats frameStats;
+
+    private volatile boolean running = false;
+    private Thread renderThread;
+
+    // 以下字段只在EDT上访问
+    private BufferStrategy strategy;
+    private Point hoverPoint;
+    private boolean showStats = GameConstants.DEBUG_MODE;
+
+    public ActiveRenderCanvas(GamePanel panel, int targetFps) {
+        this.panel = panel;
+        this.targetFps = Math.max(1, targetFps);
+        this.frameStats = new FrameStats(this.targetFps * 5, this.targetFps);
+
+        setIgnoreRepaint(true);
+        setFocusable(true);
+
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (SwingUtilities.isLeftMouseButton(e)) {
+                    panel.handleActiveClick(e.getPoint());
+                }
+            }
+
+            @Override
+            public void mouseExited(MouseEvent e) {
+                hoverPoint = null;
+            }
+        });
+        addMouseMotionListener(new MouseAdapter() {
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                hoverPoint = e.getPoint();
+            }
+        });
+        addMouseWheelListener(panel::handleMouseWheel);
+        // F3 切换帧统计显示，其余快捷键（撤销、重做）交给面板
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_F3) {
+                    showStats = !showStats;
+                } else {
+                    panel.handleShortcut(e);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        start();
+    }
+
+    @Override
+    public void removeNotify() {
+        stop();
+        strategy = null;
+        super.removeNotify();
+    }
+
+    private void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        renderThread = new Thread(this::renderLoop, "render-loop");
+        renderThread.setDaemon(true);
+        renderThread.start();
+    }
+
+    private void stop() {
+        running = false;
+        if (renderThread != null) {
+            renderThread.interrupt();
+            renderThread = null;
+        }
+    }
+
+    /**
+     * 渲染循环：每帧在EDT上绘制一次，然后睡眠到下一帧的开始时间
+     */
+    private void renderLoop() {
+        long frameNanos = 1_000_000_000L / targetFps;
+        long nextFrame = System.nanoTime();
+        Runnable renderFrame = this::renderFrame;
+
+        while (running) {
+            long start = System.nanoTime();
+            try {
+                SwingUtilities.invokeAndWait(renderFrame);
+            } catch (InterruptedException e) {
+                break;
+            } catch (InvocationTargetException e) {
+                if (GameConstants.DEBUG_MODE) {
+                    e.getCause().printStackTrace();
+                }
+            }
+            long end = System.nanoTime();
+            frameStats.record(end, end - start);
+
+            nextFrame += frameNanos;
+            long sleep = nextFrame - System.nanoTime();
+            if (sleep > 0) {
+                LockSupport.parkNanos(sleep);
+            } else {
+                // 已经落后，不追赶丢失的帧
+                nextFrame = System.nanoTime();
+            }
+        }
+    }
+
+    private void renderFrame() {
+        if (!running || !isDisplayable() || getWidth() <= 0 || getHeight() <= 0) {
+            return;
+        }
+        if (strategy == null) {
+            createBufferStrategy(2);
+            strategy = getBufferStrategy();
+        }
+
+        do {
+            do {
+                Graphics2D g2d = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    panel.renderActive(g2d, hoverPoint);
+                    if (showStats) {
+                        paintStats(g2d);
+                    }
+                } finally {
+                    g2d.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    private void paintStats(Graphics2D g2d) {
+        String text = frameStats.toString();
+        g2d.setFont(STATS_FONT);
+        FontMetrics metrics = g2d.getFontMetrics();
+        int height = getHeight();
+        g2d.setColor(STATS_BACKGROUND);
+        g2d.fillRect(8, height - metrics.getHeight() - 16, metrics.stringWidth(text) + 16, metrics.getHeight() + 8);
+        g2d.setColor(Color.WHITE);
+        g2d.drawString(text, 16, height - 12 - metrics.getDescent());
+    }
+
+    public FrameStats getFrameStats() {
+        return frameStats;
+    }
+}
@@ -0,0 +1,194 @@
+package com.yush.link.view;
+
+import com.yush.link.utils.ConfigService;
+import com.yush.link.utils.GameConstants;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 动画调度器：所有动画效果共用一个Swing计时器，每帧合并脏区域后只重绘一次
+ */
+public class AnimationScheduler {
+    // 帧间隔（约60帧/秒）
+    public static final int FRAME_INTERVAL_MS = 16;
+
+    /**
+     * 动画效果，所有方法都在EDT上调用
+     */
+    public interface Effect {
+        /**
+         * 推进到指定时间，返回false表示动画已结束
+         */
+        boolean update(long now);
+
+        /**
+         * 当前帧占用的区域（用于计算重绘范围），可返回null
+         */
+        Rectangle getBounds();
+
+        void paint(Graphics2D g2d);
+
+        /**
+         * 动画结束或被取消时调用
+         */
+        default void onFinish() {
+        }
+    }
+
+    private final JComponent host;
+    private final Timer timer;
+    private final List<Effect> effects = new ArrayList<>();
+
+    // 预算耗尽时下一帧从此处继续推进
+    private int nextIndex = 0;
+    private long lastFrameTime = 0;
+
+    // 帧统计
+    private long frameCount = 0;
+    private long droppedFrames = 0;
+    private long budgetOverruns = 0;
+
+    public AnimationScheduler(JComponent host) {
+        this.host = host;
+        this.timer = new Timer(FRAME_INTERVAL_MS, e -> onFrame());
+        this.timer.setCoalesce(true);
+    }
+
+    /**
+     * 添加动画效果，必要时启动计时器
+     */
+    public void add(Effect effect) {
+        effects.add(effect);
+        repaint(effect.getBounds());
+        if (!timer.isRunning()) {
+            lastFrameTime = 0;
+            timer.start();
+        }
+    }
+
+    /**
+     * 取消动画效果
+     */
+    public void cancel(Effect effect) {
+        int index = effects.indexOf(effect);
+        if (index >= 0) {
+            removeAt(index);
+            repaint(effect.getBounds());
+            effect.onFinish();
+        }
+    }
+
+    /**
+     * 取消所有动画效果
+     */
+    public void cancelAll() {
+        while (!effects.isEmpty()) {
+            cancel(effects.get(effects.size() - 1));
+        }
+    }
+
+    /**
+     * 绘制所有正在运行的效果（由宿主组件在paint中调用）
+     */
+    public void paint(Graphics2D g2d) {
+        for (Effect effect : effects) {
+            Graphics2D effectGraphics = (Graphics2D) g2d.create();
+            effect.paint(effectGraphics);
+            effectGraphics.dispose();
+        }
+    }
+
+    public boolean isIdle() {
+        return effects.isEmpty();
+    }
+
+    private void onFrame() {
+        long now = System.nanoTime();
+
+        // 统计掉帧：两帧间隔超过1.5倍帧间隔即视为丢帧
+        if (lastFrameTime != 0) {
+            long interval = FRAME_INTERVAL_MS * 1_000_000L;
+            long elapsed = now - lastFrameTime;
+            if (elapsed > interval * 3 / 2) {
+                droppedFrames += elapsed / interval - 1;
+            }
+        }
+        lastFrameTime = now;
+        frameCount++;
+
+        // 每帧用于推进动画的时间预算（engine.animationBudgetMs），超出后剩余效果顺延到下一帧
+        long budgetNanos = ConfigService.get().getAnimationBudgetMs() * 1_000_000L;
+        Rectangle dirty = null;
+        int processed = 0;
+        int count = effects.size();
+        int index = count == 0 ? 0 : nextIndex % count;
+
+        while (processed < count) {
+            Effect effect = effects.get(index);
+            dirty = union(dirty, effect.getBounds());
+
+            if (effect.update(now)) {
+                dirty = union(dirty, effect.getBounds());
+                index++;
+            } else {
+                removeAt(index);
+                effect.onFinish();
+            }
+            processed++;
+
+            if (index >= effects.size()) {
+                index = 0;
+            }
+            // 预算耗尽，剩余效果下一帧再推进
+            if (processed < count && System.nanoTime() - now > budgetNanos) {
+                budgetOverruns++;
+                break;
+            }
+        }
+        nextIndex = index;
+
+        if (dirty != null) {
+            host.repaint(dirty);
+        }
+
+        if (effects.isEmpty()) {
+            timer.stop();
+            lastFrameTime = 0;
+            if (GameConstants.DEBUG_MODE) {
+                System.out.println(getStatistics());
+            }
+        }
+    }
+
+    private void removeAt(int index) {
+        effects.remove(index);
+        if (nextIndex > index) {
+            nextIndex--;
+        }
+    }
+
+    private void repaint(Rectangle bounds) {
+        if (bounds != null) {
+            host.repaint(bounds);
+        }
+    }
+
+    private static Rectangle union(Rectangle dirty, Rectangle bounds) {
+        if (bounds == null) {
+            return dirty;
+        }
+        return dirty == null ? new Rectangle(bounds) : dirty.union(bounds);
+    }
+
+    public long getFrameCount() { return frameCount; }
+    public long getDroppedFrames() { return droppedFrames; }
+    public long getBudgetOverruns() { return budgetOverruns; }
+
+    public String getStatistics() {
+        return String.format("Animation frames=%d dropped=%d budgetOverruns=%d",
+                frameCount, droppedFrames, budgetOverruns);
+    }
+}
@@ -0,0 +1,184 @@
+package com.yush.link.view;
+
+import com.yush.link.model.Position;
+import com.yush.link.utils.GameConstants;
+import com.yush.link.utils.ResourceLoader;
+import com.yush.link.utils.TileSprite;
+
+import java.awt.*;
+import java.awt.geom.RoundRectangle2D;
+import java.util.List;
+
+/**
+ * 棋盘上的动画效果：连接路径、方块消失、提示闪烁
+ */
+public class BoardEffects {
+    private static final Stroke PATH_STROKE = new BasicStroke(5, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    private static final Stroke HINT_STROKE = new BasicStroke(3);
+    private static final Color HINT_COLOR = new Color(100, 0, 200);
+
+    /**
+     * 效果基类：记录开始时间，并在结束时执行回调
+     */
+    private abstract static class TimedEffect implements AnimationScheduler.Effect {
+        protected final GamePanel panel;
+        protected final long durationNanos;
+        private final Runnable onFinish;
+        private long startTime = -1;
+        protected float progress = 0f;  // 0~1
+
+        TimedEffect(GamePanel panel, long durationMillis, Runnable onFinish) {
+            this.panel = panel;
+            this.durationNanos = Math.max(1, durationMillis) * 1_000_000L;
+            this.onFinish = onFinish;
+        }
+
+        @Override
+        public boolean update(long now) {
+            if (startTime < 0) {
+                startTime = now;
+            }
+            progress = Math.min(1f, (now - startTime) / (float) durationNanos);
+            return progress < 1f;
+        }
+
+        @Override
+        public void onFinish() {
+            if (onFinish != null) {
+                onFinish.run();
+            }
+        }
+    }
+
+    /**
+     * 连接路径：先沿路径逐段描出，停留片刻后淡出
+     */
+    public static class PathTrace extends TimedEffect {
+        private static final float TRACE_END = 0.4f;
+        private static final float FADE_START = 0.7f;
+        private final List<Position> path;
+
+        public PathTrace(GamePanel panel, List<Position> path, long durationMillis, Runnable onFinish) {
+            super(panel, durationMillis, onFinish);
+            this.path = path;
+        }
+
+        @Override
+        public Rectangle getBounds() {
+            Rectangle bounds = null;
+            for (Position pos : path) {
+                Rectangle cell = panel.getCellBounds(pos.getRow(), pos.getCol());
+                bounds = bounds == null ? cell : bounds.union(cell);
+            }
+            return bounds;
+        }
+
+        @Override
+        public void paint(Graphics2D g2d) {
+            if (path.size() < 2) {
+                return;
+            }
+
+            float alpha = progress <= FADE_START ? 1f : 1f - (progress - FADE_START) / (1f - FADE_START);
+            float traced = Math.min(1f, progress / TRACE_END) * (path.size() - 1);
+
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, Math.max(0f, alpha)));
+            g2d.setColor(GameConstants.FAIRY_GREEN);
+            g2d.setStroke(PATH_STROKE);
+
+            for (int i = 0; i < path.size() - 1 && i < traced; i++) {
+                Point p1 = center(path.get(i));
+                Point p2 = center(path.get(i + 1));
+                float segment = Math.min(1f, traced - i);
+                int x2 = p1.x + Math.round((p2.x - p1.x) * segment);
+                int y2 = p1.y + Math.round((p2.y - p1.y) * segment);
+                g2d.drawLine(p1.x, p1.y, x2, y2);
+            }
+        }
+
+        private Point center(Position pos) {
+            Rectangle cell = panel.getCellBounds(pos.getRow(), pos.getCol());
+            return new Point(cell.x + cell.width / 2, cell.y + cell.height / 2);
+        }
+    }
+
+    /**
+     * 方块消失：缩小并淡出
+     */
+    public static class TileFade extends TimedEffect {
+        private final int row;
+        private final int col;
+        private final int tileType;
+
+        public TileFade(GamePanel panel, int row, int col, int tileType, long durationMillis) {
+            super(panel, durationMillis, null);
+            this.row = row;
+            this.col = col;
+            this.tileType = tileType;
+        }
+
+        @Override
+        public Rectangle getBounds() {
+            return panel.getCellBounds(row, col);
+        }
+
+        @Override
+        public void paint(Graphics2D g2d) {
+            Rectangle cell = getBounds();
+            TileSprite sprite = ResourceLoader.getTileSprite(tileType, cell.width - 12);
+            if (sprite == null) {
+                return;
+            }
+            // 缩放动画中尺寸每帧都在变，使用设备分辨率的完整尺寸版本缩小绘制，不为中间尺寸生成缓存
+            Image image = sprite.getVariantForScale(g2d.getTransform().getScaleX());
+
+            float scale = 1f - 0.4f * progress;
+            int size = Math.round((cell.width - 12) * scale);
+            g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1f - progress));
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2d.drawImage(image, cell.x + (cell.width - size) / 2, cell.y + (cell.height - size) / 2,
+                    size, size, null);
+        }
+    }
+
+    /**
+     * 提示闪烁：在两个方块外圈绘制呼吸效果的边框
+     */
+    public static class HintPulse extends TimedEffect {
+        private static final float PULSE_PERIOD_MS = 600f;
+        private final Position first;
+        private final Position second;
+
+        public HintPulse(GamePanel panel, Position first, Position second, long durationMillis, Runnable onFinish) {
+            super(panel, durationMillis, onFinish);
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public Rectangle getBounds() {
+            return panel.getCellBounds(first.getRow(), first.getCol())
+                    .union(panel.getCellBounds(second.getRow(), second.getCol()));
+        }
+
+        @Override
+        public void paint(Graphics2D g2d) {
+            double elapsedMs = progress * durationNanos / 1_000_000.0;
+            float alpha = (float) (0.35 + 0.65 * (0.5 + 0.5 * Math.sin(elapsedMs / PULSE_PERIOD_MS * 2 * Math.PI)));
+
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
+            g2d.setColor(HINT_COLOR);
+            g2d.setStroke(HINT_STROKE);
+            drawRing(g2d, first);
+            drawRing(g2d, second);
+        }
+
+        private void drawRing(Graphics2D g2d, Position pos) {
+            Rectangle cell = panel.getCellBounds(pos.getRow(), pos.getCol());
+            g2d.draw(new RoundRectangle2D.Float(cell.x + 2, cell.y + 2,
+                    cell.width - 4, cell.height - 4, 15, 15));
+        }
+    }
+}
@@ -1,10 +1,21 @@
 package com.yush.link.view;
 
+import com.yush.link.model.BoardLayout;
+import com.yush.link.model.Difficulty;
+import com.yush.link.model.GameResult;
+import com.yush.link.model.GravityMode;
+import com.yush.link.model.SavedGame;
+import com.yush.link.utils.ConfigService;
+import com.yush.link.utils.GameConfig;
 import com.yush.link.utils.GameConstants;
+import com.yush.link.utils.ScoreStore;
 import com.yush.link.controller.GameController;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.function.Consumer;
 
 public class GameFrame extends JFrame {
     private GameController gameController;
@@ -12,13 +23,62 @@ public class GameFrame extends JFrame {
     private JDialog pauseDialog;    // 暂停对话框
     private int rows, cols;
     private int tileTypes;
+    private final BoardLayout layout;   // 棋盘形状
+    private final GravityMode gravityMode;
+    private final Difficulty difficulty;    // 目标难度，null表示不筛选棋盘
+    private final SavedGame savedGame;      // 继续的存档，新开局时为null
+
+    // 配置变化监听器（配置服务在监视线程上回调，切换到EDT后应用）
+    private final Consumer<GameConfig> configListener = config -> SwingUtilities.invokeLater(() -> {
+        if (gamePanel != null) {
+            gamePanel.applyConfig(config);
+        }
+    });
 
     /**
      * 游戏主窗口
      */
     public GameFrame(int rows, int cols, int tileTypes) {
-        this.rows = rows;
-        this.cols = cols;
+        this(BoardLayout.rectangle(rows, cols), tileTypes);
+    }
+
+    /**
+     * 使用指定形状的棋盘
+     */
+    public GameFrame(BoardLayout layout, int tileTypes) {
+        this(layout, tileTypes, GravityMode.NONE);
+    }
+
+    /**
+     * 使用指定形状的棋盘和重力模式
+     */
+    public GameFrame(BoardLayout layout, int tileTypes, GravityMode gravityMode) {
+        this(layout, tileTypes, gravityMode, null);
+    }
+
+    /**
+     * 使用指定形状、重力模式和目标难度
+     */
+    public GameFrame(BoardLayout layout, int tileTypes, GravityMode gravityMode, Difficulty difficulty) {
+        this(layout, tileTypes, gravityMode, difficulty, null);
+    }
+
+    /**
+     * 继续存档中的对局
+     */
+    public GameFrame(SavedGame savedGame) {
+        this(savedGame.getBoard().getLayout(), savedGame.getBoard().getTileTypes(),
+                savedGame.getBoard().getGravityMode(), savedGame.getDifficulty(), savedGame);
+    }
+
+    private GameFrame(BoardLayout layout, int tileTypes, GravityMode gravityMode, Difficulty difficulty,
+                      SavedGame savedGame) {
+        this.layout = layout;
+        this.savedGame = savedGame;
+        this.gravityMode = gravityMode;
+        this.difficulty = difficulty;
+        this.rows = layout.getRows();
+        this.cols = layout.getCols();
         this.tileTypes = tileTypes;
 
         try {
@@ -46,16 +106,38 @@ public class GameFrame extends JFrame {
             // 2. 添加到主窗口
             setContentPane(gamePanel);
 
+            // 可选：主动渲染模式（engine.renderMode=active，新开局时生效）
+            GameConfig config = ConfigService.get();
+            if (config.isActiveRendering()) {
+                gamePanel.enableActiveRendering(config.getTargetFps());
+            }
+
             // 3. 初始化控制器
-            gameController = new GameController(rows, cols, tileTypes, gamePanel);
+            gameController = savedGame != null ? new GameController(savedGame, gamePanel)
+                    : new GameController(layout, tileTypes, gravityMode, difficulty, gamePanel);
             gamePanel.setGameController(gameController);
 
+            // 应用配置，并在配置文件变化时更新界面
+            gamePanel.applyConfig(config);
+            ConfigService.addListener(configListener);
+
             // 4. 创建暂停菜单
             createPauseMenu();
 
-            // 5. 自动启动计时器
+            // 关闭窗口时保存未结束的对局（退出前存档线程会写完）
+            addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowClosing(WindowEvent e) {
+                    gameController.close();
+                }
+            });
+
+            // 5. 自动启动计时器（继续存档时从存档的时间开始）
             SwingUtilities.invokeLater(() -> {
                 if (gamePanel.getTimerPanel() != null) {
+                    if (savedGame != null) {
+                        gamePanel.getTimerPanel().setElapsedMillis(savedGame.getElapsedMillis());
+                    }
                     gamePanel.getTimerPanel().startTimer();
                 }
             });
@@ -206,7 +288,8 @@ public class GameFrame extends JFrame {
     public void returnToMenu() {
         int result = JOptionPane.showConfirmDialog(
                 this,
-                "Return to main menu? Current progress will be lost.",
+                gameController.isFinished() ? "Return to main menu?"
+                        : "Return to main menu? This game is saved and can be resumed from the menu.",
                 "Main Menu",
                 JOptionPane.YES_NO_OPTION,
                 JOptionPane.WARNING_MESSAGE
@@ -253,10 +336,14 @@ public class GameFrame extends JFrame {
         String timeStr = String.format("%02d:%02d",
                 timeInSeconds / 60, timeInSeconds % 60);
 
+        // 记录成绩（后台写盘），并与历史最佳比较；自动演示的对局不记录
+        String recordStr = gameController.isAutoPlayed() ? "Played by the bot" : recordResult();
+
         int result = JOptionPane.showConfirmDialog(
                 this,
                 "Congratulations! All tiles cleared!\n" +
-                        "Time used: " + timeStr + "\n\n" +
+                        "Time used: " + timeStr + "\n" +
+                        recordStr + "\n\n" +
                         "Start a new game?",
                 "Game Complete",
                 JOptionPane.YES_NO_OPTION,
@@ -270,6 +357,25 @@ public class GameFrame extends JFrame {
         }
     }
 
+    /**
+     * 保存本局成绩，返回最佳成绩描述
+     */
+    private String recordResult() {
+        int timeMillis = (int) gamePanel.getTimerPanel().getElapsedMillis();
+        ScoreStore store = ScoreStore.getInstance();
+        int previousBest = store.getBestTimeMillis(rows, cols);
+
+        store.record(new GameResult(System.currentTimeMillis(), rows, cols,
+                gameController.getGameBoard().getSeed(), timeMillis,
+                gameController.getMoves(), gameController.getHintsUsed()));
+
+        if (previousBest < 0 || timeMillis < previousBest) {
+            return "New record!";
+        }
+        int bestSeconds = previousBest / 1000;
+        return String.format("Best time: %02d:%02d", bestSeconds / 60, bestSeconds % 60);
+    }
+
     /**
      * 重新开始游戏
      */
@@ -278,18 +384,26 @@ public class GameFrame extends JFrame {
         if (gameController != null) {
             gameController.restartGame();
         }
+        restartTimer();
+    }
 
+    /**
+     * 按种子重新开始（重现指定的棋盘）
+     */
+    public void restartGame(long seed) {
+        if (gameController != null) {
+            gameController.restartGame(seed);
+        }
+        restartTimer();
+    }
+
+    private void restartTimer() {
         // 重置计时器
         if (gamePanel != null && gamePanel.getTimerPanel() != null) {
             gamePanel.getTimerPanel().resetTimer();
             gamePanel.getTimerPanel().startTimer();
         }
 
-        // 刷新游戏面板
-        if (gamePanel != null) {
-            gamePanel.refreshBoard();
-            gamePanel.repaint();
-        }
     }
 
     /**
@@ -320,6 +434,10 @@ public class GameFrame extends JFrame {
      */
     @Override
     public void dispose() {
+        ConfigService.removeListener(configListener);
+        if (gameController != null) {
+            gameController.close();
+        }
         super.dispose();
     }
 }
\ No newline at end of file
@@ -1,13 +1,28 @@
 package com.yush.link.view;
 
+import com.yush.link.utils.ConfigService;
+import com.yush.link.utils.GameConfig;
 import com.yush.link.utils.GameConstants;
+import com.yush.link.controller.BotPlayer;
 import com.yush.link.controller.GameController;
+import com.yush.link.model.BoardLayout;
+import com.yush.link.model.GameBoard;
+import com.yush.link.model.GravityMode;
 import com.yush.link.model.Position;
+import com.yush.link.model.Tile;
 import com.yush.link.utils.ResourceLoader;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class GamePanel extends JPanel {
     private GameController gameController;
@@ -20,23 +35,87 @@ public class GamePanel extends JPanel {
     // 界面按钮
     private JButton pauseButton;
     private JButton hintButton;
+    private JButton autoButton;
+    private JButton undoButton;
+    private JButton redoButton;
 
     // 计时器面板
     private TimerPanel timerPanel;
 
-    // 棋盘位置和尺寸
+    // 棋盘视口位置和尺寸（棋盘放不下时只显示视口内的部分，可滚动和缩放）
     private int boardStartX;
     private int boardStartY;
+    private int viewWidth;
+    private int viewHeight;
     private int actualRows;
     private int actualCols;
     private int boardWidth;
     private int boardHeight;
+    private int tileSize = GameConstants.TILE_SIZE;
+    private int zoomTileSize = 0;   // 手动缩放的方块尺寸，0表示自动适应窗口
+
+    // 视口左上角在棋盘中的像素偏移
+    private int scrollX;
+    private int scrollY;
+
+    // 方块按钮层：只为视口内的格子创建按钮，滚动时复用已有按钮重新绑定格子
+    private JPanel boardLayer;
+    private final List<TileButton> buttonPool = new ArrayList<>();
+    private TileButton[] visibleButtons;
+    private int firstVisibleRow;
+    private int firstVisibleCol;
+    private int visibleRowCount;
+    private int visibleColCount;
+
+    // 格子的选中和高亮状态（按钮复用时据此恢复显示）
+    private Position selectedCell;
+    private final Set<Position> highlightedCells = new HashSet<>();
+
+    // 小地图（棋盘超出视口时显示）
+    private MiniMapPanel miniMap;
 
     // 布局常量
     private static final int TITLE_MARGIN_TOP = 40;
     private static final int TITLE_MARGIN_LEFT = 30;
     private static final int SUBTITLE_MARGIN_TOP = 100;
     private static final int BUTTON_AREA_WIDTH = 180;
+    private static final int BUTTON_COUNT = 5;
+    // 方块最小尺寸及缩放步长（按步长取整，避免拖动窗口时生成过多尺寸的缓存图片）
+    private static final int MIN_TILE_SIZE = 30;
+    private static final int TILE_SIZE_STEP = 5;
+    // 手动缩放的最小方块尺寸
+    private static final int MIN_ZOOM_TILE_SIZE = 20;
+    // 滚轮每格滚动的方块数
+    private static final int SCROLL_CELLS_PER_NOTCH = 3;
+    private static final int MINI_MAP_MARGIN_TOP = 20;
+
+    // 绘制用的字体、颜色和线条（避免每帧重复创建）
+    private static final Font TITLE_FONT = new Font("Dialog", Font.BOLD, 48);
+    private static final Font SUBTITLE_FONT = new Font("Dialog", Font.PLAIN, 26);
+    private static final Color SUBTITLE_COLOR = new Color(255, 255, 255, 220);
+    private static final Color BOARD_BACKGROUND_COLOR = new Color(255, 255, 255, 200);
+    private static final Color GRID_COLOR = new Color(GameConstants.FAIRY_BLUE1.getRed(),
+            GameConstants.FAIRY_BLUE1.getGreen(), GameConstants.FAIRY_BLUE1.getBlue(), 120);
+    private static final Color BUTTON_AREA_COLOR = new Color(0, 0, 0, 30);
+    private static final Color BLOCKED_COLOR = new Color(90, 70, 110, 200);
+    private static final Color BLOCKED_BORDER_COLOR = new Color(60, 45, 70);
+    private static final Stroke BOARD_BORDER_STROKE = new BasicStroke(4);
+    private static final Stroke GRID_STROKE = new BasicStroke(1.5f);
+
+    // 动画时长（毫秒）
+    private static final long PATH_TRACE_MS = 500;
+    private static final long TILE_FADE_MS = 300;
+    private static final long HINT_PULSE_MS = 2000;
+
+    // 静态图层缓存
+    private BufferedImage staticLayer;
+
+    // 动画调度器
+    private final AnimationScheduler animationScheduler = new AnimationScheduler(this);
+
+    // 主动渲染画布（未开启时为null）
+    private ActiveRenderCanvas activeCanvas;
+    private static final Stroke BUTTON_BORDER_STROKE = new BasicStroke(2);
 
     // 按钮位置
     private int buttonX;
@@ -52,8 +131,8 @@ public class GamePanel extends JPanel {
         // 计算棋盘参数
         actualRows = rows + 2;
         actualCols = cols + 2;
-        boardWidth = actualCols * GameConstants.TILE_SIZE;
-        boardHeight = actualRows * GameConstants.TILE_SIZE;
+        boardWidth = actualCols * tileSize;
+        boardHeight = actualRows * tileSize;
 
         // 计算按钮位置
         buttonX = GameConstants.WINDOW_WIDTH - BUTTON_AREA_WIDTH + 20;
@@ -75,16 +154,28 @@ public class GamePanel extends JPanel {
         // 创建界面按钮
         createInterfaceButtons();
 
+        // 方块按钮层（子组件自动裁剪到视口内）
+        boardLayer = new JPanel(null) {
+            @Override
+            protected void paintComponent(Graphics g) {
+                paintGrid((Graphics2D) g);
+            }
+        };
+        boardLayer.setOpaque(false);
+        add(boardLayer);
+
+        // 小地图
+        miniMap = new MiniMapPanel(this);
+        miniMap.setVisible(false);
+        add(miniMap);
+
+        // 滚轮滚动视口，Shift+滚轮水平滚动，Ctrl+滚轮缩放
+        addMouseWheelListener(this::handleMouseWheel);
+
         // 加载背景图片
         try {
-            backgroundImage = ResourceLoader.loadImage(GameConstants.GAME_BG);
-            if (backgroundImage != null) {
-                backgroundImage = backgroundImage.getScaledInstance(
-                        GameConstants.WINDOW_WIDTH,
-                        GameConstants.WINDOW_HEIGHT,
-                        Image.SCALE_SMOOTH
-                );
-            }
+            backgroundImage = ResourceLoader.loadScaledImage(GameConstants.GAME_BG,
+                    GameConstants.WINDOW_WIDTH, GameConstants.WINDOW_HEIGHT);
         } catch (Exception e) {
             System.err.println("Cannot load game background image, using default color");
             backgroundImage = null;
@@ -98,12 +189,18 @@ public class GamePanel extends JPanel {
         // 按钮配置
         String[] buttonConfigs = {
                 "Pause", "pause",
-                "Hint", "hint"
+                "Hint", "hint",
+                "Undo", "undo",
+                "Redo", "redo",
+                "Auto", "auto"
         };
 
         Color[] buttonColors = {
                 GameConstants.FAIRY_PINK,    // 暂停
-                GameConstants.FAIRY_GREEN    // 提示
+                GameConstants.FAIRY_GREEN,   // 提示
+                GameConstants.FAIRY_YELLOW,  // 撤销
+                GameConstants.FAIRY_YELLOW,  // 重做
+                GameConstants.FAIRY_BLUE1    // 自动演示
         };
 
         int buttonY = buttonStartY;
@@ -127,10 +224,52 @@ public class GamePanel extends JPanel {
             switch(command) {
                 case "pause": pauseButton = button; break;
                 case "hint": hintButton = button; break;
+                case "undo": undoButton = button; break;
+                case "redo": redoButton = button; break;
+                case "auto": autoButton = button; break;
             }
 
             add(button);
         }
+        setUndoAvailable(false, false);
+
+        // Ctrl+Z 撤销，Ctrl+Y 或 Ctrl+Shift+Z 重做
+        InputMap inputMap = getInputMap(WHEN_IN_FOCUSED_WINDOW);
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_Z, InputEvent.CTRL_DOWN_MASK), "undo");
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_Y, InputEvent.CTRL_DOWN_MASK), "redo");
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_Z, InputEvent.CTRL_DOWN_MASK | InputEvent.SHIFT_DOWN_MASK), "redo");
+        for (String command : new String[]{"undo", "redo"}) {
+            getActionMap().put(command, new AbstractAction() {
+                @Override
+                public void actionPerformed(java.awt.event.ActionEvent e) {
+                    handleButtonAction(command);
+                }
+            });
+        }
+    }
+
+    /**
+     * 主动渲染的画布获得焦点时，Swing的快捷键不生效，由画布转发按键
+     */
+    void handleShortcut(KeyEvent e) {
+        if (!e.isControlDown()) {
+            return;
+        }
+        if (e.getKeyCode() == KeyEvent.VK_Y || e.getKeyCode() == KeyEvent.VK_Z && e.isShiftDown()) {
+            handleButtonAction("redo");
+        } else if (e.getKeyCode() == KeyEvent.VK_Z) {
+            handleButtonAction("undo");
+        }
+    }
+
+    /**
+     * 更新撤销、重做按钮是否可用
+     */
+    public void setUndoAvailable(boolean canUndo, boolean canRedo) {
+        if (undoButton != null) {
+            undoButton.setEnabled(canUndo);
+            redoButton.setEnabled(canRedo);
+        }
     }
 
     private JButton createFloatingButton(String text, Color textColor) {
@@ -192,6 +331,19 @@ public class GamePanel extends JPanel {
                         gameController.showHint();
                     }
                     break;
+                case "undo":
+                    if (gameController != null) {
+                        gameController.undo();
+                    }
+                    break;
+                case "redo":
+                    if (gameController != null) {
+                        gameController.redo();
+                    }
+                    break;
+                case "auto":
+                    toggleAutoPlay();
+                    break;
             }
         } catch (Exception ex) {
             ex.printStackTrace();
@@ -199,9 +351,34 @@ public class GamePanel extends JPanel {
         }
     }
 
+    /**
+     * 开始或停止自动演示（策略和速度取自配置）
+     */
+    private void toggleAutoPlay() {
+        if (gameController == null) {
+            return;
+        }
+        if (gameController.isAutoPlaying()) {
+            gameController.stopAutoPlay();
+        } else {
+            GameConfig config = ConfigService.get();
+            gameController.startAutoPlay(BotPlayer.Policy.fromName(config.getBotPolicy()),
+                    config.getBotMoveDelayMs(), config.getBotMoveBudgetMs());
+        }
+    }
+
+    /**
+     * 更新自动演示按钮的文字
+     */
+    public void setAutoPlaying(boolean playing) {
+        if (autoButton != null) {
+            autoButton.setText(playing ? "Stop" : "Auto");
+        }
+    }
+
     public void setGameController(GameController controller) {
         this.gameController = controller;
-        createTileButtons();
+        refreshBoard();
     }
 
     private void calculateBoardPosition() {
@@ -214,64 +391,330 @@ public class GamePanel extends JPanel {
         int availableWidth = panelWidth - BUTTON_AREA_WIDTH - 40;
         int availableHeight = panelHeight - 120;
 
-        boardStartX = (availableWidth - boardWidth) / 2 + 20;
-        boardStartY = (availableHeight - boardHeight) / 2 + 120;
+        // 根据可用区域缩放方块尺寸；放不下时使用最小尺寸并滚动显示
+        if (zoomTileSize > 0) {
+            tileSize = zoomTileSize;
+        } else {
+            int fitSize = Math.min((availableWidth - 20) / actualCols, (availableHeight - 70) / actualRows);
+            fitSize = fitSize / TILE_SIZE_STEP * TILE_SIZE_STEP;
+            tileSize = Math.max(MIN_TILE_SIZE, Math.min(GameConstants.TILE_SIZE, fitSize));
+        }
+        boardWidth = actualCols * tileSize;
+        boardHeight = actualRows * tileSize;
+        viewWidth = Math.max(tileSize, Math.min(boardWidth, availableWidth - 20));
+        viewHeight = Math.max(tileSize, Math.min(boardHeight, availableHeight - 70));
+
+        boardStartX = (availableWidth - viewWidth) / 2 + 20;
+        boardStartY = (availableHeight - viewHeight) / 2 + 120;
 
-        if (boardStartY + boardHeight > panelHeight - 50) {
-            boardStartY = panelHeight - boardHeight - 50;
+        if (boardStartY + viewHeight > panelHeight - 50) {
+            boardStartY = panelHeight - viewHeight - 50;
         }
+
+        scrollX = clamp(scrollX, 0, boardWidth - viewWidth);
+        scrollY = clamp(scrollY, 0, boardHeight - viewHeight);
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(Math.max(min, max), value));
     }
 
-    private void createTileButtons() {
-        // 先移除现有的方块按钮
-        Component[] components = getComponents();
-        for (Component comp : components) {
-            if (comp instanceof TileButton) {
-                remove(comp);
+    /**
+     * 棋盘是否超出视口（需要滚动）
+     */
+    public boolean isScrollable() {
+        return viewWidth < boardWidth || viewHeight < boardHeight;
+    }
+
+    /**
+     * 按视口范围绑定方块按钮：按钮数量只与视口内的格子数有关，与棋盘大小无关
+     */
+    private void layoutVisibleCells() {
+        boardLayer.setBounds(boardStartX, boardStartY, viewWidth, viewHeight);
+
+        firstVisibleRow = scrollY / tileSize;
+        firstVisibleCol = scrollX / tileSize;
+        int lastRow = Math.min(actualRows - 1, (scrollY + viewHeight - 1) / tileSize);
+        int lastCol = Math.min(actualCols - 1, (scrollX + viewWidth - 1) / tileSize);
+        visibleRowCount = lastRow - firstVisibleRow + 1;
+        visibleColCount = lastCol - firstVisibleCol + 1;
+        int count = visibleRowCount * visibleColCount;
+
+        // 按钮不够时补充，多余的隐藏备用
+        while (buttonPool.size() < count) {
+            buttonPool.add(createTileButton());
+        }
+        if (visibleButtons == null || visibleButtons.length != count) {
+            visibleButtons = new TileButton[count];
+        }
+
+        int index = 0;
+        for (int row = firstVisibleRow; row <= lastRow; row++) {
+            for (int col = firstVisibleCol; col <= lastCol; col++) {
+                TileButton button = buttonPool.get(index);
+                button.setRow(row);
+                button.setCol(col);
+                button.setBounds(col * tileSize - scrollX, row * tileSize - scrollY, tileSize, tileSize);
+                bindCell(button);
+                visibleButtons[index++] = button;
+            }
+        }
+        for (int i = count; i < buttonPool.size(); i++) {
+            TileButton button = buttonPool.get(i);
+            if (button.isVisible()) {
+                button.setVisible(false);
             }
         }
+
+        layoutMiniMap();
+    }
+
+    /**
+     * 创建一个可复用的方块按钮
+     */
+    private TileButton createTileButton() {
+        TileButton tileButton = new TileButton(0, 0);
+        // 添加点击事件监听器（按钮当前绑定的格子）
+        tileButton.addActionListener(e -> {
+            if (gameController != null && tileButton.isVisible() && tileButton.isEnabled()) {
+                gameController.onCellClicked(tileButton.getRow(), tileButton.getCol());
+            }
+        });
+        boardLayer.add(tileButton);
+        return tileButton;
+    }
+
+    /**
+     * 将棋盘数据同步到按钮当前绑定的格子
+     */
+    private void bindCell(TileButton button) {
+        GameBoard board = gameController != null ? gameController.getGameBoard() : null;
+        Tile tile = board != null ? board.getTile(button.getRow(), button.getCol()) : null;
+        boolean active = tile != null && tile.isActive();
+        button.setTileType(active ? tile.getType() : 0);
+        button.setVisible(active);
+        button.setEnabled(active);
+
+        Position position = new Position(button.getRow(), button.getCol());
+        if (position.equals(selectedCell)) {
+            button.setSelected(true);
+        } else {
+            button.setHighlighted(highlightedCells.contains(position));
+        }
+    }
+
+    /**
+     * 小地图放在按钮区下方，只在棋盘超出视口时显示
+     */
+    private void layoutMiniMap() {
+        if (miniMap == null) {
+            return;
+        }
+        boolean visible = isScrollable();
+        if (visible) {
+            int y = buttonStartY + (GameConstants.BUTTON_HEIGHT + 15) * BUTTON_COUNT + MINI_MAP_MARGIN_TOP;
+            int height = Math.min(GameConstants.BUTTON_WIDTH * actualRows / Math.max(1, actualCols),
+                    Math.max(GameConstants.BUTTON_HEIGHT, getHeight() - y - 40));
+            miniMap.setBounds(buttonX, y, GameConstants.BUTTON_WIDTH, Math.max(GameConstants.BUTTON_HEIGHT, height));
+        }
+        if (miniMap.isVisible() != visible) {
+            miniMap.setVisible(visible);
+        }
+        miniMap.repaint();
+    }
+
+    /**
+     * 获取指定位置的方块按钮（格子不在视口内时返回null）
+     */
+    public TileButton getTileButton(int row, int col) {
+        if (visibleButtons == null) {
+            return null;
+        }
+        int r = row - firstVisibleRow;
+        int c = col - firstVisibleCol;
+        if (r < 0 || r >= visibleRowCount || c < 0 || c >= visibleColCount) {
+            return null;
+        }
+        return visibleButtons[r * visibleColCount + c];
+    }
+
+    /**
+     * 设置格子的选中状态
+     */
+    public void setCellSelected(int row, int col, boolean selected) {
+        Position position = new Position(row, col);
+        if (selected) {
+            selectedCell = position;
+        } else if (position.equals(selectedCell)) {
+            selectedCell = null;
+        }
+        TileButton button = getTileButton(row, col);
+        if (button != null) {
+            button.setSelected(selected);
+        }
+    }
+
+    /**
+     * 设置格子的提示高亮状态
+     */
+    public void setCellHighlighted(int row, int col, boolean highlighted) {
+        Position position = new Position(row, col);
+        if (highlighted) {
+            highlightedCells.add(position);
+        } else {
+            highlightedCells.remove(position);
+        }
+        TileButton button = getTileButton(row, col);
+        if (button != null) {
+            button.setHighlighted(highlighted);
+        }
+    }
+
+    /**
+     * 清除所有提示高亮
+     */
+    public void clearHighlights() {
+        for (Position position : highlightedCells) {
+            TileButton button = getTileButton(position.getRow(), position.getCol());
+            if (button != null) {
+                button.setHighlighted(false);
+            }
+        }
+        highlightedCells.clear();
+    }
+
+    /**
+     * 滚动视口到指定的棋盘像素偏移
+     */
+    public void scrollTo(int x, int y) {
+        int newX = clamp(x, 0, boardWidth - viewWidth);
+        int newY = clamp(y, 0, boardHeight - viewHeight);
+        if (newX == scrollX && newY == scrollY) {
+            return;
+        }
+        scrollX = newX;
+        scrollY = newY;
+        layoutVisibleCells();
+        repaint(boardStartX, boardStartY, viewWidth, viewHeight);
+    }
+
+    /**
+     * 让视口以指定格子坐标（相对于游戏区域，可为小数）为中心
+     */
+    public void centerViewOn(double row, double col) {
+        scrollTo((int) ((col + 1) * tileSize - viewWidth / 2.0), (int) ((row + 1) * tileSize - viewHeight / 2.0));
+    }
+
+    /**
+     * 格子不在视口内时滚动到以它为中心
+     */
+    public void scrollCellToVisible(int row, int col) {
+        Rectangle cell = getCellBounds(row, col);
+        if (!new Rectangle(boardStartX, boardStartY, viewWidth, viewHeight).contains(cell)) {
+            centerViewOn(row - 1 + 0.5, col - 1 + 0.5);
+        }
+    }
+
+    /**
+     * 视口在游戏区域中的范围（以格子为单位，小地图使用）
+     */
+    Rectangle2D getVisibleCellArea() {
+        return new Rectangle2D.Double(scrollX / (double) tileSize - 1, scrollY / (double) tileSize - 1,
+                viewWidth / (double) tileSize, viewHeight / (double) tileSize);
+    }
+
+    /**
+     * 滚轮：滚动视口；按住Shift水平滚动；按住Ctrl以鼠标位置为中心缩放
+     */
+    void handleMouseWheel(MouseWheelEvent e) {
+        int notches = e.getWheelRotation();
+        if (notches == 0) {
+            return;
+        }
+        if ((e.getModifiersEx() & InputEvent.CTRL_DOWN_MASK) != 0) {
+            zoom(-notches * TILE_SIZE_STEP, e.getPoint());
+        } else if ((e.getModifiersEx() & InputEvent.SHIFT_DOWN_MASK) != 0) {
+            scrollTo(scrollX + notches * SCROLL_CELLS_PER_NOTCH * tileSize, scrollY);
+        } else {
+            scrollTo(scrollX, scrollY + notches * SCROLL_CELLS_PER_NOTCH * tileSize);
+        }
+    }
+
+    /**
+     * 缩放方块尺寸，保持锚点下的棋盘位置不变
+     */
+    private void zoom(int delta, Point anchor) {
+        int newSize = clamp(tileSize + delta, MIN_ZOOM_TILE_SIZE, GameConstants.TILE_SIZE);
+        if (newSize == tileSize) {
+            return;
+        }
+        double boardX = (anchor.x - boardStartX + scrollX) / (double) tileSize;
+        double boardY = (anchor.y - boardStartY + scrollY) / (double) tileSize;
+
+        zoomTileSize = newSize;
         calculateBoardPosition();
+        scrollX = clamp((int) Math.round(boardX * tileSize) - (anchor.x - boardStartX), 0, boardWidth - viewWidth);
+        scrollY = clamp((int) Math.round(boardY * tileSize) - (anchor.y - boardStartY), 0, boardHeight - viewHeight);
+        layoutVisibleCells();
+        staticLayer = null;
+        repaint();
+    }
 
-        if (gameController != null && gameController.getGameBoard() != null) {
-            for (int row = 0; row < actualRows; row++) {
-                for (int col = 0; col < actualCols; col++) {
-                    boolean isBorder = (row == 0 || row == actualRows - 1 ||
-                            col == 0 || col == actualCols - 1);
-
-                    // 创建方块按钮
-                    TileButton tileButton = new TileButton(row, col);
-                    // 计算按钮位置
-                    int x = boardStartX + col * GameConstants.TILE_SIZE;
-                    int y = boardStartY + row * GameConstants.TILE_SIZE;
-                    tileButton.setBounds(x, y, GameConstants.TILE_SIZE, GameConstants.TILE_SIZE);
-
-                    if (isBorder) {
-                        // 边框按钮：不可见且不可点击
-                        tileButton.setVisible(false);
-                        tileButton.setEnabled(false);
-                    } else {
-                        // 游戏区域按钮：设置类型和事件监听
-                        if (gameController.getGameBoard().getTile(row, col) != null) {
-                            tileButton.setTileType(gameController.getGameBoard().getTile(row, col).getType());
-                        } else {
-                            tileButton.setTileType(0);
-                        }
-
-                        // 添加点击事件监听器
-                        tileButton.addActionListener(e -> {
-                            if (gameController != null && tileButton.isVisible() && tileButton.isEnabled()) {
-                                gameController.onTileClicked(tileButton);
-                            }
-                        });
-                    }
+    /**
+     * 绘制视口内的棋盘网格（坐标相对于视口左上角）
+     */
+    private void paintGrid(Graphics2D g2d) {
+        GameBoard board = gameController != null ? gameController.getGameBoard() : null;
+        if (board != null && !board.getLayout().isRectangle()) {
+            paintShapedGrid(g2d, board);
+            return;
+        }
+
+        g2d.setColor(GRID_COLOR);
+        g2d.setStroke(GRID_STROKE);
+
+        int top = Math.max(tileSize, firstVisibleRow * tileSize) - scrollY;
+        int bottom = Math.min((actualRows - 1) * tileSize, scrollY + viewHeight) - scrollY;
+        int left = Math.max(tileSize, firstVisibleCol * tileSize) - scrollX;
+        int right = Math.min((actualCols - 1) * tileSize, scrollX + viewWidth) - scrollX;
 
-                    // 添加按钮到面板
-                    add(tileButton);
+        // 绘制垂直线
+        for (int col = Math.max(1, firstVisibleCol); col <= Math.min(actualCols - 1, firstVisibleCol + visibleColCount); col++) {
+            int x = col * tileSize - scrollX;
+            g2d.drawLine(x, top, x, bottom);
+        }
+
+        // 绘制水平线
+        for (int row = Math.max(1, firstVisibleRow); row <= Math.min(actualRows - 1, firstVisibleRow + visibleRowCount); row++) {
+            int y = row * tileSize - scrollY;
+            g2d.drawLine(left, y, right, y);
+        }
+    }
+
+    /**
+     * 异形棋盘：只为可放置方块的格子画格线，障碍格画成实心块
+     */
+    private void paintShapedGrid(Graphics2D g2d, GameBoard board) {
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setStroke(GRID_STROKE);
+        int lastRow = Math.min(actualRows - 2, firstVisibleRow + visibleRowCount - 1);
+        int lastCol = Math.min(actualCols - 2, firstVisibleCol + visibleColCount - 1);
+        for (int row = Math.max(1, firstVisibleRow); row <= lastRow; row++) {
+            for (int col = Math.max(1, firstVisibleCol); col <= lastCol; col++) {
+                int x = col * tileSize - scrollX;
+                int y = row * tileSize - scrollY;
+                byte cell = board.getLayout().getCell(row - 1, col - 1);
+                if (cell == BoardLayout.PLAYABLE) {
+                    g2d.setColor(GRID_COLOR);
+                    g2d.drawRect(x, y, tileSize, tileSize);
+                } else if (cell == BoardLayout.BLOCKED) {
+                    g2d.setColor(BLOCKED_COLOR);
+                    g2d.fillRoundRect(x + 2, y + 2, tileSize - 4, tileSize - 4, 8, 8);
+                    g2d.setColor(BLOCKED_BORDER_COLOR);
+                    g2d.drawRoundRect(x + 2, y + 2, tileSize - 4, tileSize - 4, 8, 8);
                 }
             }
         }
-        revalidate();
-        repaint();
     }
 
     @Override
@@ -281,126 +724,315 @@ public class GamePanel extends JPanel {
         Graphics2D g2d = (Graphics2D) g;
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
+        // 绘制缓存的静态图层（背景、标题、棋盘框、网格、按钮区域）
+        g2d.drawImage(getStaticLayer(), 0, 0, null);
+    }
+
+    @Override
+    protected void paintChildren(Graphics g) {
+        super.paintChildren(g);
+
+        // 动画效果绘制在方块之上（裁剪到视口内）
+        Graphics2D g2d = (Graphics2D) g.create();
+        g2d.clipRect(boardStartX, boardStartY, viewWidth, viewHeight);
+        animationScheduler.paint(g2d);
+        g2d.dispose();
+    }
+
+    /**
+     * 获取静态图层，面板尺寸或棋盘布局变化时重新绘制
+     */
+    private Image getStaticLayer() {
+        int width = Math.max(1, getWidth());
+        int height = Math.max(1, getHeight());
+        if (staticLayer != null && staticLayer.getWidth() == width && staticLayer.getHeight() == height) {
+            return staticLayer;
+        }
+
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        staticLayer = gc != null
+                ? gc.createCompatibleImage(width, height, Transparency.OPAQUE)
+                : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+
+        Graphics2D g2d = staticLayer.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        paintStaticLayer(g2d, width, height);
+        g2d.dispose();
+        return staticLayer;
+    }
+
+    /**
+     * 丢弃静态图层，下次绘制时重建
+     */
+    public void invalidateStaticLayer() {
+        staticLayer = null;
+        repaint();
+    }
+
+    private void paintStaticLayer(Graphics2D g2d, int width, int height) {
         // 绘制背景图
         if (backgroundImage != null) {
-            g2d.drawImage(backgroundImage, 0, 0, getWidth(), getHeight(), this);
+            g2d.drawImage(backgroundImage, 0, 0, width, height, null);
         } else {
             GradientPaint gradient = new GradientPaint(
                     0, 0, GameConstants.FAIRY_LIGHT_BLUE,
-                    getWidth(), getHeight(), GameConstants.FAIRY_PINK
+                    width, height, GameConstants.FAIRY_PINK
             );
             g2d.setPaint(gradient);
-            g2d.fillRect(0, 0, getWidth(), getHeight());
+            g2d.fillRect(0, 0, width, height);
         }
 
         // 绘制游戏主标题
-        g2d.setFont(new Font("Dialog", Font.BOLD, 48));
+        g2d.setFont(TITLE_FONT);
         g2d.setColor(Color.WHITE);
         g2d.drawString("Fairy Tale Link", TITLE_MARGIN_LEFT, TITLE_MARGIN_TOP + 30);
 
         // 绘制游戏副标题
-        g2d.setFont(new Font("Dialog", Font.PLAIN, 26));
-        g2d.setColor(new Color(255, 255, 255, 220));
-        g2d.drawString(String.format("%d×%d Mode - %d Tile Types", rows, cols, tileTypes),
-                TITLE_MARGIN_LEFT, SUBTITLE_MARGIN_TOP);
+        g2d.setFont(SUBTITLE_FONT);
+        g2d.setColor(SUBTITLE_COLOR);
+        GameBoard board = gameController != null ? gameController.getGameBoard() : null;
+        String modeName = board != null && !board.getLayout().isRectangle()
+                ? board.getLayout().getName()
+                : String.format("%d×%d", rows, cols);
+        String subtitle = String.format("%s Mode - %d Tile Types", modeName, tileTypes);
+        if (board != null && board.getGravityMode() != GravityMode.NONE) {
+            subtitle += " - Gravity " + board.getGravityMode().getDisplayName();
+        }
+        if (board != null) {
+            subtitle += " - Seed " + Long.toHexString(board.getSeed());
+        }
+        g2d.drawString(subtitle, TITLE_MARGIN_LEFT, SUBTITLE_MARGIN_TOP);
 
-        // 绘制棋盘背景
-        g2d.setColor(new Color(255, 255, 255, 200));
+        // 绘制棋盘背景（视口区域，网格随滚动绘制在方块按钮层中）
+        g2d.setColor(BOARD_BACKGROUND_COLOR);
         g2d.fillRoundRect(boardStartX - 10, boardStartY - 10,
-                boardWidth + 20, boardHeight + 20, 20, 20);
+                viewWidth + 20, viewHeight + 20, 20, 20);
 
         // 绘制棋盘边框
         g2d.setColor(GameConstants.FAIRY_BLUE1);
-        g2d.setStroke(new BasicStroke(4));
+        g2d.setStroke(BOARD_BORDER_STROKE);
         g2d.drawRoundRect(boardStartX - 10, boardStartY - 10,
-                boardWidth + 20, boardHeight + 20, 20, 20);
+                viewWidth + 20, viewHeight + 20, 20, 20);
 
-        // 绘制棋盘网格
-        g2d.setColor(new Color(GameConstants.FAIRY_BLUE1.getRed(),
-                GameConstants.FAIRY_BLUE1.getGreen(),
-                GameConstants.FAIRY_BLUE1.getBlue(), 120));
-        g2d.setStroke(new BasicStroke(1.5f));
+        // 绘制按钮区域背景
+        g2d.setColor(BUTTON_AREA_COLOR);
+        g2d.fillRoundRect(buttonX - 10, buttonStartY - 10,
+                GameConstants.BUTTON_WIDTH + 20,
+                (GameConstants.BUTTON_HEIGHT + 15) * BUTTON_COUNT + 5, 10, 10);
+    }
 
-        // 绘制垂直线
-        for (int i = 1; i <= actualCols; i++) {
-            int x = boardStartX + i * GameConstants.TILE_SIZE;
-            g2d.drawLine(x, boardStartY + GameConstants.TILE_SIZE,
-                    x, boardStartY + (actualRows - 1) * GameConstants.TILE_SIZE);
-        }
+    /**
+     * 获取格子在面板中的区域
+     */
+    public Rectangle getCellBounds(int row, int col) {
+        return new Rectangle(boardStartX + col * tileSize - scrollX, boardStartY + row * tileSize - scrollY,
+                tileSize, tileSize);
+    }
 
-        // 绘制水平线
-        for (int i = 1; i <= actualRows; i++) {
-            int y = boardStartY + i * GameConstants.TILE_SIZE;
-            g2d.drawLine(boardStartX + GameConstants.TILE_SIZE, y,
-                    boardStartY + (actualCols - 1) * GameConstants.TILE_SIZE, y);
+    /**
+     * 播放消除动画：连接路径和两个方块的消失效果
+     */
+    public void playMatchEffect(List<Position> path, Position first, Position second, int tileType,
+                                Runnable onFinish) {
+        animationScheduler.add(new BoardEffects.TileFade(this, first.getRow(), first.getCol(),
+                tileType, scaledDuration(TILE_FADE_MS)));
+        animationScheduler.add(new BoardEffects.TileFade(this, second.getRow(), second.getCol(),
+                tileType, scaledDuration(TILE_FADE_MS)));
+        animationScheduler.add(new BoardEffects.PathTrace(this, path, scaledDuration(PATH_TRACE_MS), onFinish));
+    }
+
+    /**
+     * 播放提示动画
+     */
+    public void playHintEffect(Position first, Position second, Runnable onFinish) {
+        animationScheduler.add(new BoardEffects.HintPulse(this, first, second, scaledDuration(HINT_PULSE_MS), onFinish));
+    }
+
+    /**
+     * 按game.animationSpeed配置缩放动画时长
+     */
+    private static long scaledDuration(long millis) {
+        return Math.round(millis * ConfigService.get().getAnimationScale());
+    }
+
+    /**
+     * 应用配置变化（在EDT上调用）
+     */
+    public void applyConfig(GameConfig config) {
+        if (hintButton != null) {
+            hintButton.setVisible(config.isShowHints());
         }
+        TileButton.setTileStyle(config.getTileStyle());
+        repaint();
+    }
 
-        // 绘制连接路径
-        if (gameController != null) {
-            List<Position> path = gameController.getCurrentPath();
-            if (path != null && path.size() > 1) {
-                drawConnectionPath(g2d, path);
+    public AnimationScheduler getAnimationScheduler() {
+        return animationScheduler;
+    }
+
+    /**
+     * 主动渲染模式：把整个界面绘制到指定画布上（在EDT上调用）
+     */
+    void renderActive(Graphics2D g2d, Point hoverPoint) {
+        g2d.drawImage(getStaticLayer(), 0, 0, null);
+
+        // 网格、方块和动画效果（裁剪到视口内）
+        Graphics2D boardGraphics = (Graphics2D) g2d.create();
+        boardGraphics.clipRect(boardStartX, boardStartY, viewWidth, viewHeight);
+        Graphics2D gridGraphics = (Graphics2D) boardGraphics.create();
+        gridGraphics.translate(boardStartX, boardStartY);
+        paintGrid(gridGraphics);
+        gridGraphics.dispose();
+
+        if (visibleButtons != null) {
+            for (TileButton button : visibleButtons) {
+                if (!button.isVisible() || !button.isEnabled()) {
+                    continue;
+                }
+                Rectangle bounds = getCellBounds(button.getRow(), button.getCol());
+                Graphics2D tileGraphics = (Graphics2D) boardGraphics.create(bounds.x, bounds.y, bounds.width, bounds.height);
+                TileButton.paintTile(tileGraphics, bounds.width, bounds.height, button.getTileType(),
+                        button.getTileImage(), button.isSelected(), button.isHighlighted(),
+                        hoverPoint != null && bounds.contains(hoverPoint));
+                tileGraphics.dispose();
             }
         }
 
-        // 绘制按钮区域背景
-        g2d.setColor(new Color(0, 0, 0, 30));
-        g2d.fillRoundRect(buttonX - 10, buttonStartY - 10,
-                GameConstants.BUTTON_WIDTH + 20,
-                (GameConstants.BUTTON_HEIGHT + 15) * 2 + 5, 10, 10);
+        animationScheduler.paint(boardGraphics);
+        boardGraphics.dispose();
+
+        // 小地图
+        if (miniMap.isVisible()) {
+            Rectangle mapBounds = miniMap.getBounds();
+            Graphics2D mapGraphics = (Graphics2D) g2d.create(mapBounds.x, mapBounds.y, mapBounds.width, mapBounds.height);
+            miniMap.paintMap(mapGraphics, mapBounds.width, mapBounds.height);
+            mapGraphics.dispose();
+        }
+
+        // 计时器
+        Rectangle timerBounds = timerPanel.getBounds();
+        timerPanel.paintTimer(g2d, timerBounds.x, timerBounds.y, timerBounds.width, timerBounds.height);
+
+        // 界面按钮
+        paintActiveButton(g2d, pauseButton, GameConstants.FAIRY_PINK, hoverPoint);
+        paintActiveButton(g2d, hintButton, GameConstants.FAIRY_GREEN, hoverPoint);
+        paintActiveButton(g2d, undoButton, GameConstants.FAIRY_YELLOW, hoverPoint);
+        paintActiveButton(g2d, redoButton, GameConstants.FAIRY_YELLOW, hoverPoint);
+        paintActiveButton(g2d, autoButton, GameConstants.FAIRY_BLUE1, hoverPoint);
+    }
+
+    private void paintActiveButton(Graphics2D g2d, JButton button, Color color, Point hoverPoint) {
+        if (button == null || !button.isVisible()) {
+            return;
+        }
+        Rectangle bounds = button.getBounds();
+        if (!button.isEnabled()) {
+            color = Color.GRAY;
+        }
+        boolean hover = button.isEnabled() && hoverPoint != null && bounds.contains(hoverPoint);
+        if (hover) {
+            g2d.setColor(color);
+            g2d.fillRect(bounds.x, bounds.y, bounds.width, bounds.height);
+        }
+        g2d.setColor(color);
+        g2d.setStroke(BUTTON_BORDER_STROKE);
+        g2d.drawRect(bounds.x + 1, bounds.y + 1, bounds.width - 2, bounds.height - 2);
+
+        g2d.setFont(button.getFont());
+        g2d.setColor(hover ? Color.WHITE : color);
+        FontMetrics metrics = g2d.getFontMetrics();
+        String text = button.getText();
+        g2d.drawString(text, bounds.x + (bounds.width - metrics.stringWidth(text)) / 2,
+                bounds.y + (bounds.height - metrics.getHeight()) / 2 + metrics.getAscent());
     }
 
     /**
-     * 当两个方块成功连接时，绘制连接路径
+     * 主动渲染模式：处理画布上的点击
      */
-    private void drawConnectionPath(Graphics2D g2d, List<Position> path) {
-        Stroke originalStroke = g2d.getStroke();
-        Color originalColor = g2d.getColor();
+    void handleActiveClick(Point point) {
+        if (pauseButton != null && pauseButton.getBounds().contains(point)) {
+            handleButtonAction("pause");
+            return;
+        }
+        if (hintButton != null && hintButton.getBounds().contains(point)) {
+            handleButtonAction("hint");
+            return;
+        }
+        if (undoButton != null && undoButton.getBounds().contains(point)) {
+            handleButtonAction("undo");
+            return;
+        }
+        if (redoButton != null && redoButton.getBounds().contains(point)) {
+            handleButtonAction("redo");
+            return;
+        }
+        if (autoButton != null && autoButton.getBounds().contains(point)) {
+            handleButtonAction("auto");
+            return;
+        }
 
-        // 绘制路径线
-        for (int i = 0; i < path.size() - 1; i++) {
-            Position p1 = path.get(i);
-            Position p2 = path.get(i + 1);
+        if (miniMap.isVisible() && miniMap.getBounds().contains(point)) {
+            Rectangle mapBounds = miniMap.getBounds();
+            miniMap.navigate(new Point(point.x - mapBounds.x, point.y - mapBounds.y), mapBounds.width, mapBounds.height);
+            return;
+        }
 
-            int x1 = boardStartX + p1.getCol() * GameConstants.TILE_SIZE + GameConstants.TILE_SIZE / 2;
-            int y1 = boardStartY + p1.getRow() * GameConstants.TILE_SIZE + GameConstants.TILE_SIZE / 2;
-            int x2 = boardStartX + p2.getCol() * GameConstants.TILE_SIZE + GameConstants.TILE_SIZE / 2;
-            int y2 = boardStartY + p2.getRow() * GameConstants.TILE_SIZE + GameConstants.TILE_SIZE / 2;
+        if (visibleButtons == null || tileSize <= 0 ||
+                !new Rectangle(boardStartX, boardStartY, viewWidth, viewHeight).contains(point)) {
+            return;
+        }
+        int col = Math.floorDiv(point.x - boardStartX + scrollX, tileSize);
+        int row = Math.floorDiv(point.y - boardStartY + scrollY, tileSize);
+        TileButton button = getTileButton(row, col);
+        if (button != null && gameController != null && button.isVisible() && button.isEnabled()) {
+            gameController.onCellClicked(row, col);
+        }
+    }
 
-            // 绘制主路径
-            g2d.setColor(GameConstants.FAIRY_GREEN);
-            g2d.setStroke(new BasicStroke(5, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
-            g2d.drawLine(x1, y1, x2, y2);
+    /**
+     * 开启主动渲染：画布覆盖整个面板，由渲染线程按固定帧率绘制
+     */
+    public void enableActiveRendering(int targetFps) {
+        if (activeCanvas != null) {
+            return;
         }
+        activeCanvas = new ActiveRenderCanvas(this, targetFps);
+        activeCanvas.setBounds(0, 0, getWidth(), getHeight());
+        add(activeCanvas, 0);
+    }
 
-        g2d.setStroke(originalStroke);
-        g2d.setColor(originalColor);
+    public ActiveRenderCanvas getActiveCanvas() {
+        return activeCanvas;
     }
 
     /**
      * 更新方块显示
      */
     public void updateTile(int row, int col, int tileType, boolean visible) {
-        Component[] components = getComponents();
-        for (Component comp : components) {
-            if (comp instanceof TileButton) {
-                TileButton button = (TileButton) comp;
-                if (button.getRow() == row && button.getCol() == col) {
-                    button.setTileType(tileType);
-                    button.setVisible(visible);
-                    button.setEnabled(visible);
-                    break;
-                }
-            }
+        TileButton button = getTileButton(row, col);
+        if (button != null) {
+            button.setTileType(tileType);
+            button.setVisible(visible);
+            button.setEnabled(visible);
         }
-        repaint();
+        miniMap.updateCell(row, col, visible ? tileType : 0);
+        repaint(getCellBounds(row, col));
     }
 
     /**
-     * 刷新游戏板（重新创建所有方块按钮）
+     * 刷新游戏板（首次调用时计算布局，之后只把棋盘数据同步到视口内的按钮）
      */
     public void refreshBoard() {
-        createTileButtons();
+        if (visibleButtons == null) {
+            calculateBoardPosition();
+            staticLayer = null;
+            revalidate();
+        }
+        layoutVisibleCells();
+        if (gameController != null) {
+            miniMap.rebuild(gameController.getGameBoard());
+        }
         repaint();
     }
 
@@ -431,14 +1063,22 @@ public class GamePanel extends JPanel {
     public void doLayout() {
         super.doLayout();
 
+        int oldStartX = boardStartX, oldStartY = boardStartY, oldTileSize = tileSize;
         calculateBoardPosition();
+        if (oldStartX != boardStartX || oldStartY != boardStartY || oldTileSize != tileSize) {
+            staticLayer = null;
+        }
 
         if (timerPanel != null) {
             timerPanel.setBounds(getWidth() - 170, 40, 140, 50);
         }
 
         if (pauseButton != null) {
-            buttonX = getWidth() - BUTTON_AREA_WIDTH + 20;
+            int newButtonX = getWidth() - BUTTON_AREA_WIDTH + 20;
+            if (newButtonX != buttonX) {
+                buttonX = newButtonX;
+                staticLayer = null;
+            }
             int buttonY = buttonStartY;
 
             pauseButton.setBounds(buttonX, buttonY,
@@ -449,10 +1089,28 @@ public class GamePanel extends JPanel {
             hintButton.setBounds(buttonX, buttonY,
                     GameConstants.BUTTON_WIDTH,
                     GameConstants.BUTTON_HEIGHT);
+            buttonY += GameConstants.BUTTON_HEIGHT + 15;
+
+            undoButton.setBounds(buttonX, buttonY,
+                    GameConstants.BUTTON_WIDTH,
+                    GameConstants.BUTTON_HEIGHT);
+            buttonY += GameConstants.BUTTON_HEIGHT + 15;
+
+            redoButton.setBounds(buttonX, buttonY,
+                    GameConstants.BUTTON_WIDTH,
+                    GameConstants.BUTTON_HEIGHT);
+            buttonY += GameConstants.BUTTON_HEIGHT + 15;
+
+            autoButton.setBounds(buttonX, buttonY,
+                    GameConstants.BUTTON_WIDTH,
+                    GameConstants.BUTTON_HEIGHT);
         }
 
-        if (gameController != null) {
-            createTileButtons();
+        // 按新的视口重新绑定方块按钮（复用已有按钮）
+        layoutVisibleCells();
+
+        if (activeCanvas != null) {
+            activeCanvas.setBounds(0, 0, getWidth(), getHeight());
         }
     }
 }
\ No newline at end of file
@@ -1,16 +1,40 @@
 package com.yush.link.view;
 
+import com.yush.link.controller.BoardSupply;
+import com.yush.link.model.BoardLayout;
+import com.yush.link.model.GameBoard;
+import com.yush.link.model.GravityMode;
+import com.yush.link.model.SavedGame;
+import com.yush.link.utils.AssetPreloader;
+import com.yush.link.utils.ConfigService;
 import com.yush.link.utils.GameConstants;
-import com.yush.link.utils.ResourceLoader;
+import com.yush.link.utils.SaveStore;
 
 import javax.swing.*;
 import java.awt.*;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 public class MainMenuFrame extends JFrame {
     private JLabel backgroundLabel;
+    private JProgressBar progressBar;
+    private final List<JButton> modeButtons = new ArrayList<>();
+    private JComboBox<Object> shapeBox;     // 棋盘形状（矩形或config/layouts中的布局）
+    private JComboBox<GravityMode> gravityBox;  // 重力模式
+    private JButton resumeButton;           // 继续上次未完成的对局
+    private SavedGame savedGame;            // 后台读取的存档，没有时为null
 
     public MainMenuFrame() {
         initUI();
+
+        // 后台预生成标准模式的棋盘，点击模式按钮后无需等待生成
+        for (GameConstants.GameMode mode : GameConstants.GAME_MODES) {
+            BoardSupply.getInstance().prefetch(mode.getLayout(), mode.getTileTypes(), GravityMode.NONE,
+                    mode.getDifficulty());
+        }
     }
 
     private void initUI() {
@@ -20,18 +44,11 @@ public class MainMenuFrame extends JFrame {
         setLocationRelativeTo(null);
         setResizable(false);
 
-        // 设置背景图片
-        Image bgImage = ResourceLoader.loadImage(GameConstants.MENU_BG);
-        if (bgImage != null) {
-            backgroundLabel = new JLabel(new ImageIcon(bgImage.getScaledInstance(
-                    GameConstants.WINDOW_WIDTH, GameConstants.WINDOW_HEIGHT, Image.SCALE_SMOOTH)));
-            backgroundLabel.setLayout(new GridBagLayout());
-            setContentPane(backgroundLabel);
-        } else {
-            setContentPane(new JPanel() {
-                @Override
-                protected void paintComponent(Graphics g) {
-                    super.paintComponent(g);
+        // 背景图片在后台解码，加载完成前先显示渐变背景
+        backgroundLabel = new JLabel() {
+            @Override
+            protected void paintComponent(Graphics g) {
+                if (getIcon() == null) {
                     Graphics2D g2d = (Graphics2D) g;
                     GradientPaint gradient = new GradientPaint(
                             0, 0, GameConstants.FAIRY_LIGHT_BLUE,
@@ -40,8 +57,18 @@ public class MainMenuFrame extends JFrame {
                     g2d.setPaint(gradient);
                     g2d.fillRect(0, 0, getWidth(), getHeight());
                 }
-            });
-        }
+                super.paintComponent(g);
+            }
+        };
+        backgroundLabel.setLayout(new GridBagLayout());
+        setContentPane(backgroundLabel);
+
+        AssetPreloader.loadScaledAsync(GameConstants.MENU_BG,
+                GameConstants.WINDOW_WIDTH, GameConstants.WINDOW_HEIGHT).thenAccept(image -> {
+            if (image != null) {
+                SwingUtilities.invokeLater(() -> backgroundLabel.setIcon(new ImageIcon(image)));
+            }
+        });
 
         // 创建菜单面板
         JPanel menuPanel = new JPanel();
@@ -50,16 +77,17 @@ public class MainMenuFrame extends JFrame {
 
         // 创建按钮面板
         JPanel buttonPanel = new JPanel();
-        buttonPanel.setLayout(new GridLayout(GameConstants.GAME_MODES.length + 1, 1, 0, 20));
+        buttonPanel.setLayout(new GridLayout(GameConstants.GAME_MODES.length + 3, 1, 0, 20));
         buttonPanel.setOpaque(false);
-        buttonPanel.setBorder(BorderFactory.createEmptyBorder(200, 0, 0, 0));
+        buttonPanel.setBorder(BorderFactory.createEmptyBorder(150, 0, 0, 0));
 
         // 游戏模式按钮
         Color[] buttonColors = {
                 GameConstants.FAIRY_BLUE,  // 6×6 Easy
                 GameConstants.FAIRY_GREEN,  // 8×8 Normal
                 GameConstants.FAIRY_YELLOW,  // 10×10 Hard
-                GameConstants.FAIRY_PINK    // 退出按钮
+                GameConstants.FAIRY_PINK,    // 退出按钮
+                GameConstants.FAIRY_BLUE1    // 自定义
         };
 
         // 边框颜色
@@ -67,7 +95,8 @@ public class MainMenuFrame extends JFrame {
                 GameConstants.FAIRY_BLUE,
                 GameConstants.FAIRY_GREEN,
                 GameConstants.FAIRY_YELLOW,
-                GameConstants.FAIRY_PINK
+                GameConstants.FAIRY_PINK,
+                GameConstants.FAIRY_BLUE1
         };
 
         // 添加游戏模式按钮
@@ -76,25 +105,96 @@ public class MainMenuFrame extends JFrame {
             Color buttonColor = buttonColors[i];
             Color borderColor = borderColors[i];
             JButton gameButton = createMenuButton(mode.getName(), buttonColor, borderColor);
-            gameButton.addActionListener(e -> startGame(mode.getRows(), mode.getCols(), mode.getTileTypes()));
+            gameButton.addActionListener(e -> startGame(applyShape(mode)));
+            // 鼠标悬停时提前预加载该模式的资源，每个模式只提交一次（之后的悬停复用进行中或已完成的加载）
+            gameButton.addMouseListener(new java.awt.event.MouseAdapter() {
+                private CompletableFuture<Void> preload;
+
+                public void mouseEntered(java.awt.event.MouseEvent evt) {
+                    if (preload == null || preload.isCompletedExceptionally()) {
+                        preload = AssetPreloader.preloadMode(mode, null);
+                    }
+                }
+            });
             buttonPanel.add(gameButton);
+            modeButtons.add(gameButton);
+
+            // game.defaultSize对应的模式作为默认按钮（回车直接开始）
+            if (mode.getRows() == ConfigService.get().getDefaultSize()) {
+                getRootPane().setDefaultButton(gameButton);
+            }
         }
 
+        // 继续按钮：存档在后台读取，读到后才可用
+        resumeButton = createMenuButton("Resume", buttonColors[1], borderColors[1]);
+        resumeButton.setEnabled(false);
+        resumeButton.addActionListener(e -> resumeGame());
+        buttonPanel.add(resumeButton);
+        modeButtons.add(resumeButton);
+        SaveStore.getInstance().load().thenAccept(saved -> SwingUtilities.invokeLater(() -> {
+            savedGame = saved;
+            if (saved != null && resumeButton.isDisplayable() && !progressBar.isVisible()) {
+                int seconds = (int) (saved.getElapsedMillis() / 1000);
+                resumeButton.setText(String.format("Resume %s (%02d:%02d)",
+                        saved.getBoard().getLayout().getName(), seconds / 60, seconds % 60));
+                resumeButton.setEnabled(true);
+            }
+        }));
+
+        // 自定义尺寸按钮
+        JButton customButton = createMenuButton("Custom...", buttonColors[4], borderColors[4]);
+        customButton.addActionListener(e -> showCustomDialog());
+        buttonPanel.add(customButton);
+        modeButtons.add(customButton);
+
         // 退出按钮
         JButton exitButton = createMenuButton("Exit Game", buttonColors[3], borderColors[3]);
         exitButton.addActionListener(e -> System.exit(0));
         buttonPanel.add(exitButton);
 
+        // 棋盘形状选择
+        shapeBox = new JComboBox<>();
+        shapeBox.addItem("Rectangle");
+        for (BoardLayout layout : BoardLayout.loadAll(Paths.get(GameConstants.LAYOUTS_PATH))) {
+            shapeBox.addItem(layout);
+        }
+        shapeBox.setFont(new Font("Garamond", Font.BOLD, 20));
+        shapeBox.setFocusable(false);
+        JPanel shapePanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 0));
+        shapePanel.setOpaque(false);
+        JLabel shapeLabel = new JLabel("Shape:");
+        shapeLabel.setFont(new Font("Garamond", Font.BOLD, 22));
+        shapeLabel.setForeground(Color.WHITE);
+        shapePanel.add(shapeLabel);
+        shapePanel.add(shapeBox);
+
+        // 重力模式选择
+        gravityBox = new JComboBox<>(GravityMode.values());
+        gravityBox.setFont(shapeBox.getFont());
+        gravityBox.setFocusable(false);
+        JLabel gravityLabel = new JLabel("Gravity:");
+        gravityLabel.setFont(shapeLabel.getFont());
+        gravityLabel.setForeground(Color.WHITE);
+        shapePanel.add(Box.createHorizontalStrut(10));
+        shapePanel.add(gravityLabel);
+        shapePanel.add(gravityBox);
+
+        // 资源加载进度条
+        progressBar = new JProgressBar();
+        progressBar.setStringPainted(true);
+        progressBar.setForeground(GameConstants.FAIRY_PINK);
+        progressBar.setVisible(false);
+
         // 添加组件到菜单面板
         menuPanel.add(Box.createVerticalStrut(50));
         menuPanel.add(buttonPanel);
+        menuPanel.add(Box.createVerticalStrut(20));
+        menuPanel.add(shapePanel);
+        menuPanel.add(Box.createVerticalStrut(20));
+        menuPanel.add(progressBar);
 
         // 添加菜单面板
-        if (backgroundLabel != null) {
-            backgroundLabel.add(menuPanel);
-        } else {
-            add(menuPanel, BorderLayout.CENTER);
-        }
+        backgroundLabel.add(menuPanel);
     }
 
     private JButton createMenuButton(String text, Color bgColor, Color borderColor) {
@@ -135,12 +235,120 @@ public class MainMenuFrame extends JFrame {
         return button;
     }
 
-    // 开始游戏
-    private void startGame(int rows, int cols, int tileTypes) {
-        dispose();  // 关闭主菜单
-        SwingUtilities.invokeLater(() -> {
-            GameFrame gameFrame = new GameFrame(rows, cols, tileTypes); // 创建游戏主窗口
-            gameFrame.setVisible(true);
+    /**
+     * 按选中的形状调整模式（选择矩形时保持原模式）
+     */
+    private GameConstants.GameMode applyShape(GameConstants.GameMode mode) {
+        Object shape = shapeBox.getSelectedItem();
+        return shape instanceof BoardLayout ? mode.withLayout((BoardLayout) shape) : mode;
+    }
+
+    /**
+     * 自定义棋盘尺寸对话框
+     */
+    private void showCustomDialog() {
+        int defaultSize = Math.max(GameConstants.MIN_BOARD_SIZE, ConfigService.get().getDefaultSize());
+        JSpinner rowsSpinner = new JSpinner(new SpinnerNumberModel(defaultSize,
+                GameConstants.MIN_BOARD_SIZE, GameConstants.MAX_BOARD_SIZE, 1));
+        JSpinner colsSpinner = new JSpinner(new SpinnerNumberModel(defaultSize,
+                GameConstants.MIN_BOARD_SIZE, GameConstants.MAX_BOARD_SIZE, 1));
+        JSpinner typesSpinner = new JSpinner(new SpinnerNumberModel(GameConstants.TILE_TYPE_COUNT,
+                1, GameConstants.TILE_TYPE_COUNT, 1));
+        JTextField seedField = new JTextField();
+        seedField.setToolTipText("Hexadecimal seed shown in the game subtitle; leave empty for a random board");
+
+        JPanel panel = new JPanel(new GridLayout(4, 2, 10, 10));
+        panel.add(new JLabel("Rows:"));
+        panel.add(rowsSpinner);
+        panel.add(new JLabel("Columns:"));
+        panel.add(colsSpinner);
+        panel.add(new JLabel("Tile types:"));
+        panel.add(typesSpinner);
+        panel.add(new JLabel("Seed (optional):"));
+        panel.add(seedField);
+
+        int result = JOptionPane.showConfirmDialog(this, panel, "Custom Board",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (result != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        int rows = (Integer) rowsSpinner.getValue();
+        int cols = (Integer) colsSpinner.getValue();
+        int tileTypes = (Integer) typesSpinner.getValue();
+
+        // 指定种子时重现该棋盘
+        Long seed = null;
+        String seedText = seedField.getText().trim();
+        if (!seedText.isEmpty()) {
+            try {
+                seed = Long.parseUnsignedLong(seedText, 16);
+            } catch (NumberFormatException e) {
+                JOptionPane.showMessageDialog(this, "Invalid seed: " + seedText, "Custom Board",
+                        JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+        }
+        startGame(new GameConstants.GameMode(rows, cols,
+                String.format("%d×%d Custom", rows, cols), tileTypes), seed);
+    }
+
+    private void startGame(GameConstants.GameMode mode) {
+        startGame(mode, null);
+    }
+
+    // 开始游戏：等待该模式的资源预加载完成后再打开游戏窗口（seed为null时随机生成棋盘）
+    private void startGame(GameConstants.GameMode mode, Long seed) {
+        // 资源加载期间在后台准备棋盘
+        GravityMode gravityMode = (GravityMode) gravityBox.getSelectedItem();
+        if (seed == null) {
+            BoardSupply.getInstance().prefetch(mode.getLayout(), mode.getTileTypes(), gravityMode,
+                    mode.getDifficulty());
+        }
+
+        openGame(mode, () -> {
+            GameFrame gameFrame = new GameFrame(mode.getLayout(), mode.getTileTypes(),
+                    gravityMode, mode.getDifficulty()); // 创建游戏主窗口
+            if (seed != null) {
+                gameFrame.restartGame(seed);
+            }
+            return gameFrame;
         });
     }
+
+    /**
+     * 继续存档中的对局
+     */
+    private void resumeGame() {
+        SavedGame saved = savedGame;
+        if (saved == null) {
+            return;
+        }
+        GameBoard board = saved.getBoard();
+        GameConstants.GameMode mode = new GameConstants.GameMode(board.getRows(), board.getCols(),
+                board.getLayout().getName(), board.getTileTypes(), saved.getDifficulty());
+        if (!board.getLayout().isRectangle()) {
+            mode = mode.withLayout(board.getLayout());
+        }
+        openGame(mode, () -> new GameFrame(saved));
+    }
+
+    // 预加载该模式的资源并显示进度，完成后关闭主菜单、打开游戏窗口
+    private void openGame(GameConstants.GameMode mode, Supplier<GameFrame> frameFactory) {
+        for (JButton button : modeButtons) {
+            button.setEnabled(false);
+        }
+        progressBar.setValue(0);
+        progressBar.setString("Loading...");
+        progressBar.setVisible(true);
+
+        AssetPreloader.preloadMode(mode, (loaded, total) -> {
+            progressBar.setMaximum(total);
+            progressBar.setValue(loaded);
+            progressBar.setString(String.format("Loading %d/%d", loaded, total));
+        }).whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            dispose();  // 关闭主菜单
+            frameFactory.get().setVisible(true);
+        }));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,153 @@
+package com.yush.link.view;
+
+import com.yush.link.model.GameBoard;
+import com.yush.link.utils.GameConstants;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * 小地图：棋盘过大、视口无法完整显示时，在按钮区下方显示全局缩略图和当前视口位置，
+ * 点击或拖动可跳转视口
+ *
+ * 缩略图每个格子对应一个像素，消除方块时只更新对应像素。
+ */
+public class MiniMapPanel extends JComponent {
+    private static final Color BACKGROUND_COLOR = new Color(0, 0, 0, 120);
+    private static final Color VIEWPORT_COLOR = new Color(255, 255, 255, 220);
+    private static final Stroke VIEWPORT_STROKE = new BasicStroke(1.5f);
+    private static final int PADDING = 4;
+    private static final int BLOCKED_PIXEL = 0xFF3C2D46;
+
+    private final GamePanel panel;
+    private BufferedImage cells;    // 每个格子一个像素（不含外圈）
+
+    public MiniMapPanel(GamePanel panel) {
+        this.panel = panel;
+        setOpaque(false);
+        setCursor(new Cursor(Cursor.HAND_CURSOR));
+
+        MouseAdapter navigator = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                navigate(e.getPoint(), getWidth(), getHeight());
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                navigate(e.getPoint(), getWidth(), getHeight());
+            }
+        };
+        addMouseListener(navigator);
+        addMouseMotionListener(navigator);
+    }
+
+    /**
+     * 按棋盘数据重建缩略图
+     */
+    public void rebuild(GameBoard board) {
+        if (board == null) {
+            return;
+        }
+        if (cells == null || cells.getWidth() != board.getCols() || cells.getHeight() != board.getRows()) {
+            cells = new BufferedImage(board.getCols(), board.getRows(), BufferedImage.TYPE_INT_ARGB);
+        }
+        int[] pixels = new int[board.getCols() * board.getRows()];
+        for (int row = 1; row <= board.getRows(); row++) {
+            for (int col = 1; col <= board.getCols(); col++) {
+                int type = board.getTileType(row, col);
+                pixels[(row - 1) * board.getCols() + (col - 1)] =
+                        board.isBlocked(row, col) ? BLOCKED_PIXEL : colorOf(type);
+            }
+        }
+        cells.setRGB(0, 0, board.getCols(), board.getRows(), pixels, 0, board.getCols());
+        repaint();
+    }
+
+    /**
+     * 更新单个格子
+     */
+    public void updateCell(int row, int col, int tileType) {
+        if (cells == null || row < 1 || row > cells.getHeight() || col < 1 || col > cells.getWidth()) {
+            return;
+        }
+        cells.setRGB(col - 1, row - 1, colorOf(tileType));
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2d = (Graphics2D) g.create();
+        paintMap(g2d, getWidth(), getHeight());
+        g2d.dispose();
+    }
+
+    /**
+     * 绘制小地图（组件绘制和主动渲染模式共用）
+     */
+    void paintMap(Graphics2D g2d, int width, int height) {
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setColor(BACKGROUND_COLOR);
+        g2d.fillRoundRect(0, 0, width, height, 10, 10);
+        if (cells == null) {
+            return;
+        }
+
+        Rectangle map = getMapBounds(width, height);
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        g2d.drawImage(cells, map.x, map.y, map.width, map.height, null);
+
+        // 当前视口（以格子为单位，相对于游戏区域）
+        Rectangle2D view = panel.getVisibleCellArea();
+        double scaleX = map.width / (double) cells.getWidth();
+        double scaleY = map.height / (double) cells.getHeight();
+        g2d.setColor(VIEWPORT_COLOR);
+        g2d.setStroke(VIEWPORT_STROKE);
+        g2d.draw(new Rectangle2D.Double(map.x + view.getX() * scaleX, map.y + view.getY() * scaleY,
+                view.getWidth() * scaleX, view.getHeight() * scaleY));
+    }
+
+    /**
+     * 把小地图上的点换算为格子坐标，并让视口以此为中心
+     */
+    void navigate(Point point, int width, int height) {
+        if (cells == null) {
+            return;
+        }
+        Rectangle map = getMapBounds(width, height);
+        double col = (point.x - map.x) / (double) map.width * cells.getWidth();
+        double row = (point.y - map.y) / (double) map.height * cells.getHeight();
+        panel.centerViewOn(row, col);
+    }
+
+    /**
+     * 缩略图在组件中的区域（保持格子为正方形）
+     */
+    private Rectangle getMapBounds(int width, int height) {
+        double scale = Math.min((width - 2.0 * PADDING) / cells.getWidth(),
+                (height - 2.0 * PADDING) / cells.getHeight());
+        int mapWidth = Math.max(1, (int) (cells.getWidth() * scale));
+        int mapHeight = Math.max(1, (int) (cells.getHeight() * scale));
+        return new Rectangle((width - mapWidth) / 2, (height - mapHeight) / 2, mapWidth, mapHeight);
+    }
+
+    /**
+     * 方块类型对应的颜色（按黄金分割取色相，相邻类型颜色差异明显）
+     */
+    private static int colorOf(int tileType) {
+        if (tileType <= 0) {
+            return 0;
+        }
+        float hue = (tileType * 0.618034f) % 1f;
+        return Color.HSBtoRGB(hue, 0.55f, 0.95f);
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(GameConstants.BUTTON_WIDTH, GameConstants.BUTTON_WIDTH);
+    }
+}
@@ -8,12 +8,34 @@ import java.awt.*;
 import java.awt.geom.RoundRectangle2D;
 
 public class TileButton extends JButton {
+    // 绘制用的颜色和线条
+    private static final Color SELECTED_BACKGROUND = new Color(255, 215, 0);
+    private static final Color SELECTED_BORDER = new Color(200, 100, 0);
+    private static final Color HIGHLIGHT_BACKGROUND = new Color(200, 150, 255);
+    private static final Color HIGHLIGHT_BORDER = new Color(100, 0, 200);
+    private static final Color[] NORMAL_BACKGROUNDS = {
+            new Color(220, 240, 255),
+            new Color(255, 240, 220),
+            new Color(220, 255, 220),
+            new Color(255, 220, 255)
+    };
+    private static final Color PLAIN_BACKGROUND = new Color(245, 245, 245);
+    private static final Color NORMAL_BORDER = new Color(100, 100, 100);
+    private static final Color HOVER_COLOR = new Color(255, 255, 255, 60);
+    private static final Stroke SELECTED_STROKE = new BasicStroke(3);
+    private static final Stroke HIGHLIGHT_STROKE = new BasicStroke(2);
+    private static final Stroke NORMAL_STROKE = new BasicStroke(1);
+
+    // 方块风格（game.tileStyle）：colorful按类型着色，plain使用统一背景
+    private static volatile boolean plainStyle = false;
+
     private int row;
     private int col;
     private int tileType;
     private boolean highlighted;    // 是否高亮
     private boolean selected;       // 是否选中
     private Image tileImage;
+    private int tileSize = GameConstants.TILE_SIZE;  // 当前方块尺寸，随布局缩放
 
     public TileButton(int row, int col) {
         this.row = row;
@@ -34,14 +56,9 @@ public class TileButton extends JButton {
     // 图片加载和缓存
     private void updateTileImage() {
         if (tileType > 0) {
-            tileImage = ResourceLoader.loadTileImage(tileType);
-            if (tileImage != null) {
-                tileImage = tileImage.getScaledInstance(
-                        GameConstants.TILE_SIZE - 12,
-                        GameConstants.TILE_SIZE - 12,
-                        Image.SCALE_SMOOTH
-                );
-            }
+            // 优先命中预加载的缩放缓存（图片按尺寸缓存，缩放布局时不会重复解码）
+            // 多分辨率图片，高分屏上绘制时直接命中设备像素尺寸的版本
+            tileImage = ResourceLoader.getTileSprite(tileType, tileSize - 12);
         } else {
             tileImage = null;
         }
@@ -50,94 +67,68 @@ public class TileButton extends JButton {
     @Override
     protected void paintComponent(Graphics g) {
         Graphics2D g2d = (Graphics2D) g.create();
+        paintTile(g2d, getWidth(), getHeight(), isEnabled() ? tileType : 0, tileImage,
+                selected, highlighted, getModel().isRollover());
+        g2d.dispose();
+    }
+
+    /**
+     * 绘制方块（按钮绘制和主动渲染模式共用）
+     */
+    static void paintTile(Graphics2D g2d, int width, int height, int tileType, Image tileImage,
+                          boolean selected, boolean highlighted, boolean rollover) {
+        if (tileType <= 0) {
+            return;
+        }
+
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
 
-        int width = getWidth();
-        int height = getHeight();
-
-        // 绘制背景
-        if (isEnabled() && tileType > 0) {
-            // 1. 创建圆角矩形形状
-            RoundRectangle2D roundedRectangle = new RoundRectangle2D.Float(
-                    4, 4, width - 8, height - 8, 15, 15
-            );
-
-            // 2. 根据状态确定背景颜色
-            Color bgColor;
-            if (selected) {
-                // 选中状态
-                bgColor = new Color(255, 215, 0);
-            } else if (highlighted) {
-                // 提示高亮状态
-                bgColor = new Color(200, 150, 255);
-            } else {
-                // 正常状态
-                int colorIndex = tileType % 4;
-                switch (colorIndex) {
-                    case 0:
-                        bgColor = new Color(220, 240, 255);
-                        break;
-                    case 1:
-                        bgColor = new Color(255, 240, 220);
-                        break;
-                    case 2:
-                        bgColor = new Color(220, 255, 220);
-                        break;
-                    case 3:
-                        bgColor = new Color(255, 220, 255);
-                        break;
-                    default:
-                        bgColor = new Color(173, 216, 230);
-                }
-            }
-
-            // 3. 填充圆角矩形背景
-            g2d.setColor(bgColor);
-            g2d.fill(roundedRectangle);
-
-            // 4.绘制边框
-            Color borderColor;
-            if (selected) {
-                borderColor = new Color(200, 100, 0);
-                g2d.setStroke(new BasicStroke(3));
-            } else if (highlighted) {
-                borderColor = new Color(100, 0, 200);
-                g2d.setStroke(new BasicStroke(2));
-            } else {
-                if (bgColor.getRed() > 200 && bgColor.getGreen() > 200 && bgColor.getBlue() > 200) {
-                    borderColor = new Color(100, 100, 100);
-                } else {
-                    borderColor = bgColor.darker().darker();
-                }
-                g2d.setStroke(new BasicStroke(1));
-            }
-
-            g2d.setColor(borderColor);
-            g2d.draw(roundedRectangle);
-
-            // 5.绘制方块图片
-            if (tileImage != null) {
-                int x = (width - tileImage.getWidth(null)) / 2;
-                int y = (height - tileImage.getHeight(null)) / 2;
-                g2d.drawImage(tileImage, x, y, null);
-            }
-
+        // 1. 创建圆角矩形形状
+        RoundRectangle2D roundedRectangle = new RoundRectangle2D.Float(
+                4, 4, width - 8, height - 8, 15, 15
+        );
+
+        // 2. 根据状态确定背景颜色和边框
+        Color bgColor;
+        Color borderColor;
+        if (selected) {
+            // 选中状态
+            bgColor = SELECTED_BACKGROUND;
+            borderColor = SELECTED_BORDER;
+            g2d.setStroke(SELECTED_STROKE);
+        } else if (highlighted) {
+            // 提示高亮状态
+            bgColor = HIGHLIGHT_BACKGROUND;
+            borderColor = HIGHLIGHT_BORDER;
+            g2d.setStroke(HIGHLIGHT_STROKE);
         } else {
-            g2d.setColor(new Color(0, 0, 0, 0));
-            g2d.fillRect(0, 0, width, height);
+            // 正常状态（四种背景色均为浅色，统一使用灰色边框）
+            bgColor = plainStyle ? PLAIN_BACKGROUND : NORMAL_BACKGROUNDS[tileType % NORMAL_BACKGROUNDS.length];
+            borderColor = NORMAL_BORDER;
+            g2d.setStroke(NORMAL_STROKE);
         }
 
-        // 6.添加鼠标悬停效果
-        if (getModel().isRollover() && isEnabled() && tileType > 0) {
-            g2d.setColor(new Color(255, 255, 255, 60));
-            RoundRectangle2D hoverRect = new RoundRectangle2D.Float(
-                    2, 2, width - 4, height - 4, 15, 15
-            );
-            g2d.fill(hoverRect);
+        // 3. 填充圆角矩形背景
+        g2d.setColor(bgColor);
+        g2d.fill(roundedRectangle);
+
+        // 4.绘制边框
+        g2d.setColor(borderColor);
+        g2d.draw(roundedRectangle);
+
+        // 5.绘制方块图片
+        if (tileImage != null) {
+            int x = (width - tileImage.getWidth(null)) / 2;
+            int y = (height - tileImage.getHeight(null)) / 2;
+            g2d.drawImage(tileImage, x, y, null);
         }
 
-        g2d.dispose();
+        // 6.添加鼠标悬停效果
+        if (rollover) {
+            g2d.setColor(HOVER_COLOR);
+            g2d.fill(new RoundRectangle2D.Float(2, 2, width - 4, height - 4, 15, 15));
+        }
     }
 
     @Override
@@ -145,9 +136,19 @@ public class TileButton extends JButton {
         return x >= 0 && x < getWidth() && y >= 0 && y < getHeight();
     }
 
+    @Override
+    public void setBounds(int x, int y, int width, int height) {
+        super.setBounds(x, y, width, height);
+        // 尺寸变化时才切换对应尺寸的缓存图片
+        if (width != tileSize && width > 12) {
+            tileSize = width;
+            updateTileImage();
+        }
+    }
+
     @Override
     public Dimension getPreferredSize() {
-        return new Dimension(GameConstants.TILE_SIZE, GameConstants.TILE_SIZE);
+        return new Dimension(tileSize, tileSize);
     }
 
     @Override
@@ -160,6 +161,13 @@ public class TileButton extends JButton {
         return getPreferredSize();
     }
 
+    /**
+     * 设置方块风格
+     */
+    public static void setTileStyle(String tileStyle) {
+        plainStyle = "plain".equals(tileStyle);
+    }
+
     // Getters and Setters
     public int getRow() { return row; }
     public void setRow(int row) { this.row = row; }
@@ -170,6 +178,9 @@ public class TileButton extends JButton {
     public int getTileType() { return tileType; }
 
     public void setTileType(int tileType) {
+        if (this.tileType == tileType) {
+            return;
+        }
         this.tileType = tileType;
         updateTileImage();
         repaint();
@@ -189,6 +200,7 @@ public class TileButton extends JButton {
 
     public boolean isSelected() { return selected; }
     public boolean isHighlighted() { return highlighted; }
+    Image getTileImage() { return tileImage; }
 
     @Override
     public void setEnabled(boolean enabled) {
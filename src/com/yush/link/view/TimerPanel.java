@@ -5,6 +5,9 @@ import java.awt.*;
 import java.awt.geom.RoundRectangle2D;
 
 public class TimerPanel extends JPanel {
+    private static final Color BACKGROUND_COLOR = new Color(0, 0, 0, 160);
+    private static final Color BORDER_COLOR = new Color(255, 255, 255, 80);
+
     private JLabel timeLabel;
     private Timer timer;
     private long startTime;
@@ -47,17 +50,36 @@ public class TimerPanel extends JPanel {
                 0, 0, getWidth() - 1, getHeight() - 1, 10, 10
         );
 
-        g2d.setColor(new Color(0, 0, 0, 160));
+        g2d.setColor(BACKGROUND_COLOR);
         g2d.fill(roundedRect);
 
         // 边框
         g2d.setStroke(new BasicStroke(1));
-        g2d.setColor(new Color(255, 255, 255, 80));
+        g2d.setColor(BORDER_COLOR);
         g2d.draw(roundedRect);
 
         g2d.dispose();
     }
 
+    /**
+     * 在指定区域绘制计时器（主动渲染模式使用）
+     */
+    void paintTimer(Graphics2D g2d, int x, int y, int width, int height) {
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        RoundRectangle2D roundedRect = new RoundRectangle2D.Float(x, y, width - 1, height - 1, 10, 10);
+        g2d.setColor(BACKGROUND_COLOR);
+        g2d.fill(roundedRect);
+        g2d.setColor(BORDER_COLOR);
+        g2d.draw(roundedRect);
+
+        g2d.setFont(timeLabel.getFont());
+        g2d.setColor(timeLabel.getForeground());
+        String text = timeLabel.getText();
+        FontMetrics metrics = g2d.getFontMetrics();
+        g2d.drawString(text, x + (width - metrics.stringWidth(text)) / 2,
+                y + (height - metrics.getHeight()) / 2 + metrics.getAscent());
+    }
+
     private void initTimer() {
         elapsedTime = 0;
         isRunning = false;
@@ -85,11 +107,22 @@ public class TimerPanel extends JPanel {
         }
     }
 
+    /**
+     * 设置已计的时间（继续存档中的对局时，在开始计时前调用）
+     */
+    public void setElapsedMillis(long elapsedMillis) {
+        if (!isRunning) {
+            elapsedTime = elapsedMillis;
+            updateTimeDisplay();
+        }
+    }
+
     /**
      * 暂停计时
      */
     public void pauseTimer() {
         if (isRunning && !isPaused) {
+            elapsedTime = getElapsedMillis();
             isPaused = true;
             timer.stop();
         }
@@ -121,6 +154,7 @@ public class TimerPanel extends JPanel {
      * 停止计时（完成游戏时调用）
      */
     public void stopTimer() {
+        elapsedTime = getElapsedMillis();
         isRunning = false;
         isPaused = false;
         timer.stop();
@@ -133,6 +167,16 @@ public class TimerPanel extends JPanel {
         return (int) (elapsedTime / 1000);
     }
 
+    /**
+     * 获取当前经过的时间（毫秒），计时中时按当前时间计算
+     */
+    public long getElapsedMillis() {
+        if (isRunning && !isPaused) {
+            return System.currentTimeMillis() - startTime;
+        }
+        return elapsedTime;
+    }
+
     /**
      * 获取时间字符串 (MM:SS)
      */